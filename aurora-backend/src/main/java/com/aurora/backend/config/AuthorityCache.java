@@ -0,0 +1,129 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.event.AuthorityGrantsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache quyền theo username cho CustomJwtAuthenticationConverter (giới hạn kích thước, có version).
+ * <p>
+ * - Mỗi entry ghi lại sequence tại thời điểm bắt đầu load. Thay đổi role/permission nâng mốc validSince,
+ *   thay đổi quyền của một user ghi tombstone có sequence mới hơn, nên kết quả load chạy song song với
+ *   thay đổi quyền sẽ không bao giờ được dùng lại.
+ * - Invalidate chạy sau khi transaction commit để request song song không load lại dữ liệu cũ.
+ * - Tập quyền được intern: user có cùng tổ hợp role dùng chung một Set bất biến và một bitset
+ *   (ID từ PermissionRegistry) dùng cho PermissionAspect.
+ * - Cache nằm trong bộ nhớ từng instance; TTL giới hạn độ trễ khi chạy nhiều instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthorityCache {
+
+    private static final int MAX_INTERNED_SETS = 1024;
+
+    private final PermissionRegistry permissionRegistry;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Set<String>, Grants> interned = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long validSince;
+
+    @Value("${security.authority-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.authority-cache.ttl:5m}")
+    private Duration ttl;
+
+    public Grants get(String username, Supplier<Set<String>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.grants != null && entry.stamp >= validSince && entry.expiresAt > now) {
+            return entry.grants;
+        }
+
+        long loadStamp = sequence.get();
+        Grants grants = intern(loader.get());
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        Entry loaded = new Entry(grants, loadStamp, now + ttl.toMillis());
+        // Không ghi đè entry mới hơn lần load này (tombstone hoặc kết quả load bắt đầu sau lần invalidate gần nhất)
+        entries.compute(username, (k, existing) ->
+                existing != null && existing.stamp > loadStamp ? existing : loaded);
+        return grants;
+    }
+
+    public void invalidate(String username) {
+        long stamp = sequence.incrementAndGet();
+        if (username == null) {
+            validSince = stamp;
+            entries.clear();
+            log.debug("Authority cache cleared");
+        } else {
+            entries.put(username, new Entry(null, stamp, System.currentTimeMillis() + ttl.toMillis()));
+            log.debug("Authority cache invalidated for user {}", username);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGrantsChanged(AuthorityGrantsChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    private Grants intern(Set<String> permissionNames) {
+        Set<String> key = Set.copyOf(permissionNames);
+        Grants cached = interned.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (interned.size() >= MAX_INTERNED_SETS) {
+            interned.clear();
+        }
+        return interned.computeIfAbsent(key, names -> new Grants(
+                names.stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toUnmodifiableSet()),
+                permissionRegistry.toBitset(names)));
+    }
+
+    /**
+     * Xóa entry hết hạn / cũ trước, nếu vẫn đầy thì bỏ bớt entry bất kỳ (xấp xỉ, không cần LRU chính xác).
+     */
+    private void evict(long now) {
+        long since = validSince;
+        entries.values().removeIf(e -> e.stamp < since || e.expiresAt <= now);
+        Iterator<String> it = entries.keySet().iterator();
+        int target = maxSize - Math.max(maxSize / 10, 1);
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Tập quyền của user: authorities cho Spring Security, bitset cho PermissionAspect (không được sửa).
+     */
+    public record Grants(Set<GrantedAuthority> authorities, long[] bits) {
+    }
+
+    /**
+     * grants = null là tombstone (user vừa bị thay đổi quyền).
+     */
+    private record Entry(Grants grants, long stamp, long expiresAt) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.aurora.backend.config;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EmbeddingModel bọc model thật, cache vector theo câu hỏi đã chuẩn hóa (LRU giới hạn kích thước).
+ * <p>
+ * Dùng cho đường truy vấn (ContentRetriever, SemanticAnswerCache) - không dùng khi index tài liệu.
+ * Vector lưu dạng float[]; nhiều request cùng lúc cho cùng một câu hỏi chỉ gọi API một lần
+ * (request sau chờ kết quả của request đang chạy).
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel, CachingEmbeddingModelMXBean, AutoCloseable {
+
+    private static final String MBEAN_NAME = "com.aurora.backend:type=QueryEmbeddingCache";
+
+    private final EmbeddingModel delegate;
+    private final int maxSize;
+    private final Map<String, float[]> cache;
+    private final Map<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder inFlightJoins = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, int maxSize) {
+        this.delegate = delegate;
+        this.maxSize = Math.max(maxSize, 1);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                if (size() > CachingEmbeddingModel.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        registerMBean();
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        if (textSegments.size() == 1) {
+            return Response.from(List.of(Embedding.from(embedText(textSegments.getFirst().text()))));
+        }
+
+        // Nhiều đoạn: lấy từ cache những gì có, gọi model một lần cho phần còn lại
+        List<String> keys = textSegments.stream().map(segment -> normalize(segment.text())).toList();
+        float[][] vectors = new float[keys.size()][];
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            vectors[i] = getCached(keys.get(i));
+            if (vectors[i] == null) {
+                missing.computeIfAbsent(keys.get(i), key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<TextSegment> requests = missing.keySet().stream().map(TextSegment::from).toList();
+            List<Embedding> embeddings = delegate.embedAll(requests).content();
+            int i = 0;
+            for (Map.Entry<String, List<Integer>> entry : missing.entrySet()) {
+                float[] vector = embeddings.get(i++).vector();
+                putCached(entry.getKey(), vector);
+                for (int index : entry.getValue()) {
+                    vectors[index] = vector;
+                }
+            }
+        }
+
+        List<Embedding> result = new ArrayList<>(vectors.length);
+        for (float[] vector : vectors) {
+            result.add(Embedding.from(vector));
+        }
+        return Response.from(result);
+    }
+
+    private float[] embedText(String text) {
+        String key = normalize(text);
+        float[] cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            inFlightJoins.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        try {
+            float[] vector = delegate.embed(key).content().vector();
+            putCached(key, vector);
+            future.complete(vector);
+            return vector;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private float[] getCached(String key) {
+        float[] vector;
+        synchronized (cache) {
+            vector = cache.get(key);
+        }
+        if (vector != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return vector;
+    }
+
+    private void putCached(String key, float[] vector) {
+        synchronized (cache) {
+            cache.put(key, vector);
+        }
+    }
+
+    /**
+     * Chữ thường, gộp khoảng trắng, bỏ dấu câu cuối ("Giờ check-in?" ~ "giờ check-in")
+     */
+    public static String normalize(String text) {
+        String normalized = text.strip().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.replaceAll("[\\s?!.,;:…]+$", "");
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    @Override
+    public void close() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(MBEAN_NAME));
+        } catch (JMException ignored) {
+            // Chưa đăng ký hoặc đã gỡ
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name); // devtools restart
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            log.warn("Cannot register query embedding cache MBean: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getInFlightJoinCount() {
+        return inFlightJoins.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
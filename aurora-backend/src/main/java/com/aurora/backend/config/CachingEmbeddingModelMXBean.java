@@ -0,0 +1,23 @@
+package com.aurora.backend.config;
+
+/**
+ * Chỉ số cache embedding câu hỏi (JMX: com.aurora.backend:type=QueryEmbeddingCache)
+ */
+public interface CachingEmbeddingModelMXBean {
+
+    int getSize();
+
+    int getMaxSize();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getInFlightJoinCount();
+
+    long getEvictionCount();
+
+    double getHitRate();
+
+    void clear();
+}
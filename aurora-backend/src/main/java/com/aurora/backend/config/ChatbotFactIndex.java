@@ -0,0 +1,460 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.event.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Trả lời trực tiếp các câu hỏi dữ liệu có cấu trúc của chatbot (giá/loại phòng, chi nhánh, khuyến mãi,
+ * giờ nhận/trả phòng) từ bản chiếu của bảng branches, room_types, promotions - không qua retrieval và Gemini,
+ * và không dùng giá cũ trong PDF.
+ * <p>
+ * Phân loại ý định bằng từ khóa trên câu hỏi đã bỏ dấu (chạy cục bộ, vài micro giây). Từ hỏi chung ("ở đâu",
+ * "bao nhiêu tiền") chỉ tính khi đi kèm đối tượng của ý định (khách sạn, phòng). Chỉ trả lời khi khớp đúng
+ * một ý định, câu hỏi ngắn, không có dấu hiệu câu hỏi mở (tư vấn, so sánh, tại sao...) và không còn từ nội dung
+ * nào khác ("giá phòng có bao gồm bữa sáng không" hỏi về bữa sáng); còn lại trả về empty để RagService xử lý.
+ * Lọc theo thành phố/chi nhánh và hạng/loại phòng được nhắc trong câu hỏi.
+ * <p>
+ * Bản chiếu nạp lại định kỳ (refresh-interval) và ngay sau khi chi nhánh/loại phòng/khuyến mãi thay đổi
+ * ({@link CatalogChangedEvent}); nạp lỗi thì giữ bản cũ.
+ */
+@Slf4j
+@Component
+public class ChatbotFactIndex {
+
+    public enum Intent {
+        ROOMS, BRANCHES, PROMOTIONS, CHECK_IN_OUT
+    }
+
+    private static final String BRANCHES_SQL = """
+            SELECT id, name, address, ward, district, city, phone, check_in_time, check_out_time
+            FROM branches WHERE status = 'ACTIVE' AND deleted IS NOT TRUE ORDER BY name
+            """;
+    private static final String ROOM_TYPES_SQL = """
+            SELECT rt.branch_id, rt.name, c.name, rt.price_from, rt.max_occupancy, rt.size_m2
+            FROM room_types rt LEFT JOIN room_categories c ON c.id = rt.category_id
+            WHERE rt.deleted IS NOT TRUE ORDER BY rt.price_from
+            """;
+    private static final String PROMOTIONS_SQL = """
+            SELECT code, name, branch_id, start_at, end_at, discount_type, percent_off, amount_off,
+                   max_discount_amount, min_nights
+            FROM promotions WHERE active = true AND deleted IS NOT TRUE AND end_at >= CURRENT_DATE
+            ORDER BY priority DESC, end_at
+            """;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9]+");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MAX_ITEMS = 20;
+
+    // Từ khóa so trên câu đã bỏ dấu, bao quanh bởi khoảng trắng (khớp nguyên từ); đã gồm đối tượng dữ liệu
+    private static final Map<Intent, List<String>> INTENT_KEYWORDS = Map.of(
+            Intent.ROOMS, List.of("gia phong", "bang gia", "loai phong", "hang phong", "phong gia", "room price",
+                    "room prices", "room rate", "room rates", "room type", "room types"),
+            Intent.BRANCHES, List.of("chi nhanh", "co so", "dia chi", "branch", "branches", "address"),
+            Intent.PROMOTIONS, List.of("khuyen mai", "uu dai", "giam gia", "ma giam", "voucher", "coupon", "promotion",
+                    "promotions", "discount", "promo"),
+            Intent.CHECK_IN_OUT, List.of("nhan phong", "tra phong", "check in", "checkin", "check out", "checkout"));
+    // Từ hỏi chung chỉ là ý định khi câu hỏi nhắc đối tượng tương ứng ("hồ bơi ở đâu" không phải hỏi chi nhánh)
+    private static final Map<Intent, List<String>> INTENT_CUES = Map.of(
+            Intent.ROOMS, List.of("gia bao nhieu", "bao nhieu tien", "gia", "price", "rate", "cost"),
+            Intent.BRANCHES, List.of("o dau", "nam o", "nam dau", "where", "location"));
+    private static final Map<Intent, List<String>> INTENT_OBJECTS = Map.of(
+            Intent.ROOMS, List.of("phong", "room", "rooms"),
+            Intent.BRANCHES, List.of("khach san", "aurora", "hotel"));
+    // Từ hỏi/từ đệm không mang nội dung; từ còn lại ngoài danh sách này và tên chi nhánh/loại phòng thì chuyển cho RAG.
+    // Không có "muon": vừa là "muốn" vừa là "muộn" (trả phòng muộn)
+    private static final List<String> QUESTION_WORDS = List.of("cho hoi", "cho biet", "vui long", "xin", "hoi", "biet",
+            "toi", "minh", "em", "anh", "chi", "ban", "oi", "a", "nhe", "vay", "the", "thi", "va", "voi", "la", "co",
+            "khong", "ko", "k", "chua", "duoc", "o", "tai", "cua", "cho", "ve", "ben", "nao", "gi", "sao", "the nao",
+            "nhu the nao", "bao nhieu", "tien", "may", "gio", "luc", "khi", "tu", "den", "truoc", "sau", "nhung", "cac", "mot",
+            "moi", "tat ca", "danh sach", "thong tin", "hien", "hien tai", "hien nay", "bay gio", "nay", "dang",
+            "ap dung", "dem", "ngay", "what", "which", "is", "are", "an", "of", "in", "at", "for", "how", "much",
+            "when", "time", "do", "does", "you", "your", "have", "has", "any", "there", "please", "list", "all", "per",
+            "night");
+    // Câu hỏi mở cần suy luận/tư vấn - để Gemini trả lời
+    private static final List<String> OPEN_QUESTION_CUES = List.of("tai sao", "vi sao", "so sanh", "tu van", "goi y",
+            "co nen", "nen chon", "nen dat", "phu hop", "khac nhau", "why", "compare", "recommend", "should");
+    private static final Map<String, String> CITY_ALIASES = Map.of(
+            "sai gon", "ho chi minh", "saigon", "ho chi minh", "hcm", "ho chi minh", "tphcm", "ho chi minh",
+            "hn", "ha noi", "hanoi", "ha noi", "danang", "da nang");
+    // Cụm dài trước để "bao nhieu tien" không bị tách thành "bao nhieu" + "tien"
+    private static final List<String> KNOWN_PHRASES = knownPhrases();
+
+    private record BranchFact(String id, String name, String address, String city, String phone,
+                              LocalTime checkIn, LocalTime checkOut, List<String> keys) {
+    }
+
+    private record RoomTypeFact(String branchId, String name, String category, BigDecimal priceFrom,
+                                Integer maxOccupancy, Double sizeM2, String key) {
+    }
+
+    private record PromotionFact(String code, String name, String branchId, LocalDate startAt, LocalDate endAt,
+                                 String discountType, BigDecimal percentOff, BigDecimal amountOff,
+                                 BigDecimal maxDiscountAmount, Integer minNights) {
+    }
+
+    /**
+     * catalogWords: các từ trong tên chi nhánh/thành phố/loại phòng - không tính là nội dung khác của câu hỏi
+     */
+    private record Snapshot(Map<String, BranchFact> branches, List<RoomTypeFact> roomTypes,
+                            List<PromotionFact> promotions, Set<String> catalogWords) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxQuestionWords;
+    private volatile Snapshot snapshot;
+
+    public ChatbotFactIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${rag.facts.enabled:true}") boolean enabled,
+                            @Value("${rag.facts.max-question-words:25}") int maxQuestionWords) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxQuestionWords = maxQuestionWords;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${rag.facts.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<String, BranchFact> branches = new LinkedHashMap<>();
+            jdbcTemplate.query(BRANCHES_SQL, (resultSet, rowNum) -> {
+                String city = resultSet.getString(6);
+                String name = resultSet.getString(2);
+                String address = String.join(", ", nonBlank(resultSet.getString(3), resultSet.getString(4),
+                        resultSet.getString(5), city));
+                return new BranchFact(resultSet.getString(1), name, address, city, resultSet.getString(7),
+                        resultSet.getObject(8, LocalTime.class), resultSet.getObject(9, LocalTime.class),
+                        nonBlank(normalize(city).replaceFirst("^(thanh pho|tp|tinh) ", ""), normalize(name)));
+            }).forEach(branch -> branches.put(branch.id(), branch));
+
+            List<RoomTypeFact> roomTypes = jdbcTemplate.query(ROOM_TYPES_SQL, (resultSet, rowNum) -> new RoomTypeFact(
+                    resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getBigDecimal(4), (Integer) resultSet.getObject(5),
+                    resultSet.getObject(6) != null ? resultSet.getDouble(6) : null,
+                    normalize(resultSet.getString(2) + " " + (resultSet.getString(3) != null ? resultSet.getString(3) : ""))))
+                    .stream().filter(roomType -> branches.containsKey(roomType.branchId())).toList();
+
+            List<PromotionFact> promotions = jdbcTemplate.query(PROMOTIONS_SQL, (resultSet, rowNum) -> new PromotionFact(
+                    resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getObject(4, LocalDate.class), resultSet.getObject(5, LocalDate.class),
+                    resultSet.getString(6), resultSet.getBigDecimal(7), resultSet.getBigDecimal(8),
+                    resultSet.getBigDecimal(9), (Integer) resultSet.getObject(10)));
+
+            Set<String> catalogWords = new HashSet<>();
+            branches.values().forEach(branch -> branch.keys().forEach(key -> catalogWords.addAll(List.of(key.split(" ")))));
+            roomTypes.forEach(roomType -> catalogWords.addAll(List.of(roomType.key().split(" "))));
+            CITY_ALIASES.values().forEach(city -> catalogWords.addAll(List.of(city.split(" "))));
+
+            snapshot = new Snapshot(branches, roomTypes, promotions, catalogWords);
+            log.debug("Chatbot facts refreshed: {} branches, {} room types, {} promotions",
+                    branches.size(), roomTypes.size(), promotions.size());
+        } catch (Exception e) {
+            log.warn("Cannot refresh chatbot facts, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Câu trả lời từ dữ liệu hệ thống, empty nếu không phải câu hỏi có cấu trúc đã biết
+     */
+    public Optional<String> answer(String question) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null || question == null) {
+            return Optional.empty();
+        }
+        String text = " " + normalize(question) + " ";
+        if (text.isBlank() || text.trim().split(" ").length > maxQuestionWords || containsAny(text, OPEN_QUESTION_CUES)) {
+            return Optional.empty();
+        }
+
+        Set<Intent> intents = EnumSet.noneOf(Intent.class);
+        INTENT_KEYWORDS.forEach((intent, keywords) -> {
+            if (containsAny(text, keywords)) {
+                intents.add(intent);
+            }
+        });
+        INTENT_CUES.forEach((intent, cues) -> {
+            if (containsAny(text, cues) && mentionsObject(current, intent, text)) {
+                intents.add(intent);
+            }
+        });
+        List<BranchFact> mentionedBranches = mentionedBranches(current, text);
+        // "Aurora ở Đà Nẵng?" - chỉ nhắc thành phố/khách sạn cũng là hỏi chi nhánh
+        if (intents.isEmpty() && !mentionedBranches.isEmpty() && containsAny(text, List.of("khach san", "aurora", "hotel"))) {
+            intents.add(Intent.BRANCHES);
+        }
+        // "Có khuyến mãi giá phòng không?" - hỏi khuyến mãi, chữ "giá" không phải hỏi bảng giá
+        if (intents.contains(Intent.PROMOTIONS)) {
+            intents.remove(Intent.ROOMS);
+        }
+        if (intents.size() != 1 || hasOtherContent(current, text)) {
+            return Optional.empty();
+        }
+
+        Intent intent = intents.iterator().next();
+        List<BranchFact> branches = mentionedBranches.isEmpty() ? List.copyOf(current.branches().values()) : mentionedBranches;
+        String answer = switch (intent) {
+            case ROOMS -> roomsAnswer(current, branches, text);
+            case BRANCHES -> branchesAnswer(branches, !mentionedBranches.isEmpty());
+            case PROMOTIONS -> promotionsAnswer(current, mentionedBranches);
+            case CHECK_IN_OUT -> checkInOutAnswer(branches);
+        };
+        log.debug("Chatbot fact answer: intent={}, question=\"{}\"", intent, question);
+        return Optional.ofNullable(answer);
+    }
+
+    private String roomsAnswer(Snapshot current, List<BranchFact> branches, String text) {
+        Set<String> branchIds = branches.stream().map(BranchFact::id).collect(Collectors.toSet());
+        List<RoomTypeFact> roomTypes = current.roomTypes().stream()
+                .filter(roomType -> branchIds.contains(roomType.branchId()))
+                .toList();
+        // Hỏi một hạng/loại phòng cụ thể ("giá phòng deluxe") thì chỉ liệt kê loại phòng đó
+        List<RoomTypeFact> mentioned = roomTypes.stream()
+                .filter(roomType -> mentionsRoomType(text, roomType.key()))
+                .toList();
+        if (!mentioned.isEmpty()) {
+            roomTypes = mentioned;
+        }
+        if (roomTypes.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder answer = new StringBuilder("Giá tham khảo các loại phòng tại Aurora (theo dữ liệu hiện tại của hệ thống):\n");
+        Map<String, List<RoomTypeFact>> byBranch = roomTypes.stream().limit(MAX_ITEMS)
+                .collect(Collectors.groupingBy(RoomTypeFact::branchId, LinkedHashMap::new, Collectors.toList()));
+        byBranch.forEach((branchId, items) -> {
+            answer.append('\n').append(current.branches().get(branchId).name()).append(":\n");
+            for (RoomTypeFact roomType : items) {
+                answer.append("- ").append(roomType.name());
+                if (roomType.category() != null) {
+                    answer.append(" (").append(roomType.category()).append(')');
+                }
+                answer.append(": từ ").append(money(roomType.priceFrom())).append("/đêm");
+                if (roomType.maxOccupancy() != null) {
+                    answer.append(", tối đa ").append(roomType.maxOccupancy()).append(" khách");
+                }
+                if (roomType.sizeM2() != null) {
+                    answer.append(", ").append(Math.round(roomType.sizeM2())).append(" m²");
+                }
+                answer.append('\n');
+            }
+        });
+        appendRemaining(answer, roomTypes.size(), "loại phòng");
+        answer.append("\nGiá thực tế theo ngày lưu trú sẽ hiển thị khi bạn chọn ngày đặt phòng.");
+        return answer.toString();
+    }
+
+    private String branchesAnswer(List<BranchFact> branches, boolean filtered) {
+        if (branches.isEmpty()) {
+            return null;
+        }
+        StringBuilder answer = filtered
+                ? new StringBuilder("Thông tin chi nhánh Aurora:\n")
+                : new StringBuilder("Aurora hiện có ").append(branches.size()).append(" chi nhánh đang hoạt động:\n");
+        branches.stream().limit(MAX_ITEMS).forEach(branch -> {
+            answer.append("- ").append(branch.name()).append(": ").append(branch.address());
+            if (branch.phone() != null) {
+                answer.append(" (ĐT: ").append(branch.phone()).append(')');
+            }
+            answer.append('\n');
+        });
+        appendRemaining(answer, branches.size(), "chi nhánh");
+        return answer.toString().stripTrailing();
+    }
+
+    private String promotionsAnswer(Snapshot current, List<BranchFact> mentionedBranches) {
+        LocalDate today = LocalDate.now();
+        Set<String> branchIds = mentionedBranches.stream().map(BranchFact::id).collect(Collectors.toSet());
+        List<PromotionFact> promotions = current.promotions().stream()
+                .filter(promotion -> !promotion.startAt().isAfter(today) && !promotion.endAt().isBefore(today))
+                .filter(promotion -> branchIds.isEmpty() || promotion.branchId() == null || branchIds.contains(promotion.branchId()))
+                .toList();
+        if (promotions.isEmpty()) {
+            return "Hiện Aurora chưa có chương trình khuyến mãi nào đang áp dụng.";
+        }
+
+        StringBuilder answer = new StringBuilder("Các chương trình khuyến mãi đang áp dụng:\n");
+        promotions.stream().limit(MAX_ITEMS).forEach(promotion -> {
+            answer.append("- ").append(promotion.name()).append(" (mã ").append(promotion.code()).append("): ");
+            if ("PERCENTAGE".equals(promotion.discountType()) && promotion.percentOff() != null) {
+                answer.append("giảm ").append(promotion.percentOff().stripTrailingZeros().toPlainString()).append('%');
+                if (promotion.maxDiscountAmount() != null) {
+                    answer.append(" (tối đa ").append(money(promotion.maxDiscountAmount())).append(')');
+                }
+            } else if (promotion.amountOff() != null) {
+                answer.append("giảm ").append(money(promotion.amountOff()));
+            }
+            if (promotion.minNights() != null && promotion.minNights() > 1) {
+                answer.append(", từ ").append(promotion.minNights()).append(" đêm");
+            }
+            BranchFact branch = promotion.branchId() != null ? current.branches().get(promotion.branchId()) : null;
+            if (branch != null) {
+                answer.append(", tại ").append(branch.name());
+            }
+            answer.append(", đến hết ").append(promotion.endAt().format(DATE_FORMAT)).append('\n');
+        });
+        appendRemaining(answer, promotions.size(), "chương trình");
+        return answer.toString().stripTrailing();
+    }
+
+    private String checkInOutAnswer(List<BranchFact> branches) {
+        if (branches.isEmpty()) {
+            return null;
+        }
+        // Các chi nhánh cùng giờ thì trả lời một dòng
+        Map<String, List<String>> byHours = branches.stream().collect(Collectors.groupingBy(
+                branch -> "nhận phòng từ " + time(branch.checkIn()) + ", trả phòng trước " + time(branch.checkOut()),
+                LinkedHashMap::new, Collectors.mapping(BranchFact::name, Collectors.toList())));
+        if (byHours.size() == 1) {
+            return "Tại " + (branches.size() == 1 ? branches.get(0).name() : "tất cả chi nhánh Aurora") + ": "
+                    + byHours.keySet().iterator().next() + ".";
+        }
+        StringBuilder answer = new StringBuilder("Giờ nhận/trả phòng theo chi nhánh:\n");
+        byHours.forEach((hours, names) -> answer.append("- ").append(String.join(", ", names)).append(": ").append(hours).append('\n'));
+        return answer.toString().stripTrailing();
+    }
+
+    private List<BranchFact> mentionedBranches(Snapshot current, String text) {
+        String expanded = text;
+        for (Map.Entry<String, String> alias : CITY_ALIASES.entrySet()) {
+            if (expanded.contains(" " + alias.getKey() + " ")) {
+                expanded = expanded + alias.getValue() + " ";
+            }
+        }
+        String searchable = expanded;
+        return current.branches().values().stream()
+                .filter(branch -> containsAny(searchable, branch.keys()))
+                .toList();
+    }
+
+    /**
+     * Câu hỏi nhắc đối tượng của ý định: khách sạn cho chi nhánh, phòng hoặc tên hạng/loại phòng cho giá phòng
+     */
+    private static boolean mentionsObject(Snapshot current, Intent intent, String text) {
+        if (containsAny(text, INTENT_OBJECTS.getOrDefault(intent, List.of()))) {
+            return true;
+        }
+        return intent == Intent.ROOMS && current.roomTypes().stream()
+                .anyMatch(roomType -> mentionsRoomType(text, roomType.key()));
+    }
+
+    /**
+     * Còn từ nào ngoài từ khóa ý định, từ hỏi và tên chi nhánh/thành phố/loại phòng - câu hỏi về nội dung khác
+     * (bữa sáng, hồ bơi, phụ phí...) mà dữ liệu có cấu trúc không trả lời được
+     */
+    private static boolean hasOtherContent(Snapshot current, String text) {
+        String remaining = text;
+        for (String phrase : KNOWN_PHRASES) {
+            String token = " " + phrase + " ";
+            while (remaining.contains(token)) {
+                remaining = remaining.replace(token, " ");
+            }
+        }
+        for (String word : remaining.trim().split(" ")) {
+            if (!word.isEmpty() && !current.catalogWords().contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> knownPhrases() {
+        List<String> phrases = new ArrayList<>(QUESTION_WORDS);
+        INTENT_KEYWORDS.values().forEach(phrases::addAll);
+        INTENT_CUES.values().forEach(phrases::addAll);
+        INTENT_OBJECTS.values().forEach(phrases::addAll);
+        phrases.addAll(CITY_ALIASES.keySet());
+        phrases.sort(Comparator.comparingInt((String phrase) -> phrase.split(" ").length).reversed());
+        return List.copyOf(phrases);
+    }
+
+    /**
+     * Câu hỏi nhắc tên hạng/loại phòng (bỏ qua từ chung "phong"/"room")
+     */
+    private static boolean mentionsRoomType(String text, String roomTypeKey) {
+        for (String word : roomTypeKey.split(" ")) {
+            if (word.length() >= 4 && !word.equals("phong") && !word.equals("room") && text.contains(" " + word + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendRemaining(StringBuilder answer, int total, String noun) {
+        if (total > MAX_ITEMS) {
+            answer.append("... và ").append(total - MAX_ITEMS).append(' ').append(noun).append(" khác.\n");
+        }
+    }
+
+    private static boolean containsAny(String text, List<String> keywords) {
+        for (String keyword : keywords) {
+            if (!keyword.isEmpty() && text.contains(" " + keyword + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> nonBlank(String... values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                result.add(value.trim());
+            }
+        }
+        return result;
+    }
+
+    private static String money(BigDecimal amount) {
+        return String.format("%,d VNĐ", amount.longValue());
+    }
+
+    private static String time(LocalTime time) {
+        return time != null ? time.format(TIME_FORMAT) : "--:--";
+    }
+
+    /**
+     * "Giá phòng ở Đà Nẵng?" -> "gia phong o da nang"
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('đ', 'd').replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return NON_WORD.matcher(stripped).replaceAll(" ").trim();
+    }
+}
@@ -1,20 +1,15 @@
 package com.aurora.backend.config;
 
+import com.aurora.backend.entity.Permission;
 import com.aurora.backend.entity.User;
 import com.aurora.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -23,40 +18,39 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CustomJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
+    private static final AuthorityCache.Grants NO_GRANTS = new AuthorityCache.Grants(Set.of(), new long[0]);
+
     private final UserRepository userRepository;
+    private final AuthorityCache authorityCache;
 
     @Override
-    @Transactional(readOnly = true)
     public AbstractAuthenticationToken convert(Jwt jwt) {
         // Lấy username từ JWT claim
         String username = jwt.getClaim("sub");
 
-        log.info("Converting JWT for user: {}", username);
-
-        // Load user và permissions từ database
-        Set<GrantedAuthority> authorities = new HashSet<>();
-
+        AuthorityCache.Grants grants;
         try {
-            User user = userRepository.findByUsernameWithPermissions(username)
-                    .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
-            // Chuyển đổi permissions thành GrantedAuthority
-            authorities = user.getRoles().stream()
-                    .flatMap(role -> role.getPermissions().stream())
-                    .map(permission -> new SimpleGrantedAuthority(permission.getName()))
-                    .collect(Collectors.toSet());
-
-            log.info("Loaded {} permissions for user {}: {}",
-                    authorities.size(),
-                    username,
-                    authorities.stream()
-                            .map(GrantedAuthority::getAuthority)
-                            .collect(Collectors.joining(", ")));
-
+            // Chỉ query database khi cache miss (hoặc quyền vừa thay đổi)
+            grants = authorityCache.get(username, () -> loadPermissionNames(username));
         } catch (Exception e) {
             log.error("Error loading permissions for user {}: {}", username, e.getMessage());
+            grants = NO_GRANTS;
         }
 
-        return new JwtAuthenticationToken(jwt, authorities);
+        return new PermissionJwtAuthenticationToken(jwt, grants.authorities(), grants.bits());
+    }
+
+    private Set<String> loadPermissionNames(String username) {
+        User user = userRepository.findByUsernameWithPermissions(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+
+        // Chuyển đổi permissions thành tên quyền
+        Set<String> permissions = user.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getName)
+                .collect(Collectors.toSet());
+
+        log.debug("Loaded {} permissions for user {}: {}", permissions.size(), username, permissions);
+        return permissions;
     }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.aurora.backend.config;
 
+import com.aurora.backend.service.TokenRevocationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
@@ -13,34 +15,108 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.time.Duration;
-import java.util.Objects;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Custom JWT Decoder for Spring Security
  * Decodes and validates JWT tokens using HMAC-SHA512
+ * <p>
+ * NimbusJwtDecoder được build một lần trong constructor (thread-safe, không race khi khởi động).
+ * Token đã verify được cache (giới hạn kích thước) tới thời điểm exp, nên client gửi lại cùng một token
+ * không phải parse + tính HMAC lại. Key là chính chuỗi token (Jwt đã giữ tham chiếu tới chuỗi này nên
+ * không tốn thêm bộ nhớ); chỉ token trùng khớp từng byte với token đã verify mới dùng lại kết quả.
+ * Kiểm tra thu hồi vẫn chạy trên mọi request, kể cả khi lấy từ cache.
+ * <p>
+ * Cache chia {@value #CACHE_SEGMENTS} segment theo hash token, mỗi segment là LinkedHashMap thứ tự truy cập
+ * có khóa riêng: khi đầy chỉ bỏ entry ít dùng nhất (O(1)), không quét cả cache trên thread request.
  */
 @Component
 @Slf4j
 public class CustomJwtDecoder implements JwtDecoder {
 
-    @Value("${jwt.signerKey}")
-    private String signerKey;
+    private static final int CACHE_SEGMENTS = 16;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    private final TokenRevocationService tokenRevocationService;
+    private final NimbusJwtDecoder nimbusJwtDecoder;
+    private final Map<String, Jwt>[] verifiedTokens;
+    private final int cacheMaxSize;
+
+    public CustomJwtDecoder(TokenRevocationService tokenRevocationService,
+                            @Value("${jwt.signerKey}") String signerKey,
+                            @Value("${security.jwt-cache.max-size:10000}") int cacheMaxSize) {
+        this.tokenRevocationService = tokenRevocationService;
+        this.cacheMaxSize = cacheMaxSize;
+        this.verifiedTokens = newSegments(Math.max((cacheMaxSize + CACHE_SEGMENTS - 1) / CACHE_SEGMENTS, 1));
+
+        SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
+        this.nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+
+        // Configure clock skew - set to 0 for precise expiration validation
+        OAuth2TokenValidator<Jwt> timestampValidator = new JwtTimestampValidator(Duration.ofSeconds(0));
+        this.nimbusJwtDecoder.setJwtValidator(timestampValidator);
+    }
 
     @Override
     public Jwt decode(String token) throws JwtException {
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
-            nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
-                    .build();
-
-            // Configure clock skew - set to 0 for precise expiration validation
-            OAuth2TokenValidator<Jwt> timestampValidator = new JwtTimestampValidator(Duration.ofSeconds(0));
-            nimbusJwtDecoder.setJwtValidator(timestampValidator);
+        Map<String, Jwt> segment = segment(token);
+        Jwt jwt;
+        synchronized (segment) {
+            jwt = segment.get(token);
+            if (jwt != null && !isUnexpired(jwt, Instant.now())) {
+                segment.remove(token);
+                jwt = null;
+            }
+        }
+        if (jwt == null) {
+            jwt = nimbusJwtDecoder.decode(token);
+            cache(segment, token, jwt);
         }
 
-        return nimbusJwtDecoder.decode(token);
+        // Token đã logout: chỉ probe Bloom filter trong bộ nhớ, Redis chỉ bị hỏi khi filter báo có
+        if (jwt.getId() != null && tokenRevocationService.isRevoked(jwt.getId())) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+
+    private void cache(Map<String, Jwt> segment, String token, Jwt jwt) {
+        // Token không có exp thì không cache (không biết khi nào hết hiệu lực)
+        if (jwt.getExpiresAt() == null || cacheMaxSize <= 0) {
+            return;
+        }
+        synchronized (segment) {
+            segment.put(token, jwt);
+        }
+    }
+
+    private Map<String, Jwt> segment(String token) {
+        int hash = token.hashCode();
+        return verifiedTokens[(hash ^ (hash >>> 16)) & (CACHE_SEGMENTS - 1)];
+    }
+
+    /**
+     * Mỗi segment giữ tối đa capacity token; vượt quá thì removeEldestEntry bỏ token ít được dùng nhất
+     * (token hết hạn không còn được truy cập nên bị bỏ trước).
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Jwt>[] newSegments(int capacity) {
+        Map<String, Jwt>[] segments = new Map[CACHE_SEGMENTS];
+        for (int i = 0; i < CACHE_SEGMENTS; i++) {
+            segments[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Jwt> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+        return segments;
+    }
+
+    private static boolean isUnexpired(Jwt jwt, Instant now) {
+        return jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(now);
     }
 }
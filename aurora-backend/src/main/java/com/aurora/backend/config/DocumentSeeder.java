@@ -1,69 +1,126 @@
 package com.aurora.backend.config;
 
+import com.aurora.backend.entity.Document;
 import com.aurora.backend.service.DocumentService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.core.annotation.Order;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Nạp tài liệu trong classpath:docs cho chatbot sau khi ứng dụng sẵn sàng, chạy nền (không chặn khởi động),
+ * nhiều tài liệu song song. Tài liệu không đổi nội dung so với manifest được bỏ qua (xem {@link DocumentSeeding}).
+ */
 @Configuration
-@RequiredArgsConstructor
 @Slf4j
 @Profile({"dev", "local"})
 public class DocumentSeeder {
 
+    private static final String DEFAULT_DESCRIPTION = "Default documents uploaded by SYSTEM for Aurora chatbot.";
+
     private final DocumentService documentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int parallelism;
+
+    public DocumentSeeder(DocumentService documentService, JdbcTemplate jdbcTemplate,
+                          @Value("${rag.seeding.enabled:true}") boolean enabled,
+                          @Value("${rag.seeding.parallelism:3}") int parallelism) {
+        this.documentService = documentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.parallelism = parallelism;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRagDocument() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofPlatform().name("document-seeder").daemon().start(() -> {
+            try {
+                seed();
+            } catch (Exception e) {
+                log.error("Document seeding failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    private void seed() throws IOException {
+        List<DocumentSeeding.SeedFile> files = loadDocumentsFromClasspath();
+        DocumentSeeding.JdbcManifest manifest = new DocumentSeeding.JdbcManifest(jdbcTemplate);
+        List<Document> existing = documentService.listFiles();
+        if (manifest.isEmpty()) {
+            adoptExistingDocuments(manifest, files, existing);
+        }
+        // Tài liệu đang có trong DB, kể cả tài liệu nạp trong lượt này (bản embed lỗi cũng bị xóa qua remove)
+        Set<String> existingIds = ConcurrentHashMap.newKeySet();
+        existing.forEach(document -> existingIds.add(document.getId()));
 
-    @Bean
-    @Order(2)
-    public CommandLineRunner initRagDocument() {
-        return args -> {
-            if (documentService.isDocumentHasFile()) {
-                log.info("Documents already exist in database. Skipping document seeding.");
-                return;
+        long start = System.currentTimeMillis();
+        DocumentSeeding.Loader loader = new DocumentSeeding.Loader() {
+            @Override
+            public DocumentSeeding.Seeded load(DocumentSeeding.SeedFile file) throws IOException {
+                Document document = documentService.loadFileFromBytes(file.filename(), file.contentType(), file.content(),
+                        DEFAULT_DESCRIPTION, true);
+                existingIds.add(document.getId());
+                return new DocumentSeeding.Seeded(document.getId(), document.getTotalChunks() != null);
             }
 
-            log.info("No documents found in database. Loading documents from classpath:docs");
-            loadDocumentsFromClasspath();
+            @Override
+            public void remove(String documentId) {
+                // Tài liệu admin đã xóa thì bỏ qua
+                if (existingIds.contains(documentId)) {
+                    documentService.deleteFile(documentId);
+                }
+            }
         };
+        DocumentSeeding.Result result = new DocumentSeeding(loader, manifest, parallelism).run(files);
+
+        log.info("Document seeding completed in {} ms. Loaded {}, unchanged {}, failed {}.",
+                System.currentTimeMillis() - start, result.loaded(), result.skipped(), result.failed());
+    }
+
+    /**
+     * DB đã seed trước khi có manifest: ghi nhận tài liệu cùng tên là bản hiện tại thay vì upload trùng
+     */
+    private void adoptExistingDocuments(DocumentSeeding.Manifest manifest, List<DocumentSeeding.SeedFile> files,
+                                        List<Document> existing) {
+        for (DocumentSeeding.SeedFile file : files) {
+            existing.stream()
+                    .filter(document -> file.filename().equals(document.getFilename()))
+                    .findFirst()
+                    .ifPresent(document -> manifest.record(file.filename(), new DocumentSeeding.ManifestEntry(
+                            EmbeddingCache.contentHash(file.content()), document.getId())));
+        }
     }
 
-    private void loadDocumentsFromClasspath() {
-        String defaultDescription = "Default documents uploaded by SYSTEM for Aurora chatbot.";
-        try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:docs/*");
-
-            int loadedCount = 0;
-            for (Resource resource : resources) {
-                if (resource.exists() && resource.isReadable()) {
-                    String filename = resource.getFilename();
-                    if (filename != null && isValidDocumentFile(filename)) {
-                        try {
-                            byte[] fileBytes = resource.getInputStream().readAllBytes();
-                            String contentType = determineContentType(filename);
-
-                            documentService.loadFileFromBytes(filename, contentType, fileBytes, defaultDescription, true);
-                            loadedCount++;
-                            log.info("Successfully loaded document: {}", filename);
-                        } catch (Exception e) {
-                            log.error("Error loading document {}: {}", filename, e.getMessage());
-                        }
-                    }
+    private List<DocumentSeeding.SeedFile> loadDocumentsFromClasspath() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Resource[] resources = resolver.getResources("classpath:docs/*");
+
+        List<DocumentSeeding.SeedFile> files = new ArrayList<>();
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (resource.exists() && resource.isReadable() && filename != null && isValidDocumentFile(filename)) {
+                try (InputStream inputStream = resource.getInputStream()) {
+                    files.add(new DocumentSeeding.SeedFile(filename, determineContentType(filename), inputStream.readAllBytes()));
                 }
             }
-
-            log.info("Document seeding completed. Loaded {} documents.", loadedCount);
-        } catch (IOException e) {
-            log.error("Error loading documents from classpath: {}", e.getMessage());
         }
+        return files;
     }
 
     private boolean isValidDocumentFile(String fileName) {
@@ -0,0 +1,177 @@
+package com.aurora.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nạp tài liệu mặc định cho chatbot, nhiều tài liệu song song (tối đa parallelism cùng lúc).
+ * <p>
+ * Manifest lưu SHA-256 nội dung từng file đã nạp: file không đổi thì bỏ qua (kể cả khi admin đã xóa tài liệu đó),
+ * file mới thì nạp. File đổi nội dung thì nạp bản mới trước, embed xong mới xóa tài liệu cũ - chatbot không
+ * mất tài liệu trong lúc thay. Tài liệu embed lỗi được ghi manifest không kèm hash nên lần khởi động sau nạp lại;
+ * nếu đang thay bản cũ thì bản lỗi bị xóa, bản cũ được giữ.
+ * <p>
+ * Không phụ thuộc Spring: DocumentSeeder dùng DocumentService (Cloudinary + Gemini), DocumentSeedingTest
+ * (src/test) dùng loader giả.
+ */
+@Slf4j
+public class DocumentSeeding {
+
+    public record SeedFile(String filename, String contentType, byte[] content) {
+    }
+
+    /**
+     * embedded = false: đã upload nhưng embed lỗi (lần khởi động sau nạp lại)
+     */
+    public record Seeded(String documentId, boolean embedded) {
+    }
+
+    public record ManifestEntry(String contentHash, String documentId) {
+    }
+
+    public record Result(int loaded, int skipped, int failed) {
+    }
+
+    public interface Loader {
+        /**
+         * Upload và embed file thành tài liệu mới
+         */
+        Seeded load(SeedFile file) throws Exception;
+
+        /**
+         * Xóa tài liệu (kèm chunk); tài liệu có thể đã bị admin xóa trước đó
+         */
+        void remove(String documentId) throws Exception;
+    }
+
+    public interface Manifest {
+        Map<String, ManifestEntry> entries();
+
+        void record(String filename, ManifestEntry entry);
+    }
+
+    private final Loader loader;
+    private final Manifest manifest;
+    private final int parallelism;
+
+    public DocumentSeeding(Loader loader, Manifest manifest, int parallelism) {
+        this.loader = loader;
+        this.manifest = manifest;
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    public Result run(List<SeedFile> files) {
+        Map<String, ManifestEntry> seeded = manifest.entries();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("doc-seed-", 0).daemon().factory());
+        try {
+            CompletableFuture.allOf(files.stream()
+                    .map(file -> CompletableFuture.runAsync(() -> {
+                        String hash = EmbeddingCache.contentHash(file.content());
+                        ManifestEntry previous = seeded.get(file.filename());
+                        if (previous != null && hash.equals(previous.contentHash())) {
+                            skipped.incrementAndGet();
+                            log.debug("Seed document {} unchanged, skipping", file.filename());
+                            return;
+                        }
+                        String previousDocumentId = previous != null ? previous.documentId() : null;
+                        try {
+                            Seeded result = loader.load(file);
+                            if (result.embedded()) {
+                                manifest.record(file.filename(), new ManifestEntry(hash, result.documentId()));
+                                replace(previousDocumentId, result.documentId());
+                                loaded.incrementAndGet();
+                                log.info("Successfully loaded document: {}", file.filename());
+                            } else {
+                                // Giữ bản cũ (nếu có) làm bản hiện tại, lần khởi động sau thử thay lại
+                                if (previousDocumentId != null) {
+                                    replace(result.documentId(), previousDocumentId);
+                                }
+                                manifest.record(file.filename(), new ManifestEntry(null,
+                                        previousDocumentId != null ? previousDocumentId : result.documentId()));
+                                failed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            log.error("Error loading document {}: {}", file.filename(), e.getMessage());
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+        return new Result(loaded.get(), skipped.get(), failed.get());
+    }
+
+    /**
+     * Xóa tài liệu bị thay (staleDocumentId) sau khi currentDocumentId đã là bản hiện tại; lỗi chỉ để lại tài liệu thừa
+     */
+    private void replace(String staleDocumentId, String currentDocumentId) {
+        if (staleDocumentId == null || staleDocumentId.equals(currentDocumentId)) {
+            return;
+        }
+        try {
+            loader.remove(staleDocumentId);
+        } catch (Exception e) {
+            log.warn("Failed to remove replaced document {}: {}", staleDocumentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Manifest trong bảng document_seed_manifest
+     */
+    public static class JdbcManifest implements Manifest {
+
+        private static final String CREATE_TABLE_SQL = """
+                CREATE TABLE IF NOT EXISTS document_seed_manifest (
+                    filename VARCHAR(255) PRIMARY KEY,
+                    content_hash VARCHAR(64),
+                    document_id VARCHAR(255),
+                    seeded_at TIMESTAMP NOT NULL DEFAULT now()
+                )
+                """;
+        private static final String UPSERT_SQL = """
+                INSERT INTO document_seed_manifest (filename, content_hash, document_id, seeded_at) VALUES (?, ?, ?, now())
+                ON CONFLICT (filename) DO UPDATE SET content_hash = EXCLUDED.content_hash,
+                    document_id = EXCLUDED.document_id, seeded_at = EXCLUDED.seeded_at
+                """;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        public JdbcManifest(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+            jdbcTemplate.execute(CREATE_TABLE_SQL);
+        }
+
+        @Override
+        public Map<String, ManifestEntry> entries() {
+            Map<String, ManifestEntry> entries = new HashMap<>();
+            jdbcTemplate.query("SELECT filename, content_hash, document_id FROM document_seed_manifest",
+                    resultSet -> {
+                        entries.put(resultSet.getString(1), new ManifestEntry(resultSet.getString(2), resultSet.getString(3)));
+                    });
+            return entries;
+        }
+
+        @Override
+        public void record(String filename, ManifestEntry entry) {
+            jdbcTemplate.update(UPSERT_SQL, filename, entry.contentHash(), entry.documentId());
+        }
+
+        public boolean isEmpty() {
+            Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM document_seed_manifest", Long.class);
+            return count == null || count == 0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.aurora.backend.config;
+
+import dev.langchain4j.data.embedding.Embedding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache embedding theo hash nội dung chunk (bảng {@value RagConfig#EMBEDDING_CACHE_TABLE}).
+ * <p>
+ * Chunk không đổi khi reindex, hoặc trùng nội dung giữa các tài liệu, dùng lại vector đã có
+ * thay vì gọi API embedding. Mỗi entry ghi model + số chiều; đổi model thì entry cũ bị coi là miss và ghi đè.
+ * Lỗi DB chỉ làm mất cache (log warn), không làm hỏng việc index.
+ */
+@Slf4j
+@Component
+public class EmbeddingCache {
+
+    private static final String SELECT_SQL = "SELECT content_hash, embedding FROM " + RagConfig.EMBEDDING_CACHE_TABLE
+            + " WHERE content_hash = ANY(?) AND model = ?";
+    private static final String UPSERT_SQL = "INSERT INTO " + RagConfig.EMBEDDING_CACHE_TABLE
+            + " (content_hash, model, embedding, created_at) VALUES (?, ?, ?, now())"
+            + " ON CONFLICT (content_hash) DO UPDATE SET model = EXCLUDED.model, embedding = EXCLUDED.embedding,"
+            + " created_at = EXCLUDED.created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String modelKey;
+
+    public EmbeddingCache(JdbcTemplate jdbcTemplate,
+                          @Value("${langchain4j.google-ai-gemini.embedding-model.model-name:text-embedding-004}") String modelName,
+                          @Value("${langchain4j.google-ai-gemini.embedding-model.output-dimensionality:768}") int dimension) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.modelKey = modelName + "/" + dimension;
+    }
+
+    /**
+     * SHA-256 (hex) của nội dung chunk
+     */
+    public static String contentHash(String text) {
+        return contentHash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * SHA-256 (hex) của nội dung nhị phân (file seed, xem {@link DocumentSeeding})
+     */
+    public static String contentHash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Map<String, Embedding> getAll(Collection<String> contentHashes) {
+        Map<String, Embedding> found = new HashMap<>();
+        if (contentHashes.isEmpty()) {
+            return found;
+        }
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_SQL);
+                statement.setArray(1, connection.createArrayOf("varchar", contentHashes.toArray()));
+                statement.setString(2, modelKey);
+                return statement;
+            }, resultSet -> {
+                Array array = resultSet.getArray(2);
+                Object[] values = (Object[]) array.getArray();
+                float[] vector = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    vector[i] = ((Number) values[i]).floatValue();
+                }
+                found.put(resultSet.getString(1), Embedding.from(vector));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Embedding cache lookup failed, embedding all chunks: {}", e.getMessage());
+        }
+        return found;
+    }
+
+    public void putAll(Map<String, Embedding> embeddings) {
+        if (embeddings.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Embedding>> entries = new ArrayList<>(embeddings.entrySet());
+        entries.sort(Map.Entry.comparingByKey()); // Thứ tự khóa cố định, tránh deadlock giữa các worker ghi song song
+        try {
+            jdbcTemplate.execute((Connection connection) -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                    for (Map.Entry<String, Embedding> entry : entries) {
+                        float[] vector = entry.getValue().vector();
+                        Float[] boxed = new Float[vector.length];
+                        for (int i = 0; i < vector.length; i++) {
+                            boxed[i] = vector[i];
+                        }
+                        statement.setString(1, entry.getKey());
+                        statement.setString(2, modelKey);
+                        statement.setArray(3, connection.createArrayOf("float4", boxed));
+                        statement.addBatch();
+                    }
+                    return statement.executeBatch();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Cannot write {} embeddings to cache: {}", entries.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.aurora.backend.config;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retriever kết hợp tìm kiếm vector và tìm kiếm từ khóa (full-text), gộp bằng Reciprocal Rank Fusion.
+ * <p>
+ * Câu hỏi chứa từ chính xác (tên phòng, giá, mã khuyến mãi) thường bị vector search bỏ sót;
+ * nhánh từ khóa bắt được các chunk này. Hai nhánh chạy song song, mỗi nhánh lấy {@code candidates} kết quả,
+ * điểm RRF của chunk = tổng 1 / (rrfK + hạng) qua các nhánh, trả về maxResults chunk điểm cao nhất.
+ * Nhánh từ khóa lỗi hoặc quá thời gian thì chỉ dùng kết quả vector.
+ */
+@Slf4j
+public class HybridContentRetriever implements ContentRetriever, AutoCloseable {
+
+    /**
+     * Tìm chunk theo từ khóa, trả về theo thứ tự liên quan giảm dần
+     */
+    @FunctionalInterface
+    public interface KeywordSearch {
+        List<EmbeddingMatch<TextSegment>> search(String query, int limit);
+    }
+
+    public record Settings(int maxResults, double minScore, int candidates, int rrfK, Duration keywordTimeout) {
+    }
+
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final EmbeddingModel embeddingModel;
+    private final KeywordSearch keywordSearch;
+    private final Settings settings;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HybridContentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel,
+                                  KeywordSearch keywordSearch, Settings settings) {
+        this.embeddingStore = embeddingStore;
+        this.embeddingModel = embeddingModel;
+        this.keywordSearch = keywordSearch;
+        this.settings = settings;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        String text = query.text();
+        CompletableFuture<List<EmbeddingMatch<TextSegment>>> keywordFuture =
+                CompletableFuture.supplyAsync(() -> keywordSearch.search(text, settings.candidates()), executor);
+
+        Embedding queryEmbedding = embeddingModel.embed(text).content();
+        List<EmbeddingMatch<TextSegment>> vectorMatches = embeddingStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(queryEmbedding)
+                .maxResults(settings.candidates())
+                .minScore(settings.minScore())
+                .build()).matches();
+
+        List<EmbeddingMatch<TextSegment>> keywordMatches;
+        try {
+            keywordMatches = keywordFuture.get(settings.keywordTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            keywordMatches = List.of();
+        } catch (Exception e) {
+            keywordFuture.cancel(true);
+            log.warn("Keyword search failed, using vector results only: {}", e.getMessage());
+            keywordMatches = List.of();
+        }
+
+        return fuse(List.of(vectorMatches, keywordMatches));
+    }
+
+    private List<Content> fuse(List<List<EmbeddingMatch<TextSegment>>> rankings) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Map<String, TextSegment> segments = new LinkedHashMap<>();
+        for (List<EmbeddingMatch<TextSegment>> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                EmbeddingMatch<TextSegment> match = ranking.get(rank);
+                if (match.embedded() == null) {
+                    continue;
+                }
+                scores.merge(match.embeddingId(), 1.0 / (settings.rrfK() + rank + 1), Double::sum);
+                segments.putIfAbsent(match.embeddingId(), match.embedded());
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+
+        List<Content> contents = new ArrayList<>(Math.min(ranked.size(), settings.maxResults()));
+        for (Map.Entry<String, Double> entry : ranked.subList(0, Math.min(ranked.size(), settings.maxResults()))) {
+            contents.add(Content.from(segments.get(entry.getKey()), Map.of(
+                    ContentMetadata.SCORE, entry.getValue(),
+                    ContentMetadata.EMBEDDING_ID, entry.getKey())));
+        }
+        return contents;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,201 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.exception.AppException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verify mật khẩu BCrypt trên một pool riêng giới hạn theo số CPU.
+ * <p>
+ * Lúc đổi ca có hàng trăm lượt đăng nhập cùng lúc: BCrypt chỉ chiếm tối đa {@code threads} core,
+ * hàng đợi có giới hạn và bị từ chối ngay (503 LOGIN_BUSY) khi đầy, nên thread Tomcat không bị
+ * chiếm hết và các endpoint khác không bị ảnh hưởng.
+ * Hash cũ có cost thấp hơn cấu hình được hash lại sau khi đăng nhập thành công.
+ */
+@Slf4j
+@Component
+public class PasswordVerifier implements PasswordVerifierMXBean {
+
+    private static final String MBEAN_NAME = "com.aurora.backend:type=PasswordVerifier";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Value("${security.password.verify-threads:0}") int threads,
+                            @Value("${security.password.verify-queue-capacity:64}") int queueCapacity,
+                            @Value("${security.password.verify-timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.timeoutMillis = timeout.toMillis();
+
+        // Mặc định: một nửa số core, để lại CPU cho request khác
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        registerMBean();
+        log.info("Password verifier started: threads={}, queueCapacity={}", poolSize, this.queueCapacity);
+    }
+
+    /**
+     * Kết quả verify: upgradedHash khác null khi mật khẩu đúng và hash cần nâng cost
+     */
+    public record Verification(boolean matched, String upgradedHash) {
+    }
+
+    public Verification verify(String rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Verification> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitNanos.add(startedAt - submittedAt);
+
+                boolean matched = passwordEncoder.matches(rawPassword, encodedPassword);
+                String upgradedHash = null;
+                if (matched && passwordEncoder.upgradeEncoding(encodedPassword)) {
+                    upgradedHash = passwordEncoder.encode(rawPassword);
+                    rehashed.increment();
+                }
+
+                long elapsed = System.nanoTime() - startedAt;
+                hashNanos.add(elapsed);
+                maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                completed.increment();
+                return new Verification(matched, upgradedHash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password verification rejected: queue full ({} waiting)", executor.getQueue().size());
+            throw new AppException(ErrorCode.LOGIN_BUSY);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password verification timed out after {} ms", timeoutMillis);
+            throw new AppException(ErrorCode.LOGIN_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.LOGIN_BUSY);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(MBEAN_NAME));
+        } catch (JMException ignored) {
+            // Chưa đăng ký hoặc đã gỡ
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name); // devtools restart
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            log.warn("Cannot register password verifier MBean: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getRehashedCount() {
+        return rehashed.sum();
+    }
+
+    @Override
+    public double getAverageHashMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1_000_000d / count;
+    }
+
+    @Override
+    public double getAverageQueueWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : queueWaitNanos.sum() / 1_000_000d / count;
+    }
+
+    @Override
+    public double getMaxHashMillis() {
+        return maxHashNanos.get() / 1_000_000d;
+    }
+}
@@ -0,0 +1,27 @@
+package com.aurora.backend.config;
+
+/**
+ * Chỉ số của pool verify BCrypt (JMX: com.aurora.backend:type=PasswordVerifier)
+ */
+public interface PasswordVerifierMXBean {
+
+    int getPoolSize();
+
+    int getActiveCount();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    long getCompletedCount();
+
+    long getRejectedCount();
+
+    long getRehashedCount();
+
+    double getAverageHashMillis();
+
+    double getAverageQueueWaitMillis();
+
+    double getMaxHashMillis();
+}
@@ -0,0 +1,28 @@
+package com.aurora.backend.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JwtAuthenticationToken kèm bitset quyền đã tính sẵn (ID từ PermissionRegistry),
+ * để PermissionAspect kiểm tra quyền bằng phép toán bit thay vì so sánh chuỗi.
+ */
+public class PermissionJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final long[] permissionBits;
+
+    public PermissionJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, long[] permissionBits) {
+        super(jwt, authorities);
+        this.permissionBits = permissionBits;
+    }
+
+    /**
+     * Bitset dùng chung giữa các request (đã intern) - không được sửa
+     */
+    public long[] getPermissionBits() {
+        return permissionBits;
+    }
+}
@@ -0,0 +1,93 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.entity.Permission;
+import com.aurora.backend.repository.PermissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gán ID số nguyên liên tục cho tên quyền để kiểm tra quyền bằng bitset (long[]).
+ * <p>
+ * ID 0 dành cho ROLE_ADMIN. Các quyền trong bảng Permission được gán ID khi khởi động;
+ * quyền tạo sau đó (hoặc tên chỉ xuất hiện trong @RequirePermission) được gán ID mới khi gặp lần đầu.
+ * ID không bao giờ thay đổi hay tái sử dụng nên bitset đã tính trước luôn còn đúng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PermissionRegistry {
+
+    public static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+    public static final int ADMIN_ID = 0;
+
+    private final PermissionRepository permissionRepository;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>(Map.of(ADMIN_AUTHORITY, ADMIN_ID));
+    private final AtomicInteger nextId = new AtomicInteger(ADMIN_ID + 1);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPermissions() {
+        permissionRepository.findAll().stream()
+                .map(Permission::getName)
+                .sorted()
+                .forEach(this::idOf);
+        log.info("Permission registry initialized with {} permissions", ids.size());
+    }
+
+    public int idOf(String permission) {
+        Integer id = ids.get(permission);
+        return id != null ? id : ids.computeIfAbsent(permission, name -> nextId.getAndIncrement());
+    }
+
+    public long[] toBitset(Collection<String> permissions) {
+        long[] bits = new long[0];
+        for (String permission : permissions) {
+            int id = idOf(permission);
+            int word = id >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, word + 1);
+            }
+            bits[word] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /**
+     * Có đủ tất cả bit trong mask (mask rỗng -> true)
+     */
+    public static boolean containsAll(long[] bits, long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            long word = i < bits.length ? bits[i] : 0L;
+            if ((word & mask[i]) != mask[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Có ít nhất một bit trong mask (mask rỗng -> false)
+     */
+    public static boolean containsAny(long[] bits, long[] mask) {
+        int length = Math.min(bits.length, mask.length);
+        for (int i = 0; i < length; i++) {
+            if ((bits[i] & mask[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isAdmin(long[] bits) {
+        return bits.length > 0 && (bits[0] & (1L << ADMIN_ID)) != 0;
+    }
+}
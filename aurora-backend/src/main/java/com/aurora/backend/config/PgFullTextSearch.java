@@ -0,0 +1,82 @@
+package com.aurora.backend.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tìm kiếm từ khóa trên cột text của bảng embedding bằng tsvector (GIN index, xem RagConfig).
+ * <p>
+ * Dùng text search config 'simple' (không stemming - tiếng Việt không biến hình nên khớp nguyên từ là đủ).
+ * Các từ của câu hỏi được nối bằng OR, ts_rank_cd xếp chunk chứa nhiều từ, gần nhau lên trước.
+ */
+public class PgFullTextSearch implements HybridContentRetriever.KeywordSearch {
+
+    public static final String TS_VECTOR_EXPRESSION = "to_tsvector('simple', coalesce(text, ''))";
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TERMS = 32;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String sql;
+
+    public PgFullTextSearch(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.sql = "SELECT embedding_id::text, text, metadata::text, ts_rank_cd(" + TS_VECTOR_EXPRESSION + ", query) AS rank"
+                + " FROM " + table + ", to_tsquery('simple', ?) query"
+                + " WHERE " + TS_VECTOR_EXPRESSION + " @@ query"
+                + " ORDER BY rank DESC LIMIT ?";
+    }
+
+    @Override
+    public List<EmbeddingMatch<TextSegment>> search(String query, int limit) {
+        String tsQuery = toTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> new EmbeddingMatch<>(
+                resultSet.getDouble(4),
+                resultSet.getString(1),
+                null,
+                TextSegment.from(resultSet.getString(2), parseMetadata(resultSet.getString(3)))
+        ), tsQuery, limit);
+    }
+
+    /**
+     * "Phòng Deluxe giá bao nhiêu?" -> "phòng | deluxe | giá | bao | nhiêu" (chỉ chữ/số, không có toán tử từ người dùng)
+     */
+    static String toTsQuery(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(query.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= 2 && terms.size() < MAX_TERMS) {
+                terms.add(token);
+            }
+        }
+        return String.join(" | ", terms);
+    }
+
+    private Metadata parseMetadata(String json) {
+        if (json == null || json.isBlank()) {
+            return new Metadata();
+        }
+        try {
+            return Metadata.from(objectMapper.readValue(json, METADATA_TYPE));
+        } catch (Exception e) {
+            return new Metadata();
+        }
+    }
+}
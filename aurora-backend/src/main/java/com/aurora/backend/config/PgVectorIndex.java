@@ -0,0 +1,121 @@
+package com.aurora.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index ANN (pgvector) trên cột embedding và tham số truy vấn tương ứng.
+ * <p>
+ * HNSW: m / ef_construction quyết định chất lượng đồ thị lúc build, hnsw.ef_search là số ứng viên duyệt mỗi truy vấn
+ * (phải >= LIMIT, nếu không truy vấn trả về ít kết quả hơn). IVFFlat: lists lúc build, ivfflat.probes lúc truy vấn.
+ * Tham số truy vấn được gắn vào mỗi connection của vector store (xem {@link #connectionOptions()}).
+ * <p>
+ * Đổi loại index hoặc m/ef_construction/lists không tự build lại index (tốn thời gian với bảng lớn) - chỉ cảnh báo
+ * kèm câu lệnh DROP INDEX + CREATE INDEX cần chạy (REINDEX giữ nguyên tham số WITH cũ nên không áp dụng được).
+ * Chọn giá trị bằng VectorIndexBenchmark (src/test).
+ */
+@Slf4j
+public class PgVectorIndex {
+
+    public enum Type {
+        HNSW, IVFFLAT
+    }
+
+    public record Settings(Type type, int m, int efConstruction, int lists, int efSearch, int probes) {
+    }
+
+    // Giá trị mặc định của pgvector khi index không khai báo WITH (...)
+    private static final Map<String, String> PGVECTOR_DEFAULTS = Map.of(
+            "m", "16", "ef_construction", "64", "lists", "100");
+    private static final String INDEX_INFO_SQL = """
+            SELECT am.amname, c.reloptions::text FROM pg_class c JOIN pg_am am ON am.oid = c.relam
+            WHERE c.relname = ? AND c.relkind = 'i'
+            """;
+
+    private final String table;
+    private final Settings settings;
+
+    public PgVectorIndex(String table, Settings settings) {
+        this.table = table;
+        this.settings = settings;
+    }
+
+    /**
+     * Trùng tên index mà init-vector-store.sql / CREATE INDEX không đặt tên sinh ra
+     */
+    public String indexName() {
+        return table + "_embedding_idx";
+    }
+
+    public String createIndexSql() {
+        return "CREATE INDEX IF NOT EXISTS " + indexName() + " ON " + table
+                + " USING " + method() + " (embedding vector_cosine_ops) WITH (" + withClause() + ")";
+    }
+
+    /**
+     * Tham số startup của connection Postgres (thuộc tính options của driver): áp dụng cho mọi truy vấn của connection
+     */
+    public String connectionOptions() {
+        return settings.type() == Type.HNSW
+                ? "-c hnsw.ef_search=" + settings.efSearch()
+                : "-c ivfflat.probes=" + settings.probes();
+    }
+
+    /**
+     * Tạo index nếu chưa có; index có sẵn khác loại/tham số cấu hình thì chỉ cảnh báo
+     */
+    public void ensure(JdbcTemplate jdbcTemplate) {
+        List<String[]> existing = jdbcTemplate.query(INDEX_INFO_SQL,
+                (resultSet, rowNum) -> new String[]{resultSet.getString(1), resultSet.getString(2)}, indexName());
+        if (existing.isEmpty()) {
+            jdbcTemplate.execute(createIndexSql());
+            log.info("Created vector index {} ({})", indexName(), withClause());
+            return;
+        }
+
+        String[] index = existing.get(0);
+        if (!method().equals(index[0]) || !expectedOptions().equals(parseOptions(index[1]))) {
+            log.warn("Vector index {} is {} {} but configuration expects {} ({}); rebuild with: DROP INDEX {}; {}",
+                    indexName(), index[0], index[1] != null ? index[1] : "(defaults)", method(), withClause(),
+                    indexName(), createIndexSql());
+        }
+    }
+
+    private String method() {
+        return settings.type().name().toLowerCase(Locale.ROOT);
+    }
+
+    private String withClause() {
+        return settings.type() == Type.HNSW
+                ? "m = " + settings.m() + ", ef_construction = " + settings.efConstruction()
+                : "lists = " + settings.lists();
+    }
+
+    private Map<String, String> expectedOptions() {
+        return settings.type() == Type.HNSW
+                ? Map.of("m", String.valueOf(settings.m()), "ef_construction", String.valueOf(settings.efConstruction()))
+                : Map.of("lists", String.valueOf(settings.lists()));
+    }
+
+    /**
+     * "{m=16,ef_construction=64}" -> map, tham số không khai báo lấy mặc định của pgvector
+     */
+    private Map<String, String> parseOptions(String reloptions) {
+        Map<String, String> options = new HashMap<>();
+        expectedOptions().keySet().forEach(key -> options.put(key, PGVECTOR_DEFAULTS.get(key)));
+        if (reloptions != null) {
+            for (String option : reloptions.replaceAll("[{}\"]", "").split(",")) {
+                String[] pair = option.split("=", 2);
+                if (pair.length == 2 && options.containsKey(pair[0].trim())) {
+                    options.put(pair[0].trim(), pair[1].trim());
+                }
+            }
+        }
+        return options;
+    }
+}
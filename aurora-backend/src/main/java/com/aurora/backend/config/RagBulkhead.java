@@ -0,0 +1,195 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.exception.AppException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cách ly lưu lượng chatbot (Gemini, embedding, vector search) khỏi thread Tomcat của các API đặt phòng.
+ * <p>
+ * Lời gọi blocking chạy trên virtual thread, controller trả CompletableFuture nên thread Tomcat được trả lại ngay.
+ * Mỗi endpoint có số request đồng thời tối đa (vượt thì 503 RAG_BUSY ngay, không xếp hàng) và timeout riêng
+ * (504 RAG_TIMEOUT, virtual thread bị interrupt). Suất chỉ được trả khi lời gọi thực sự kết thúc,
+ * nên Gemini chậm không làm số lời gọi đang chạy vượt giới hạn.
+ */
+@Slf4j
+@Component
+public class RagBulkhead implements RagBulkheadMXBean {
+
+    private static final String MBEAN_NAME = "com.aurora.backend:type=RagBulkhead";
+
+    public enum Endpoint {
+        CHAT, STREAM, RETRIEVER
+    }
+
+    private record Limit(int maxConcurrent, Semaphore permits, Duration timeout) {
+        Limit(int maxConcurrent, Duration timeout) {
+            this(Math.max(maxConcurrent, 1), new Semaphore(Math.max(maxConcurrent, 1)), timeout);
+        }
+    }
+
+    private final Map<Endpoint, Limit> limits = new EnumMap<>(Endpoint.class);
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rag-", 0).factory());
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public RagBulkhead(@Value("${rag.endpoints.chat.max-concurrent:32}") int chatMaxConcurrent,
+                       @Value("${rag.endpoints.chat.timeout:60s}") Duration chatTimeout,
+                       @Value("${rag.endpoints.stream.max-concurrent:64}") int streamMaxConcurrent,
+                       @Value("${rag.endpoints.stream.timeout:120s}") Duration streamTimeout,
+                       @Value("${rag.endpoints.retriever.max-concurrent:16}") int retrieverMaxConcurrent,
+                       @Value("${rag.endpoints.retriever.timeout:10s}") Duration retrieverTimeout) {
+        limits.put(Endpoint.CHAT, new Limit(chatMaxConcurrent, chatTimeout));
+        limits.put(Endpoint.STREAM, new Limit(streamMaxConcurrent, streamTimeout));
+        limits.put(Endpoint.RETRIEVER, new Limit(retrieverMaxConcurrent, retrieverTimeout));
+        registerMBean();
+    }
+
+    /**
+     * Chạy lời gọi blocking trên virtual thread; từ chối ngay (RAG_BUSY) khi endpoint đã đủ suất
+     */
+    public <T> CompletableFuture<T> call(Endpoint endpoint, Callable<T> task) {
+        Limit limit = acquire(endpoint);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    limit.permits().release();
+                }
+            });
+        } catch (RuntimeException e) {
+            limit.permits().release();
+            throw e;
+        }
+
+        long timeoutMillis = limit.timeout().toMillis();
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    if (error instanceof TimeoutException) {
+                        running.cancel(true);
+                        timedOut.increment();
+                        log.warn("RAG {} call timed out after {} ms", endpoint, timeoutMillis);
+                        return CompletableFuture.failedFuture(new AppException(ErrorCode.RAG_TIMEOUT));
+                    }
+                    return CompletableFuture.failedFuture(error);
+                });
+    }
+
+    /**
+     * Giới hạn stream: lấy suất ngay khi gọi (RAG_BUSY trả về trước khi mở SSE), trả suất khi stream kết thúc/bị hủy.
+     * Timeout tính cho token đầu tiên và giữa hai token liên tiếp (câu trả lời dài vẫn stream hết)
+     */
+    public <T> Flux<T> stream(Endpoint endpoint, Supplier<Flux<T>> source) {
+        Limit limit = acquire(endpoint);
+        AtomicBoolean released = new AtomicBoolean();
+        Flux<T> flux;
+        try {
+            flux = source.get();
+        } catch (RuntimeException e) {
+            limit.permits().release();
+            throw e;
+        }
+        return flux
+                .timeout(limit.timeout(), Flux.defer(() -> {
+                    timedOut.increment();
+                    log.warn("RAG {} stream timed out after {}", endpoint, limit.timeout());
+                    return Flux.error(new AppException(ErrorCode.RAG_TIMEOUT));
+                }))
+                .doFinally(signal -> {
+                    if (released.compareAndSet(false, true)) {
+                        limit.permits().release();
+                    }
+                });
+    }
+
+    private Limit acquire(Endpoint endpoint) {
+        Limit limit = limits.get(endpoint);
+        if (!limit.permits().tryAcquire()) {
+            rejected.increment();
+            log.warn("RAG {} rejected: {} requests in flight", endpoint, limit.maxConcurrent());
+            throw new AppException(ErrorCode.RAG_BUSY);
+        }
+        return limit;
+    }
+
+    private int inFlight(Endpoint endpoint) {
+        Limit limit = limits.get(endpoint);
+        return limit.maxConcurrent() - limit.permits().availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(MBEAN_NAME));
+        } catch (JMException ignored) {
+            // Chưa đăng ký hoặc đã gỡ
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name); // devtools restart
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            log.warn("Cannot register RAG bulkhead MBean: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int getChatInFlight() {
+        return inFlight(Endpoint.CHAT);
+    }
+
+    @Override
+    public int getStreamInFlight() {
+        return inFlight(Endpoint.STREAM);
+    }
+
+    @Override
+    public int getRetrieverInFlight() {
+        return inFlight(Endpoint.RETRIEVER);
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+}
@@ -0,0 +1,17 @@
+package com.aurora.backend.config;
+
+/**
+ * Chỉ số giới hạn đồng thời của các endpoint RAG (JMX: com.aurora.backend:type=RagBulkhead)
+ */
+public interface RagBulkheadMXBean {
+
+    int getChatInFlight();
+
+    int getStreamInFlight();
+
+    int getRetrieverInFlight();
+
+    long getRejectedCount();
+
+    long getTimedOutCount();
+}
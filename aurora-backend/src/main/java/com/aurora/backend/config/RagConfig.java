@@ -1,78 +1,243 @@
 package com.aurora.backend.config;
 
 import com.aurora.backend.service.RagService;
+import com.aurora.backend.service.impl.CachingRagService;
+import com.aurora.backend.service.impl.FactAnsweringRagService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.pgvector.DefaultMetadataStorageConfig;
+import dev.langchain4j.store.embedding.pgvector.MetadataStorageMode;
 import dev.langchain4j.store.embedding.pgvector.PgVectorEmbeddingStore;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class RagConfig {
+    public static final String EMBEDDING_TABLE = "langchain_store";
+    public static final String EMBEDDING_CACHE_TABLE = "embedding_cache";
+    public static final String QUERY_EMBEDDING_MODEL = "queryEmbeddingModel";
+
+    // Metadata lưu dạng JSONB; xóa/đếm chunk theo documentId dùng expression index thay vì quét vector
+    private static final String MIGRATE_METADATA_TO_JSONB_SQL = """
+            DO $$
+            BEGIN
+                IF EXISTS (SELECT 1 FROM information_schema.columns
+                           WHERE table_name = 'langchain_store' AND column_name = 'metadata' AND data_type = 'json') THEN
+                    ALTER TABLE langchain_store ALTER COLUMN metadata TYPE jsonb USING metadata::jsonb;
+                END IF;
+            END $$
+            """;
+    private static final String CREATE_DOCUMENT_ID_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_langchain_store_document_id ON langchain_store ((metadata->>'documentId'))";
+    // Full-text index cho nhánh từ khóa của HybridContentRetriever (biểu thức phải khớp PgFullTextSearch)
+    private static final String CREATE_TEXT_SEARCH_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_langchain_store_text_fts ON langchain_store USING GIN ("
+                    + PgFullTextSearch.TS_VECTOR_EXPRESSION + ")";
+    // Vector theo hash nội dung chunk, dùng chung giữa các tài liệu và các lần reindex
+    private static final String CREATE_EMBEDDING_CACHE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS embedding_cache (
+                content_hash VARCHAR(64) PRIMARY KEY,
+                model VARCHAR(128) NOT NULL,
+                embedding REAL[] NOT NULL,
+                created_at TIMESTAMP NOT NULL DEFAULT now()
+            )
+            """;
+
     @Value("${langchain4j.google-ai-gemini.embedding-model.output-dimensionality:768}")
     private int outputDimension;
 
     @Bean
-    public RagService geminiRagService(ContentRetriever contentRetriever, GoogleAiGeminiChatModel googleAiGeminiChatModel) {
-        return AiServices.builder(RagService.class)
-                .chatModel(googleAiGeminiChatModel)
+    public RagService geminiRagService(ContentRetriever contentRetriever, GoogleAiGeminiChatModel googleAiGeminiChatModel,
+                                       GoogleAiGeminiStreamingChatModel googleAiGeminiStreamingChatModel,
+                                       ChatMemoryProvider chatMemoryProvider, SemanticAnswerCache semanticAnswerCache,
+                                       ChatMemoryStore chatMemoryStore, ChatbotFactIndex chatbotFactIndex) {
+        RagService ragService = ragService(googleAiGeminiChatModel, googleAiGeminiStreamingChatModel, contentRetriever,
+                chatMemoryProvider);
+        // Câu hỏi dữ liệu (giá phòng, chi nhánh, khuyến mãi) trả lời từ DB; câu hỏi lặp lại ở lượt đầu hội thoại trả lời từ cache ngữ nghĩa
+        return new FactAnsweringRagService(new CachingRagService(ragService, semanticAnswerCache, chatMemoryStore), chatbotFactIndex);
+    }
+
+    /**
+     * Câu hỏi không chatId: AiServices có chatMemoryProvider gom mọi lời gọi không @MemoryId vào một memory "default"
+     * dùng chung, nên phần không trạng thái dựng riêng, không có chat memory
+     */
+    public interface StatelessRagService {
+        @SystemMessage(RagService.SYSTEM_PROMPT)
+        String chat(@UserMessage String userMessage);
+    }
+
+    /**
+     * RagService gọi Gemini: lịch sử hội thoại theo @MemoryId (chatId) đọc/ghi qua chatMemoryProvider (Redis),
+     * chat(userMessage) không đọc/ghi chat memory
+     */
+    static RagService ragService(ChatModel chatModel, StreamingChatModel streamingChatModel,
+                                 ContentRetriever contentRetriever, ChatMemoryProvider chatMemoryProvider) {
+        RagService conversational = AiServices.builder(RagService.class)
+                .chatModel(chatModel)
+                .streamingChatModel(streamingChatModel)
+                .contentRetriever(contentRetriever)
+                .chatMemoryProvider(chatMemoryProvider)
+                .build();
+        StatelessRagService stateless = AiServices.builder(StatelessRagService.class)
+                .chatModel(chatModel)
                 .contentRetriever(contentRetriever)
                 .build();
+        return new RagService() {
+            @Override
+            public String chat(String userMessage) {
+                return stateless.chat(userMessage);
+            }
+
+            @Override
+            public String chat(String chatId, String userMessage) {
+                return conversational.chat(chatId, userMessage);
+            }
+
+            @Override
+            public Flux<String> stream(String chatId, String userMessage) {
+                return conversational.stream(chatId, userMessage);
+            }
+        };
+    }
+
+    @Bean
+    public PgVectorIndex vectorIndex(@Value("${rag.vector-index.type:hnsw}") String type,
+                                     @Value("${rag.vector-index.m:16}") int m,
+                                     @Value("${rag.vector-index.ef-construction:64}") int efConstruction,
+                                     @Value("${rag.vector-index.lists:100}") int lists,
+                                     @Value("${rag.vector-index.ef-search:100}") int efSearch,
+                                     @Value("${rag.vector-index.probes:10}") int probes,
+                                     @Value("${rag.retrieval.candidates:20}") int candidates) {
+        // ef_search nhỏ hơn LIMIT của truy vấn vector thì HNSW trả thiếu kết quả
+        int effectiveEfSearch = Math.max(efSearch, candidates);
+        if (effectiveEfSearch != efSearch) {
+            log.warn("rag.vector-index.ef-search={} is below rag.retrieval.candidates={}, using {}",
+                    efSearch, candidates, effectiveEfSearch);
+        }
+        return new PgVectorIndex(EMBEDDING_TABLE, new PgVectorIndex.Settings(
+                PgVectorIndex.Type.valueOf(type.toUpperCase(Locale.ROOT)), m, efConstruction, lists, effectiveEfSearch, probes));
+    }
+
+    /**
+     * Pool riêng cho vector store: tham số truy vấn index (ef_search/probes) gắn lúc kết nối qua startup option,
+     * không lẫn vào pool chính. defaultCandidate = false: không thay DataSource chính khi inject theo kiểu
+     */
+    @Bean(defaultCandidate = false)
+    public HikariDataSource vectorStoreDataSource(DataSourceProperties dataSourceProperties, PgVectorIndex vectorIndex,
+                                                  @Value("${rag.vector-store.pool-size:4}") int poolSize) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("aurora-vector-store");
+        dataSource.setMaximumPoolSize(Math.max(poolSize, 1));
+        dataSource.setMinimumIdle(1);
+        dataSource.addDataSourceProperty("options", vectorIndex.connectionOptions());
+        dataSource.setRegisterMbeans(true);
+        return dataSource;
     }
 
     @Bean
-    public EmbeddingStore<TextSegment> embeddingStore(DataSourceProperties properties, DataSourceProperties dataSourceProperties) {
-        String jdbcUrl = dataSourceProperties.getUrl();
-
-        String cleanUrl = jdbcUrl.replace("jdbc:postgresql://", "").split("\\?")[0];
-        String[] parts = cleanUrl.split("/");
-        String[] hostPort = parts[0].split(":");
-
-        String host = hostPort[0];
-        int port = hostPort.length > 1 ? Integer.parseInt(hostPort[1]) : 5432;
-        String database = parts[1];
-
-        return PgVectorEmbeddingStore
-                .builder()
-                .host(host)
-                .port(port)
-                .database(database)
-                .user(dataSourceProperties.getUsername())
-                .password(dataSourceProperties.getPassword())
-                .table("langchain_store")
+    public EmbeddingStore<TextSegment> embeddingStore(@Qualifier("vectorStoreDataSource") HikariDataSource dataSource,
+                                                      JdbcTemplate jdbcTemplate, PgVectorIndex vectorIndex) {
+        PgVectorEmbeddingStore store = PgVectorEmbeddingStore
+                .datasourceBuilder()
+                .datasource(dataSource)
+                .table(EMBEDDING_TABLE)
                 .dropTableFirst(false)
                 .createTable(true)
                 .dimension(outputDimension)
+                .metadataStorageConfig(DefaultMetadataStorageConfig.builder()
+                        .storageMode(MetadataStorageMode.COMBINED_JSONB)
+                        .columnDefinitions(List.of("metadata JSONB NULL"))
+                        .build())
                 .build();
+
+        // Bảng tạo từ trước dùng cột JSON - chuyển sang JSONB và tạo index theo documentId (idempotent)
+        jdbcTemplate.execute(MIGRATE_METADATA_TO_JSONB_SQL);
+        jdbcTemplate.execute(CREATE_DOCUMENT_ID_INDEX_SQL);
+        jdbcTemplate.execute(CREATE_TEXT_SEARCH_INDEX_SQL);
+        jdbcTemplate.execute(CREATE_EMBEDDING_CACHE_TABLE_SQL);
+        vectorIndex.ensure(jdbcTemplate);
+        log.info("Embedding store ready: table={}, metadata=JSONB, documentId/full-text/vector indexes ensured ({}), cache table={}",
+                EMBEDDING_TABLE, vectorIndex.connectionOptions(), EMBEDDING_CACHE_TABLE);
+
+        return store;
+    }
+
+    /**
+     * Model embedding cho câu hỏi (có cache). defaultCandidate = false: chỉ inject khi có
+     * {@code @Qualifier(QUERY_EMBEDDING_MODEL)}, index tài liệu vẫn dùng model gốc
+     */
+    @Bean(defaultCandidate = false)
+    public CachingEmbeddingModel queryEmbeddingModel(EmbeddingModel embeddingModel,
+                                                     @Value("${rag.query-embedding-cache.max-size:5000}") int maxSize) {
+        return new CachingEmbeddingModel(embeddingModel, maxSize);
     }
 
     @Bean
-    public ContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
-        return EmbeddingStoreContentRetriever
-                .builder()
-                .embeddingStore(embeddingStore)
-                .embeddingModel(embeddingModel)
-                .maxResults(5)
-                .minScore(0.7)
-                .build();
+    public ContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore,
+                                             @Qualifier(QUERY_EMBEDDING_MODEL) EmbeddingModel embeddingModel,
+                                             JdbcTemplate jdbcTemplate,
+                                             ObjectMapper objectMapper,
+                                             @Value("${rag.retrieval.hybrid:true}") boolean hybrid,
+                                             @Value("${rag.retrieval.max-results:5}") int maxResults,
+                                             @Value("${rag.retrieval.min-score:0.7}") double minScore,
+                                             @Value("${rag.retrieval.candidates:20}") int candidates,
+                                             @Value("${rag.retrieval.rrf-k:60}") int rrfK,
+                                             @Value("${rag.retrieval.keyword-timeout:2s}") Duration keywordTimeout) {
+        if (!hybrid) {
+            return EmbeddingStoreContentRetriever
+                    .builder()
+                    .embeddingStore(embeddingStore)
+                    .embeddingModel(embeddingModel)
+                    .maxResults(maxResults)
+                    .minScore(minScore)
+                    .build();
+        }
+        // Vector + full-text (tsvector) chạy song song, gộp bằng Reciprocal Rank Fusion
+        return new HybridContentRetriever(
+                embeddingStore,
+                embeddingModel,
+                new PgFullTextSearch(jdbcTemplate, objectMapper, EMBEDDING_TABLE),
+                new HybridContentRetriever.Settings(maxResults, minScore, candidates, rrfK, keywordTimeout));
     }
 
     @Bean
-    public ChatMemoryProvider chatMemoryProvider() {
+    public ChatMemoryProvider chatMemoryProvider(ChatMemoryStore chatMemoryStore,
+                                                 @Value("${rag.chat-memory.max-messages:10}") int maxMessages) {
+        // Lịch sử hội thoại lưu trên Redis (RedisChatMemoryStore), không giữ trong heap theo chatId
         return memoryId -> MessageWindowChatMemory.builder()
                 .id(memoryId)
-                .maxMessages(10)
+                .maxMessages(maxMessages)
+                .chatMemoryStore(chatMemoryStore)
                 .build();
     }
 }
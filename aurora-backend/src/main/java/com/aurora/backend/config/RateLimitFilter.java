@@ -0,0 +1,98 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.dto.response.ApiResponse;
+import com.aurora.backend.enums.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Giới hạn tần suất cho các route public (đăng nhập, RAG, room availability, checkout, upload).
+ * Chạy sau BearerTokenAuthenticationFilter: user đã đăng nhập bị giới hạn theo username, khách theo IP.
+ * IP lấy từ getRemoteAddr() - khi chạy sau reverse proxy cần bật server.forward-headers-strategy.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long REJECTION_REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimiter rateLimiter;
+    // Bot flood có thể bị từ chối hàng nghìn lần/giây - chỉ log tổng số mỗi phút ở mức warn
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong lastRejectionReport = new AtomicLong(System.nanoTime());
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String contextPath = request.getContextPath();
+        String path = contextPath.isEmpty()
+                ? request.getRequestURI()
+                : request.getRequestURI().substring(contextPath.length());
+
+        RateLimiter.Route route = rateLimiter.match(request.getMethod(), path);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean authenticated = authentication instanceof JwtAuthenticationToken && authentication.isAuthenticated();
+        String key = authenticated ? authentication.getName() : request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(route, key, authenticated);
+        if (waitNanos <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Rate limit exceeded: route={}, key={}, retryAfter={}s", route.name(), key, retryAfterSeconds);
+        reportRejection();
+        reject(response, retryAfterSeconds);
+    }
+
+    private void reportRejection() {
+        rejected.increment();
+        long now = System.nanoTime();
+        long last = lastRejectionReport.get();
+        if (now - last >= REJECTION_REPORT_INTERVAL_NANOS && lastRejectionReport.compareAndSet(last, now)) {
+            log.warn("Rate limit rejected {} requests in the last {}s",
+                    rejected.sumThenReset(), TimeUnit.NANOSECONDS.toSeconds(now - last));
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        ErrorCode errorCode = ErrorCode.TOO_MANY_REQUESTS;
+
+        response.setStatus(errorCode.getStatusCode().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ApiResponse<?> apiResponse = ApiResponse.builder()
+                .code(errorCode.getCode())
+                .message(errorCode.getMessage())
+                .build();
+
+        response.getWriter().write(OBJECT_MAPPER.writeValueAsString(apiResponse));
+        response.getWriter().flush();
+    }
+}
@@ -0,0 +1,276 @@
+package com.aurora.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket theo route cho endpoint public (thuật toán GCRA: mỗi bucket chỉ là một long
+ * "theoretical arrival time" cho mỗi key).
+ * <p>
+ * Mỗi key có bucket riêng: mỗi route có một bảng cho username và một bảng cho IP, khóa bằng chính key của request
+ * (không ghép chuỗi). Bảng là mảng cấp sẵn (rate-limit.max-keys slot mỗi route, chia đôi user/IP), mỗi key chỉ nằm
+ * trong một nhóm 8 slot theo hash; TAT được ghi đè tại chỗ nên hot path không cấp phát object nào.
+ * Nhóm đầy thì key mới thay slot có TAT nhỏ nhất - bucket đầy lại sớm nhất, TAT <= now thì bỏ đi tương đương giữ lại.
+ * Các nhóm được khóa theo stripe (rate-limit.stripes) nên request của các key khác stripe không chặn nhau.
+ * <p>
+ * Khi bật rate-limit.redis-sync, request được bucket cục bộ cho qua sẽ được kiểm tra thêm trên Redis
+ * để giới hạn chung cho nhiều instance; Redis lỗi thì chỉ dùng giới hạn cục bộ.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final String REDIS_KEY_PREFIX = "ratelimit:";
+
+    // KEYS[1] = bucket; ARGV[1] = emission interval (ms), ARGV[2] = burst
+    // Trả về 0 nếu cho qua, ngược lại số ms cần chờ
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if tat < now then
+                tat = now
+            end
+            local newTat = tat + interval
+            local wait = newTat - now - burst * interval
+            if wait > 0 then
+                return wait
+            end
+            redis.call('SET', KEYS[1], newTat, 'PX', newTat - now)
+            return 0
+            """, Long.class);
+
+    /**
+     * Quota mặc định; ghi đè bằng rate-limit.routes.{name}.capacity / .per-minute
+     */
+    private static final List<RouteDefaults> ROUTES = List.of(
+            new RouteDefaults("auth", "POST", 10, 10, new String[]{
+                    "/api/v1/auth/login",
+                    "/api/v1/auth/register",
+                    "/api/v1/auth/forgot-password",
+                    "/api/v1/auth/reset-password",
+                    "/api/v1/auth/resend-verification-email"}),
+            new RouteDefaults("rag", null, 10, 20, new String[]{"/api/v1/rag/**"}),
+            new RouteDefaults("availability", null, 60, 120, new String[]{"/api/v1/room-availability/**"}),
+            new RouteDefaults("checkout", "POST", 5, 10, new String[]{
+                    "/api/v1/bookings/checkout",
+                    "/api/v1/payments/vnpay/create"}),
+            new RouteDefaults("upload", "POST", 10, 20, new String[]{
+                    "/api/v1/cloudinary/upload",
+                    "/api/v1/cloudinary/upload-multiple"})
+    );
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final boolean redisSync;
+    private final long origin = System.nanoTime();
+    private final Route[] routes;
+
+    public RateLimiter(StringRedisTemplate stringRedisTemplate,
+                       Environment environment,
+                       @Value("${rate-limit.enabled:true}") boolean enabled,
+                       @Value("${rate-limit.redis-sync:false}") boolean redisSync,
+                       @Value("${rate-limit.stripes:64}") int stripes,
+                       @Value("${rate-limit.max-keys:100000}") int maxKeys) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.redisSync = redisSync;
+
+        int size = Integer.highestOneBit(Math.max(stripes, 2) - 1) << 1; // lũy thừa của 2
+        int keysPerTable = Math.max(maxKeys / 2, size * KeyTable.WAYS);
+        this.routes = ROUTES.stream().map(defaults -> {
+            String prefix = "rate-limit.routes." + defaults.name();
+            int capacity = environment.getProperty(prefix + ".capacity", Integer.class, defaults.capacity());
+            int perMinute = environment.getProperty(prefix + ".per-minute", Integer.class, defaults.perMinute());
+            return new Route(defaults.name(), defaults.method(), defaults.patterns(),
+                    Math.max(capacity, 1), TimeUnit.MINUTES.toNanos(1) / Math.max(perMinute, 1), size, keysPerTable);
+        }).toArray(Route[]::new);
+        log.info("Rate limiter enabled={}, redisSync={}, stripes={}, maxKeys={}, routes={}",
+                enabled, redisSync, size, routes[0].users.slots() * 2, routes.length);
+    }
+
+    /**
+     * Route áp dụng cho request, hoặc null nếu không giới hạn
+     */
+    public Route match(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 0 nếu cho qua, ngược lại số nano giây client cần chờ
+     */
+    public long tryAcquire(Route route, String key, boolean authenticated) {
+        long wait = route.acquireLocal(key, authenticated, System.nanoTime() - origin);
+        if (wait > 0 || !redisSync) {
+            return wait;
+        }
+        return acquireRedis(route, key, authenticated);
+    }
+
+    private long acquireRedis(Route route, String key, boolean authenticated) {
+        try {
+            Long waitMs = stringRedisTemplate.execute(
+                    GCRA_SCRIPT,
+                    List.of(REDIS_KEY_PREFIX + route.name() + (authenticated ? ":u:" : ":ip:") + key),
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toMillis(route.intervalNanos))),
+                    String.valueOf(route.capacity));
+            return waitMs == null ? 0 : TimeUnit.MILLISECONDS.toNanos(waitMs);
+        } catch (DataAccessException e) {
+            log.warn("Redis rate limit unavailable, using local limit only: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private record RouteDefaults(String name, String method, int capacity, int perMinute, String[] patterns) {
+    }
+
+    public static final class Route {
+
+        private final String name;
+        private final String method;
+        private final String[] exactPaths;
+        private final String[] prefixes;
+        private final int capacity;
+        private final long intervalNanos;
+        private final KeyTable users;
+        private final KeyTable addresses;
+
+        private Route(String name, String method, String[] patterns, int capacity, long intervalNanos,
+                      int stripeCount, int keysPerTable) {
+            this.name = name;
+            this.method = method;
+            this.exactPaths = Arrays.stream(patterns).filter(p -> !p.endsWith("/**")).toArray(String[]::new);
+            this.prefixes = Arrays.stream(patterns).filter(p -> p.endsWith("/**"))
+                    .map(p -> p.substring(0, p.length() - 3)).toArray(String[]::new);
+            this.capacity = capacity;
+            this.intervalNanos = intervalNanos;
+            this.users = new KeyTable(keysPerTable, stripeCount);
+            this.addresses = new KeyTable(keysPerTable, stripeCount);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        private boolean matches(String requestMethod, String path) {
+            if (method != null && !method.equals(requestMethod)) {
+                return false;
+            }
+            for (String exact : exactPaths) {
+                if (exact.equals(path)) {
+                    return true;
+                }
+            }
+            for (String prefix : prefixes) {
+                if (path.startsWith(prefix)
+                        && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * GCRA: cho qua nếu sau khi cộng một interval, TAT không vượt quá now + capacity * interval
+         */
+        private long acquireLocal(String key, boolean authenticated, long now) {
+            return (authenticated ? users : addresses).acquire(key, now, intervalNanos, capacity * intervalNanos);
+        }
+    }
+
+    /**
+     * key -> TAT trong mảng cấp sẵn, mỗi key thuộc một nhóm WAYS slot liền nhau theo hash (set-associative).
+     * Slot chỉ bị ghi đè, không bị xóa, nên slot trống luôn nằm cuối nhóm. Truy cập dưới khóa của stripe chứa nhóm
+     */
+    static final class KeyTable {
+
+        static final int WAYS = 8;
+
+        private final String[] keys;
+        private final long[] tats;
+        private final int setMask;
+        private final Object[] locks;
+        private final int lockMask;
+
+        KeyTable(int maxKeys, int stripeCount) {
+            int sets = Integer.highestOneBit(Math.max(maxKeys / WAYS, stripeCount) - 1) << 1;
+            this.keys = new String[sets * WAYS];
+            this.tats = new long[sets * WAYS];
+            this.setMask = sets - 1;
+            this.locks = new Object[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                locks[i] = new Object();
+            }
+            // stripeCount <= sets, cả hai là lũy thừa của 2: mỗi nhóm thuộc đúng một stripe
+            this.lockMask = stripeCount - 1;
+        }
+
+        int slots() {
+            return keys.length;
+        }
+
+        /**
+         * @return 0 nếu cho qua (TAT đã cập nhật), ngược lại số nano giây cần chờ
+         */
+        long acquire(String key, long now, long intervalNanos, long burstWindow) {
+            int hash = key.hashCode();
+            hash ^= hash >>> 16;
+            int base = (hash & setMask) * WAYS;
+            synchronized (locks[hash & lockMask]) {
+                int slot = -1;
+                int oldest = base;
+                long tat = 0;
+                for (int i = base; i < base + WAYS; i++) {
+                    String existing = keys[i];
+                    if (existing == null) {
+                        slot = i;
+                        break;
+                    }
+                    if (existing.equals(key)) {
+                        slot = i;
+                        tat = tats[i];
+                        break;
+                    }
+                    if (tats[i] < tats[oldest]) {
+                        oldest = i;
+                    }
+                }
+                long newTat = Math.max(tat, now) + intervalNanos;
+                long wait = newTat - now - burstWindow;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (slot < 0) {
+                    slot = oldest;
+                }
+                keys[slot] = key;
+                tats[slot] = newTat;
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.aurora.backend.config;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Chat memory của chatbot RAG lưu trên Redis, dùng chung giữa các instance.
+ * <p>
+ * Mỗi hội thoại là một key rag::chat_memory:{chatId} chứa JSON (ChatMessageSerializer) nén gzip -
+ * user message đã được chèn ngữ cảnh RAG nên khá dài, nén giảm khoảng 3-4 lần.
+ * TTL tính từ lần ghi cuối (mỗi lượt hỏi đáp đều ghi lại). Sorted set rag::chat_memory:index
+ * (score = thời điểm ghi cuối) giới hạn số hội thoại: vượt max-sessions thì xóa hội thoại lâu không dùng nhất.
+ * <p>
+ * Redis lỗi thì chatbot vẫn trả lời, chỉ mất ngữ cảnh các lượt trước.
+ */
+@Slf4j
+@Component
+public class RedisChatMemoryStore implements ChatMemoryStore {
+
+    private static final String KEY_PREFIX = "rag::chat_memory:";
+    private static final String INDEX_KEY = KEY_PREFIX + "index";
+
+    // KEYS[1] = memory key, KEYS[2] = index; ARGV[1] = payload, ARGV[2] = ttl (ms), ARGV[3] = now (ms), ARGV[4] = max sessions
+    // Member đã hết TTL được dọn khỏi index, vượt giới hạn thì xóa member có score nhỏ nhất (LRU)
+    private static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[3], KEYS[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', tonumber(ARGV[3]) - tonumber(ARGV[2]))
+            local evicted = 0
+            local overflow = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[4])
+            if overflow > 0 then
+                local oldest = redis.call('ZPOPMIN', KEYS[2], overflow)
+                for i = 1, #oldest, 2 do
+                    evicted = evicted + redis.call('DEL', oldest[i])
+                end
+            end
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            return evicted
+            """, Long.class);
+
+    // KEYS[1] = memory key, KEYS[2] = index
+    private static final RedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('ZREM', KEYS[2], KEYS[1])
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long ttlMillis;
+    private final int maxSessions;
+
+    public RedisChatMemoryStore(StringRedisTemplate stringRedisTemplate,
+                                @Value("${rag.chat-memory.ttl:30m}") Duration ttl,
+                                @Value("${rag.chat-memory.max-sessions:10000}") int maxSessions) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttlMillis = Math.max(ttl.toMillis(), 1);
+        this.maxSessions = Math.max(maxSessions, 1);
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        byte[] key = key(memoryId).getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] payload = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            return payload == null ? List.of() : ChatMessageDeserializer.messagesFromJson(decompress(payload));
+        } catch (Exception e) {
+            log.warn("Cannot load chat memory {}: {}", memoryId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            deleteMessages(memoryId);
+            return;
+        }
+        try {
+            byte[] payload = compress(ChatMessageSerializer.messagesToJson(messages));
+            Long evicted = stringRedisTemplate.execute(UPDATE_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+                    List.of(key(memoryId), INDEX_KEY),
+                    payload, bytes(ttlMillis), bytes(System.currentTimeMillis()), bytes(maxSessions));
+            if (evicted != null && evicted > 0) {
+                log.debug("Evicted {} least recently used chat memories", evicted);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot save chat memory {}: {}", memoryId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        try {
+            stringRedisTemplate.execute(DELETE_SCRIPT, List.of(key(memoryId), INDEX_KEY));
+        } catch (Exception e) {
+            log.warn("Cannot delete chat memory {}: {}", memoryId, e.getMessage());
+        }
+    }
+
+    private static String key(Object memoryId) {
+        return KEY_PREFIX + memoryId;
+    }
+
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] compress(String json) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(json.length() / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static String decompress(byte[] payload) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.aurora.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Đo độ trễ replay của replica định kỳ. Khi replica trễ quá max-lag hoặc không kết nối được,
+ * mọi transaction read-only quay về primary cho tới lần kiểm tra đạt tiếp theo.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Không có WAL đang chờ replay thì coi như không trễ (tránh báo trễ giả khi primary không có ghi)
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final double maxLagSeconds;
+
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = -1;
+
+    public ReplicaLagMonitor(HikariDataSource primary, HikariDataSource replica, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.toMillis() / 1000d;
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (DataAccessException e) {
+            lagSeconds = -1;
+            usable = false;
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+
+        if (usable != replicaUsable) {
+            replicaUsable = usable;
+            if (usable) {
+                log.info("Replica available (lag {}s) - routing read-only transactions to replica. {}",
+                        lagSeconds, poolStats());
+            } else {
+                log.warn("Replica unavailable or lagging (lag {}s, max {}s) - routing all transactions to primary. {}",
+                        lagSeconds, maxLagSeconds, poolStats());
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("Replica lag {}s. {}", lagSeconds, poolStats());
+        }
+    }
+
+    private String poolStats() {
+        return describe(primary) + ", " + describe(replica);
+    }
+
+    private static String describe(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return dataSource.getPoolName() + "[not started]";
+        }
+        return dataSource.getPoolName() + "[active=" + pool.getActiveConnections()
+                + ", idle=" + pool.getIdleConnections()
+                + ", waiting=" + pool.getThreadsAwaitingConnection()
+                + ", total=" + pool.getTotalConnections() + "]";
+    }
+}
@@ -0,0 +1,193 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.event.DocumentEmbeddingsChangedEvent;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache câu trả lời của chatbot RAG theo ngữ nghĩa câu hỏi.
+ * <p>
+ * Câu hỏi được chuẩn hóa (chữ thường, gộp khoảng trắng, bỏ dấu câu cuối); trùng nguyên văn thì trả ngay,
+ * ngược lại embed câu hỏi (qua CachingEmbeddingModel - khi miss ContentRetriever dùng lại vector này)
+ * và so cosine với các câu hỏi đã cache (quét tuần tự - cache nhỏ, vài trăm micro giây).
+ * Đủ ngưỡng similarity-threshold thì dùng lại câu trả lời, không gọi Gemini.
+ * <p>
+ * Tài liệu bất kỳ được index lại/xóa thì xóa toàn bộ cache; câu trả lời đang sinh dở lúc đó không được lưu.
+ * Cache nằm trong bộ nhớ từng instance, TTL giới hạn độ trễ khi chạy nhiều instance.
+ * <p>
+ * Khóa chỉ là câu hỏi, không gồm lịch sử hội thoại: chỉ dùng cho câu hỏi không có ngữ cảnh trước đó
+ * (chat không chatId hoặc lượt đầu của hội thoại) - CachingRagService bỏ qua cache từ lượt thứ hai.
+ */
+@Slf4j
+@Component
+public class SemanticAnswerCache {
+
+    private final EmbeddingModel embeddingModel;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>(); // Theo thứ tự thêm, entry cũ nhất ở đầu
+    private final Map<String, Entry> exactMatches = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public SemanticAnswerCache(@Qualifier(RagConfig.QUERY_EMBEDDING_MODEL) EmbeddingModel embeddingModel,
+                               @Value("${rag.answer-cache.enabled:true}") boolean enabled,
+                               @Value("${rag.answer-cache.similarity-threshold:0.95}") double similarityThreshold,
+                               @Value("${rag.answer-cache.max-entries:2000}") int maxEntries,
+                               @Value("${rag.answer-cache.ttl:6h}") Duration ttl) {
+        this.embeddingModel = embeddingModel;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Kết quả tra cứu; answer != null là hit. Miss thì truyền lại vào {@link #put} sau khi có câu trả lời
+     */
+    public record Lookup(String question, float[] vector, long generation, String answer) {
+
+        public boolean hit() {
+            return answer != null;
+        }
+    }
+
+    public Lookup lookup(String question) {
+        long currentGeneration = generation.get();
+        String normalized = normalize(question);
+        if (!enabled || normalized.isEmpty()) {
+            return new Lookup(normalized, null, currentGeneration, null);
+        }
+
+        long now = System.currentTimeMillis();
+        Entry exact = exactMatches.get(normalized);
+        if (exact != null && exact.expiresAt() > now) {
+            return new Lookup(normalized, exact.vector(), currentGeneration, exact.answer());
+        }
+
+        float[] vector;
+        try {
+            vector = unitVector(embeddingModel.embed(normalized).content().vector());
+        } catch (Exception e) {
+            log.warn("Cannot embed question for answer cache: {}", e.getMessage());
+            return new Lookup(normalized, null, currentGeneration, null);
+        }
+
+        Entry best = null;
+        double bestScore = similarityThreshold;
+        lock.readLock().lock();
+        try {
+            for (Entry entry : entries) {
+                if (entry.expiresAt() <= now || entry.vector().length != vector.length) {
+                    continue;
+                }
+                double score = dot(entry.vector(), vector);
+                if (score >= bestScore) {
+                    best = entry;
+                    bestScore = score;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (best == null) {
+            return new Lookup(normalized, vector, currentGeneration, null);
+        }
+        log.debug("Answer cache hit: \"{}\" ~ \"{}\" (score {})", normalized, best.question(), bestScore);
+        return new Lookup(normalized, vector, currentGeneration, best.answer());
+    }
+
+    public void put(Lookup lookup, String answer) {
+        if (!enabled || lookup.hit() || lookup.vector() == null || answer == null || answer.isBlank()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(lookup.question(), lookup.vector(), answer, now + ttlMillis);
+
+        lock.writeLock().lock();
+        try {
+            // Tài liệu đã thay đổi trong lúc sinh câu trả lời - bỏ qua
+            if (generation.get() != lookup.generation()) {
+                return;
+            }
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry existing = iterator.next();
+                if (existing.expiresAt() <= now) {
+                    iterator.remove();
+                    exactMatches.remove(existing.question(), existing);
+                }
+            }
+            while (entries.size() >= maxEntries) {
+                Entry evicted = entries.removeFirst();
+                exactMatches.remove(evicted.question(), evicted);
+            }
+            entries.add(entry);
+            exactMatches.put(entry.question(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            exactMatches.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEmbeddingsChanged(DocumentEmbeddingsChangedEvent event) {
+        log.debug("Document {} re-indexed, clearing answer cache", event.documentId());
+        invalidateAll();
+    }
+
+    static String normalize(String question) {
+        return question == null ? "" : CachingEmbeddingModel.normalize(question);
+    }
+
+    private static float[] unitVector(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length && norm > 0; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Entry(String question, float[] vector, String answer, long expiresAt) {
+    }
+}
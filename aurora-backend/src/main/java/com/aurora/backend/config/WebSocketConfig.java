@@ -1,5 +1,7 @@
 package com.aurora.backend.config;
 
+import com.aurora.backend.socket.DashboardHandshakeInterceptor;
+import com.aurora.backend.socket.DashboardWebSocketHandler;
 import com.aurora.backend.socket.GeminiStreamWebSocketHandler;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -11,14 +13,24 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GeminiStreamWebSocketHandler webSocketHandler;
+    private final DashboardWebSocketHandler dashboardWebSocketHandler;
+    private final DashboardHandshakeInterceptor dashboardHandshakeInterceptor;
 
-    public WebSocketConfig(GeminiStreamWebSocketHandler webSocketHandler) {
+    public WebSocketConfig(GeminiStreamWebSocketHandler webSocketHandler,
+                           DashboardWebSocketHandler dashboardWebSocketHandler,
+                           DashboardHandshakeInterceptor dashboardHandshakeInterceptor) {
         this.webSocketHandler = webSocketHandler;
+        this.dashboardWebSocketHandler = dashboardWebSocketHandler;
+        this.dashboardHandshakeInterceptor = dashboardHandshakeInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(webSocketHandler, "/ws/rag/stream")
                 .setAllowedOrigins("*"); // Trong production nên chỉ định domain cụ thể
+        // JWT được kiểm tra trong handshake interceptor
+        registry.addHandler(dashboardWebSocketHandler, "/ws/dashboard")
+                .addInterceptors(dashboardHandshakeInterceptor)
+                .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
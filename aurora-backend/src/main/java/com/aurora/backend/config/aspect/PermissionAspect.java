@@ -1,26 +1,43 @@
 package com.aurora.backend.config.aspect;
 
+import com.aurora.backend.config.PermissionJwtAuthenticationToken;
+import com.aurora.backend.config.PermissionRegistry;
 import com.aurora.backend.config.annotation.RequirePermission;
 import com.aurora.backend.enums.ErrorCode;
 import com.aurora.backend.exception.AppException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Kiểm tra @RequirePermission bằng bitset: annotation của mỗi method được compile một lần thành mask
+ * (cache theo Method - hashCode/equals của annotation đi qua reflection, chậm hơn nhiều),
+ * principal mang sẵn bitset quyền (PermissionJwtAuthenticationToken) nên mỗi lần kiểm tra
+ * chỉ là vài phép AND trên long[], không cấp phát bộ nhớ.
+ */
 @Aspect
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class PermissionAspect {
 
+    private final PermissionRegistry permissionRegistry;
+    private final Map<Method, long[]> compiledMasks = new ConcurrentHashMap<>();
+
     @Before("@annotation(requirePermission)")
-    public void checkPermission(RequirePermission requirePermission) {
+    public void checkPermission(JoinPoint joinPoint, RequirePermission requirePermission) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -28,49 +45,40 @@ public class PermissionAspect {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
 
-        Set<String> userPermissions = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toSet());
+        long[] userPermissions = permissionBits(authentication);
 
         // ADMIN có tất cả quyền - bypass permission check
-        if (userPermissions.contains("ROLE_ADMIN")) {
+        if (PermissionRegistry.isAdmin(userPermissions)) {
             log.debug("User {} has ADMIN role - permission check bypassed", authentication.getName());
             return;
         }
 
-        String[] requiredPermissions = requirePermission.value();
+        long[] requiredMask = compiledMasks.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                method -> permissionRegistry.toBitset(List.of(requirePermission.value())));
         RequirePermission.LogicType logic = requirePermission.logic();
 
         boolean hasPermission = switch (logic) {
-            case AND -> hasAllPermissions(userPermissions, requiredPermissions);
-            case OR -> hasAnyPermission(userPermissions, requiredPermissions);
+            case AND -> PermissionRegistry.containsAll(userPermissions, requiredMask);
+            case OR -> PermissionRegistry.containsAny(userPermissions, requiredMask);
         };
 
         if (!hasPermission) {
             log.warn("User {} không có quyền. User permissions: {} | Required ({}): {}",
                     authentication.getName(),
-                    userPermissions,
+                    authentication.getAuthorities(),
                     logic,
-                    String.join(", ", requiredPermissions));
+                    String.join(", ", requirePermission.value()));
             throw new AppException(ErrorCode.UNAUTHORIZED);
         }
     }
 
-    private boolean hasAllPermissions(Set<String> userPermissions, String[] requiredPermissions) {
-        for (String permission : requiredPermissions) {
-            if (!userPermissions.contains(permission)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean hasAnyPermission(Set<String> userPermissions, String[] requiredPermissions) {
-        for (String permission : requiredPermissions) {
-            if (userPermissions.contains(permission)) {
-                return true;
-            }
+    private long[] permissionBits(Authentication authentication) {
+        if (authentication instanceof PermissionJwtAuthenticationToken token) {
+            return token.getPermissionBits();
         }
-        return false;
+        // Authentication không đi qua CustomJwtAuthenticationConverter (vd. test) - tính tại chỗ
+        return permissionRegistry.toBitset(authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
     }
 }
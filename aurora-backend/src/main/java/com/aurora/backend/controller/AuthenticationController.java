@@ -70,10 +70,14 @@ public class AuthenticationController {
      */
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse<Void>> logout(
-            @CookieValue(value = "refresh_token", required = false) String refreshToken
+            @CookieValue(value = "refresh_token", required = false) String refreshToken,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
     ) {
         log.info("Logout request");
-        ResponseCookie responseCookie = authenticationService.handleLogout(refreshToken);
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        ResponseCookie responseCookie = authenticationService.handleLogout(refreshToken, accessToken);
 
         ApiResponse<Void> response = ApiResponse.<Void>builder()
                 .message("Logout successful")
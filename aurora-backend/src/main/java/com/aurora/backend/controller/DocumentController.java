@@ -3,7 +3,9 @@ package com.aurora.backend.controller;
 import com.aurora.backend.config.annotation.RequirePermission;
 import com.aurora.backend.constant.PermissionConstants;
 import com.aurora.backend.dto.response.ApiResponse;
+import com.aurora.backend.dto.response.IngestionJobResponse;
 import com.aurora.backend.entity.Document;
+import com.aurora.backend.service.DocumentIngestionService;
 import com.aurora.backend.service.DocumentService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,7 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class DocumentController {
     DocumentService documentService;
+    DocumentIngestionService documentIngestionService;
 
     @PostMapping("/upload")
     @RequirePermission(PermissionConstants.Admin.DOCUMENT_CREATE)
@@ -158,14 +161,37 @@ public class DocumentController {
 
     @PostMapping("/reindex-all")
     @RequirePermission(PermissionConstants.Admin.DOCUMENT_UPDATE)
-    public ResponseEntity<ApiResponse<Void>> reindexAllFiles() {
+    public ResponseEntity<ApiResponse<IngestionJobResponse>> reindexAllFiles() {
         log.info("Request to reindex all documents");
 
-        documentService.reindexAllFiles();
+        IngestionJobResponse job = documentService.reindexAllFiles();
 
+        return ResponseEntity.accepted().body(
+                ApiResponse.<IngestionJobResponse>builder()
+                        .message("Reindex job started")
+                        .result(job)
+                        .build()
+        );
+    }
+
+    @GetMapping("/reindex-jobs")
+    @RequirePermission(PermissionConstants.Admin.DOCUMENT_VIEW)
+    public ResponseEntity<ApiResponse<List<IngestionJobResponse>>> listReindexJobs() {
         return ResponseEntity.ok(
-                ApiResponse.<Void>builder()
-                        .message("All documents reindexed successfully")
+                ApiResponse.<List<IngestionJobResponse>>builder()
+                        .message("Reindex jobs retrieved successfully")
+                        .result(documentIngestionService.listJobs())
+                        .build()
+        );
+    }
+
+    @GetMapping("/reindex-jobs/{jobId}")
+    @RequirePermission(PermissionConstants.Admin.DOCUMENT_VIEW)
+    public ResponseEntity<ApiResponse<IngestionJobResponse>> getReindexJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(
+                ApiResponse.<IngestionJobResponse>builder()
+                        .message("Reindex job retrieved successfully")
+                        .result(documentIngestionService.getJob(jobId))
                         .build()
         );
     }
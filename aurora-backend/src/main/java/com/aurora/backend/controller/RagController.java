@@ -1,5 +1,6 @@
 package com.aurora.backend.controller;
 
+import com.aurora.backend.config.RagBulkhead;
 import com.aurora.backend.service.RagService;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
@@ -14,7 +15,12 @@ import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Endpoint chatbot: lời gọi Gemini/embedding chạy qua {@link RagBulkhead} (virtual thread, giới hạn đồng thời, timeout),
+ * không giữ thread Tomcat trong lúc chờ model
+ */
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/rag")
@@ -22,17 +28,18 @@ import java.util.List;
 public class RagController {
     private final RagService geminiRagService;
     private final ContentRetriever contentRetriever;
+    private final RagBulkhead ragBulkhead;
 
     @Deprecated
     @GetMapping("/sync")
-    public String chat(@RequestParam String message, @RequestParam(required = false) String chatId) {
-        return geminiRagService.chat(chatId, message);
+    public CompletableFuture<String> chat(@RequestParam String message, @RequestParam(required = false) String chatId) {
+        return ragBulkhead.call(RagBulkhead.Endpoint.CHAT, () -> geminiRagService.chat(chatId, message));
     }
 
     @Deprecated
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<String> stream(@RequestParam String message, @RequestParam(required = false) String chatId) {
-        return geminiRagService.stream(chatId, message)
+        return ragBulkhead.stream(RagBulkhead.Endpoint.STREAM, () -> geminiRagService.stream(chatId, message))
                 .filter(chunk -> chunk != null && !chunk.trim().isEmpty())
                 .map(chunk -> "data: " + chunk + "\n\n")
                 .doOnComplete(() -> log.info("Stream completed for chatId: {}", chatId))
@@ -40,9 +47,10 @@ public class RagController {
     }
 
     @GetMapping("/retriever")
-    public String testRetriever(@RequestParam(required = false, defaultValue = "aurora có ưu đãi gì?") String message) {
-        List<Content> contents = contentRetriever.retrieve(Query.from(message));
-        return contents.toString();
+    public CompletableFuture<String> testRetriever(@RequestParam(required = false, defaultValue = "aurora có ưu đãi gì?") String message) {
+        return ragBulkhead.call(RagBulkhead.Endpoint.RETRIEVER, () -> {
+            List<Content> contents = contentRetriever.retrieve(Query.from(message));
+            return contents.toString();
+        });
     }
 }
-
@@ -0,0 +1,87 @@
+package com.aurora.backend.controller;
+
+import com.aurora.backend.config.annotation.RequirePermission;
+import com.aurora.backend.constant.PermissionConstants;
+import com.aurora.backend.enums.ExportFormat;
+import com.aurora.backend.service.ReportExportService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/reports/export")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReportExportController {
+
+    ReportExportService reportExportService;
+
+    @GetMapping("/bookings")
+    @RequirePermission(PermissionConstants.Manager.REPORT_EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String branchId
+    ) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        log.info("Request to export bookings: format={}, dateFrom={}, dateTo={}, branchId={}",
+                exportFormat, dateFrom, dateTo, branchId);
+        StreamingResponseBody body = reportExportService.exportBookings(exportFormat, dateFrom, dateTo, branchId);
+        return attachment("bookings", exportFormat, body);
+    }
+
+    @GetMapping("/payments")
+    @RequirePermission(PermissionConstants.Manager.REPORT_EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String branchId
+    ) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        log.info("Request to export payments: format={}, dateFrom={}, dateTo={}, branchId={}",
+                exportFormat, dateFrom, dateTo, branchId);
+        StreamingResponseBody body = reportExportService.exportPayments(exportFormat, dateFrom, dateTo, branchId);
+        return attachment("payments", exportFormat, body);
+    }
+
+    @GetMapping("/revenue")
+    @RequirePermission(PermissionConstants.Manager.REPORT_EXPORT)
+    public ResponseEntity<StreamingResponseBody> exportRevenue(
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) String branchId
+    ) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        log.info("Request to export revenue: format={}, dateFrom={}, dateTo={}, branchId={}",
+                exportFormat, dateFrom, dateTo, branchId);
+        StreamingResponseBody body = reportExportService.exportRevenue(exportFormat, dateFrom, dateTo, branchId);
+        return attachment("revenue", exportFormat, body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String name, ExportFormat format, StreamingResponseBody body) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header("X-Accel-Buffering", "no") // Không cho reverse proxy buffer toàn bộ file
+                .body(body);
+    }
+}
@@ -23,6 +23,7 @@ public class DashboardOverviewResponse {
     BigDecimal averageBookingValue = BigDecimal.ZERO;
     long newCustomers;
     long returningCustomers;
+    boolean customerCountsApproximate; // true nếu new/returning lấy từ HyperLogLog (sai số ~1%)
     double revenueGrowthPercent;
 }
 
@@ -0,0 +1,33 @@
+package com.aurora.backend.dto.response;
+
+import com.aurora.backend.enums.IngestionJobStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IngestionJobResponse {
+    String jobId;
+    IngestionJobStatus status;
+    LocalDateTime startedAt;
+    LocalDateTime finishedAt;
+    int totalDocuments;
+    int completedDocuments;
+    int failedDocuments;
+    int unchangedDocuments; // Nội dung không đổi, không ghi lại chunk
+    int embeddedChunks;
+    int storedChunks;
+    Map<String, Integer> queueDepths; // Số item đang chờ ở mỗi giai đoạn
+    List<String> errors;
+}
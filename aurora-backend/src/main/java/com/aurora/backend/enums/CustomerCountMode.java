@@ -0,0 +1,17 @@
+package com.aurora.backend.enums;
+
+public enum CustomerCountMode {
+    APPROXIMATE,
+    EXACT;
+
+    public static CustomerCountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return APPROXIMATE;
+        }
+        try {
+            return CustomerCountMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return APPROXIMATE;
+        }
+    }
+}
@@ -33,6 +33,8 @@ public enum ErrorCode {
     WRONG_PASSWORD(1021, "Current password is incorrect", HttpStatus.BAD_REQUEST),
     EMAIL_ALREADY_VERIFIED(1022, "Email has already been verified", HttpStatus.BAD_REQUEST),
     EMAIL_NOT_VERIFIED(1023, "Email has not been verified", HttpStatus.FORBIDDEN),
+    TOO_MANY_REQUESTS(1024, "Too many requests, please try again later", HttpStatus.TOO_MANY_REQUESTS),
+    LOGIN_BUSY(1025, "Login service is busy, please try again shortly", HttpStatus.SERVICE_UNAVAILABLE),
     
     // Amenity errors
     AMENITY_EXISTED(1100, "Amenity already exists", HttpStatus.BAD_REQUEST),
@@ -175,6 +177,7 @@ public enum ErrorCode {
     // Dashboard errors
     DASHBOARD_DATE_RANGE_INVALID(2700, "Date range cannot exceed 365 days", HttpStatus.BAD_REQUEST),
     DASHBOARD_BRANCH_REQUIRED(2701, "Assigned branch is required for this dashboard", HttpStatus.BAD_REQUEST),
+    EXPORT_FORMAT_INVALID(2702, "Export format must be CSV or XLSX", HttpStatus.BAD_REQUEST),
     
     // Work Shift errors
     SHIFT_NOT_FOUND(2800, "Work shift not found", HttpStatus.NOT_FOUND),
@@ -236,6 +239,14 @@ public enum ErrorCode {
     EVENT_START_DATE_REQUIRED(3317, "Event start date is required", HttpStatus.BAD_REQUEST),
     EVENT_END_DATE_REQUIRED(3318, "Event end date is required", HttpStatus.BAD_REQUEST),
     PRICE_ADJUSTMENTS_REQUIRED(3319, "At least one price adjustment is required", HttpStatus.BAD_REQUEST),
+
+    // Document ingestion errors
+    INGESTION_JOB_RUNNING(3400, "A reindex job is already running", HttpStatus.CONFLICT),
+    INGESTION_JOB_NOT_FOUND(3401, "Reindex job not found", HttpStatus.NOT_FOUND),
+
+    // Chatbot (RAG) errors
+    RAG_BUSY(3500, "Chatbot is busy, please try again shortly", HttpStatus.SERVICE_UNAVAILABLE),
+    RAG_TIMEOUT(3501, "Chatbot took too long to answer, please try again", HttpStatus.GATEWAY_TIMEOUT),
     ;
 
     ErrorCode(int code, String message, HttpStatusCode statusCode) {
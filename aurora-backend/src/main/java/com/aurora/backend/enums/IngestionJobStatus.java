@@ -0,0 +1,11 @@
+package com.aurora.backend.enums;
+
+/**
+ * Trạng thái job reindex tài liệu
+ */
+public enum IngestionJobStatus {
+    RUNNING,
+    COMPLETED,              // Tất cả tài liệu đã được index
+    COMPLETED_WITH_ERRORS,  // Xong nhưng có tài liệu lỗi (xem errors)
+    FAILED                  // Pipeline dừng giữa chừng
+}
@@ -0,0 +1,12 @@
+package com.aurora.backend.event;
+
+/**
+ * Phát ra khi quyền của user thay đổi. username = null nghĩa là thay đổi role/permission
+ * ảnh hưởng nhiều user (xóa toàn bộ cache quyền).
+ */
+public record AuthorityGrantsChangedEvent(String username) {
+
+    public static AuthorityGrantsChangedEvent allUsers() {
+        return new AuthorityGrantsChangedEvent(null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.aurora.backend.event;
+
+import com.aurora.backend.entity.Booking;
+
+/**
+ * Phát ra khi trạng thái booking thay đổi (sau khi transaction commit mới được xử lý).
+ * previousStatus = null khi booking vừa được tạo, currentStatus = null khi booking bị xóa.
+ */
+public record BookingStatusChangedEvent(
+        String bookingId,
+        String branchId,
+        Booking.BookingStatus previousStatus,
+        Booking.BookingStatus currentStatus
+) {
+}
@@ -0,0 +1,7 @@
+package com.aurora.backend.event;
+
+/**
+ * Phát ra khi chi nhánh, loại phòng hoặc khuyến mãi được tạo/sửa/xóa (dữ liệu chatbot trả lời trực tiếp)
+ */
+public record CatalogChangedEvent(String entity, String id) {
+}
@@ -0,0 +1,13 @@
+package com.aurora.backend.event;
+
+import java.time.LocalDate;
+
+/**
+ * Phát ra khi một khách hàng (có tài khoản) có booking mới hoặc đổi ngày check-in.
+ */
+public record CustomerBookedEvent(
+        String branchId,
+        String customerId,
+        LocalDate checkin
+) {
+}
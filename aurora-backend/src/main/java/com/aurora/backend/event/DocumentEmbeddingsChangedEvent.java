@@ -0,0 +1,7 @@
+package com.aurora.backend.event;
+
+/**
+ * Phát ra khi chunk/embedding của một tài liệu được thêm, thay thế hoặc xóa khỏi vector store
+ */
+public record DocumentEmbeddingsChangedEvent(String documentId) {
+}
@@ -0,0 +1,13 @@
+package com.aurora.backend.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Phát ra khi một payment chuyển sang SUCCESS.
+ */
+public record PaymentSucceededEvent(
+        String paymentId,
+        String branchId,
+        BigDecimal amount
+) {
+}
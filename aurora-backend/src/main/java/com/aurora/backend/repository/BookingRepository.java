@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -90,6 +91,21 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
                                  @Param("end") LocalDate end,
                                  @Param("branchId") String branchId);
 
+    // Snapshot cho live dashboard: [created, cancelled, checkIns, checkOuts, inHouse, pending] trong [from, to)
+    @Query("SELECT " +
+            "COALESCE(SUM(CASE WHEN b.createdAt >= :from AND b.createdAt < :to THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.cancelledAt >= :from AND b.cancelledAt < :to THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.actualCheckinTime >= :from AND b.actualCheckinTime < :to THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.actualCheckoutTime >= :from AND b.actualCheckoutTime < :to THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = :inHouseStatus THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = :pendingStatus THEN 1 ELSE 0 END), 0) " +
+            "FROM Booking b WHERE (:branchId IS NULL OR b.branch.id = :branchId)")
+    List<Object[]> summarizeLiveActivity(@Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("inHouseStatus") Booking.BookingStatus inHouseStatus,
+                                         @Param("pendingStatus") Booking.BookingStatus pendingStatus,
+                                         @Param("branchId") String branchId);
+
     @Query("SELECT COALESCE(b.createdBy, 'UNKNOWN') AS source, COUNT(b) AS total " +
             "FROM Booking b WHERE b.checkin BETWEEN :start AND :end " +
             "AND (:branchId IS NULL OR b.branch.id = :branchId) " +
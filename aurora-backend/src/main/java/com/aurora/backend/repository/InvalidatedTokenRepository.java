@@ -2,8 +2,21 @@ package com.aurora.backend.repository;
 
 import com.aurora.backend.entity.InvalidatedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 @Repository
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+
+    @Query("SELECT t.id FROM InvalidatedToken t WHERE t.expiryTime > :now")
+    List<String> findActiveIds(@Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM InvalidatedToken t WHERE t.expiryTime < :now")
+    int deleteExpiredTokens(@Param("now") Date now);
 }
@@ -17,7 +17,7 @@ public interface AuthenticationService {
     
     AuthResult handleLogin(LoginRequest request);
     
-    ResponseCookie handleLogout(String refreshToken);
+    ResponseCookie handleLogout(String refreshToken, String accessToken);
     
     UserDetailsResponse getCurrentUserDetails();
     
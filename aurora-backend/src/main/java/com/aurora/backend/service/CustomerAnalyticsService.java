@@ -0,0 +1,24 @@
+package com.aurora.backend.service;
+
+import java.time.LocalDate;
+
+/**
+ * Đếm khách hàng mới / quay lại theo ngày check-in.
+ * Mặc định dùng HyperLogLog trên Redis, tự chuyển sang đếm chính xác bằng SQL khi cần.
+ */
+public interface CustomerAnalyticsService {
+
+    /**
+     * Khách mới: có booking check-in trong [start, end] và chưa từng có booking check-in trước start.
+     * Khách quay lại: có booking trong khoảng và đã có booking trước start (ở bất kỳ chi nhánh nào).
+     */
+    CustomerCounts countCustomers(LocalDate start, LocalDate end, String branchId);
+
+    /**
+     * Nạp lại toàn bộ sketch từ bảng bookings (idempotent, chạy được khi hệ thống đang hoạt động).
+     */
+    void rebuildSketches();
+
+    record CustomerCounts(long newCustomers, long returningCustomers, boolean approximate) {
+    }
+}
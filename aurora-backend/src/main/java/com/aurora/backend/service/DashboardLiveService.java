@@ -0,0 +1,27 @@
+package com.aurora.backend.service;
+
+import java.util.Map;
+
+/**
+ * KPI realtime của dashboard, giữ trong bộ nhớ theo từng chi nhánh và cập nhật bằng delta từ event
+ * booking/payment thay vì chạy lại toàn bộ truy vấn overview.
+ * branchId = null nghĩa là toàn hệ thống.
+ */
+public interface DashboardLiveService {
+
+    /**
+     * Đăng ký theo dõi một chi nhánh, trả về snapshot đầy đủ các KPI hiện tại.
+     * Lần đăng ký đầu tiên của chi nhánh sẽ nạp counter từ database.
+     */
+    Map<String, Object> acquire(String branchId);
+
+    /**
+     * Hủy theo dõi; khi không còn ai theo dõi thì counter của chi nhánh được giải phóng.
+     */
+    void release(String branchId);
+
+    /**
+     * Các KPI đã thay đổi kể từ lần gọi trước (rỗng nếu không có gì thay đổi).
+     */
+    Map<String, Object> pollChanges(String branchId);
+}
@@ -0,0 +1,17 @@
+package com.aurora.backend.service;
+
+import com.aurora.backend.dto.response.IngestionJobResponse;
+
+import java.util.List;
+
+public interface DocumentIngestionService {
+
+    /**
+     * Bắt đầu reindex tất cả tài liệu đã embed (chạy nền), trả về job để theo dõi tiến độ
+     */
+    IngestionJobResponse startReindexAll();
+
+    IngestionJobResponse getJob(String jobId);
+
+    List<IngestionJobResponse> listJobs();
+}
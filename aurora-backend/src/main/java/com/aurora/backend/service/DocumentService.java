@@ -1,5 +1,6 @@
 package com.aurora.backend.service;
 
+import com.aurora.backend.dto.response.IngestionJobResponse;
 import com.aurora.backend.entity.Document;
 import com.aurora.backend.repository.DocumentRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -7,13 +8,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -23,6 +29,8 @@ public class DocumentService {
     private final EmbeddingService embeddingService;
     private final CloudinaryService cloudinaryService;
     private final ObjectMapper objectMapper;
+    private final DocumentIngestionService documentIngestionService;
+    private final PlatformTransactionManager transactionManager;
 
     @Transactional
     public Document uploadFile(MultipartFile file, Boolean shouldEmbed, String description) throws IOException {
@@ -57,14 +65,18 @@ public class DocumentService {
 
         // Embed document if requested (asynchronously)
         if (Boolean.TRUE.equals(shouldEmbed)) {
+            // Ghi ra file tạm trước khi request kết thúc (file multipart bị xóa sau request)
+            Path content = EmbeddingService.spoolToTempFile(file.getInputStream());
             CompletableFuture.runAsync(() -> {
                 try {
-                    EmbeddingService.EmbeddingResult result = embeddingService.indexFile(savedDocument, file.getBytes());
+                    EmbeddingService.EmbeddingResult result = embeddingService.indexFile(savedDocument, content);
                     updateDocumentMetadata(savedDocument.getId(), result.getMetadata());
                     updateDocumentChunks(savedDocument.getId(), result.getTotalChunks());
                     log.info("Successfully embedded document: {}", savedDocument.getFilename());
                 } catch (Exception e) {
                     log.error("Failed to embed document {}: {}", savedDocument.getFilename(), e.getMessage(), e);
+                } finally {
+                    EmbeddingService.deleteTempFile(content);
                 }
             });
         }
@@ -122,14 +134,17 @@ public class DocumentService {
 
         // Embed new document if requested (asynchronously)
         if (Boolean.TRUE.equals(shouldEmbed)) {
+            Path content = EmbeddingService.spoolToTempFile(newFile.getInputStream());
             CompletableFuture.runAsync(() -> {
                 try {
-                    EmbeddingService.EmbeddingResult result = embeddingService.indexFile(updatedDocument, newFile.getBytes());
+                    EmbeddingService.EmbeddingResult result = embeddingService.indexFile(updatedDocument, content);
                     updateDocumentMetadata(updatedDocument.getId(), result.getMetadata());
                     updateDocumentChunks(updatedDocument.getId(), result.getTotalChunks());
                     log.info("Successfully re-embedded document: {}", updatedDocument.getFilename());
                 } catch (Exception e) {
                     log.error("Failed to re-embed document {}: {}", updatedDocument.getFilename(), e.getMessage(), e);
+                } finally {
+                    EmbeddingService.deleteTempFile(content);
                 }
             });
         }
@@ -179,8 +194,8 @@ public class DocumentService {
                 document.setIsEmbed(true);
                 CompletableFuture.runAsync(() -> {
                     try {
-                        byte[] fileBytes = downloadFileFromCloudinary(document.getDocUrl());
-                        EmbeddingService.EmbeddingResult result = embeddingService.indexFile(document, fileBytes);
+                        EmbeddingService.EmbeddingResult result = embeddingService.indexFile(document,
+                                openCloudinaryStream(document.getDocUrl()));
                         updateDocumentMetadata(document.getId(), result.getMetadata());
                         updateDocumentChunks(document.getId(), result.getTotalChunks());
                         log.info("Successfully embedded document: {}", document.getFilename());
@@ -231,15 +246,10 @@ public class DocumentService {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found"));
 
-        // Delete old embeddings if exists
-        if (Boolean.TRUE.equals(document.getIsEmbed())) {
-            embeddingService.deleteFileEmbeddings(id);
-        }
-
-        // Download file from Cloudinary and re-embed
+        // Download file from Cloudinary and re-embed (chỉ chunk thay đổi gọi API embedding)
         try {
-            byte[] fileBytes = downloadFileFromCloudinary(document.getDocUrl());
-            EmbeddingService.EmbeddingResult result = embeddingService.indexFile(document, fileBytes);
+            EmbeddingService.EmbeddingResult result = embeddingService.reindexFile(document,
+                    openCloudinaryStream(document.getDocUrl()));
             
             document.setIsEmbed(true);
             updateDocumentMetadata(document.getId(), result.getMetadata());
@@ -256,26 +266,11 @@ public class DocumentService {
         return documentRepository.count() > 0;
     }
 
-    @Transactional
-    public void reindexAllFiles() {
-        List<Document> allFiles = documentRepository.findAll();
-        log.info("Starting reindex of {} files", allFiles.size());
-
-        for (Document document : allFiles) {
-            if (Boolean.TRUE.equals(document.getIsEmbed())) {
-                try {
-                    byte[] fileBytes = downloadFileFromCloudinary(document.getDocUrl());
-                    EmbeddingService.EmbeddingResult result = embeddingService.reindexFile(document, fileBytes);
-                    updateDocumentMetadata(document.getId(), result.getMetadata());
-                    updateDocumentChunks(document.getId(), result.getTotalChunks());
-                    log.info("Successfully reindexed file: {}", document.getFilename());
-                } catch (Exception e) {
-                    log.error("Failed to reindex file {}: {}", document.getFilename(), e.getMessage());
-                }
-            }
-        }
-
-        log.info("Completed reindexing all files");
+    /**
+     * Reindex chạy nền trên pipeline nhiều giai đoạn, theo dõi qua job trả về
+     */
+    public IngestionJobResponse reindexAllFiles() {
+        return documentIngestionService.startReindexAll();
     }
 
     public boolean isFileIndexed(String id) {
@@ -284,8 +279,12 @@ public class DocumentService {
         return Boolean.TRUE.equals(document.getIsEmbed()) && embeddingService.isFileIndexed(id);
     }
 
-    @Transactional
-    public void loadFileFromBytes(String filename, String contentType, byte[] fileBytes, String description, Boolean shouldEmbed) throws IOException {
+    /**
+     * Upload Cloudinary và embed Gemini chạy khi không giữ connection DB nào (DocumentSeeder gọi song song);
+     * lưu tài liệu và ghi kết quả embed là hai transaction ngắn riêng.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Document loadFileFromBytes(String filename, String contentType, byte[] fileBytes, String description, Boolean shouldEmbed) throws IOException {
         // Upload to Cloudinary
         Map<String, Object> uploadResult = uploadBytesToCloudinary(fileBytes, filename);
         String docUrl = (String) uploadResult.get("secure_url");
@@ -301,26 +300,46 @@ public class DocumentService {
                 .isEmbed(shouldEmbed != null ? shouldEmbed : false)
                 .build();
 
-        Document savedDocument = documentRepository.save(document);
+        Document savedDocument;
+        try {
+            savedDocument = inTransaction(() -> documentRepository.save(document));
+        } catch (RuntimeException e) {
+            // Không để lại file mồ côi trên Cloudinary
+            try {
+                cloudinaryService.deleteFile(publicId);
+            } catch (Exception deleteError) {
+                log.warn("Failed to delete orphaned file from Cloudinary: {}", deleteError.getMessage());
+            }
+            throw e;
+        }
 
         if (Boolean.TRUE.equals(shouldEmbed)) {
             try {
-                EmbeddingService.EmbeddingResult result = embeddingService.indexFile(savedDocument, fileBytes);
-                updateDocumentMetadata(savedDocument.getId(), result.getMetadata());
-                updateDocumentChunks(savedDocument.getId(), result.getTotalChunks());
+                EmbeddingService.EmbeddingResult result = embeddingService.indexFile(savedDocument, new ByteArrayInputStream(fileBytes));
+                String documentId = savedDocument.getId();
+                Document embeddedDocument = inTransaction(() -> {
+                    updateDocumentMetadata(documentId, result.getMetadata());
+                    updateDocumentChunks(documentId, result.getTotalChunks());
+                    return getDocument(documentId);
+                });
                 log.info("Successfully embedded seeded document: {}", savedDocument.getFilename());
+                return embeddedDocument;
             } catch (Exception e) {
                 log.error("Failed to embed seeded document {}: {}", savedDocument.getFilename(), e.getMessage(), e);
             }
         }
+        return savedDocument;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
     }
 
-    private byte[] downloadFileFromCloudinary(String url) throws IOException {
-        // Implementation to download file from Cloudinary URL
-        // You can use RestTemplate or HttpClient
+    private InputStream openCloudinaryStream(String url) throws IOException {
+        // Đọc theo luồng (EmbeddingService ghi ra file tạm), không tải cả file vào heap
         try {
             java.net.URL cloudinaryUrl = new java.net.URL(url);
-            return cloudinaryUrl.openStream().readAllBytes();
+            return cloudinaryUrl.openStream();
         } catch (Exception e) {
             throw new IOException("Failed to download file from Cloudinary", e);
         }
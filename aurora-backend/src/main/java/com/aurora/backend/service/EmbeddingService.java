@@ -1,31 +1,51 @@
 package com.aurora.backend.service;
 
+import com.aurora.backend.config.EmbeddingCache;
+import com.aurora.backend.config.RagConfig;
+import com.aurora.backend.event.DocumentEmbeddingsChangedEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.data.document.Document;
-import dev.langchain4j.data.document.DocumentParser;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.Metadata;
-import dev.langchain4j.data.document.parser.apache.tika.ApacheTikaDocumentParser;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.exception.NonRetriableException;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingMatch;
-import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
-import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 
 @Slf4j
 @Service
@@ -35,29 +55,43 @@ public class EmbeddingService {
     private static final String METADATA_FILENAME = "filename";
     private static final String METADATA_FILE_TYPE = "fileType";
     private static final String METADATA_CHUNK_INDEX = "chunkIndex";
-    private static final String METADATA_TOTAL_CHUNKS = "totalChunks";
+    private static final String METADATA_CONTENT_HASH = "contentHash";
+    private static final String EXISTS_BY_DOCUMENT_SQL =
+            "SELECT EXISTS (SELECT 1 FROM " + RagConfig.EMBEDDING_TABLE + " WHERE metadata->>'documentId' = ?)";
+    private static final String CHUNK_HASHES_BY_DOCUMENT_SQL =
+            "SELECT metadata->>'contentHash', metadata->>'filename' FROM " + RagConfig.EMBEDDING_TABLE
+                    + " WHERE metadata->>'documentId' = ? ORDER BY (metadata->>'chunkIndex')::int";
+    // Văn bản được chia chunk theo từng cửa sổ (cắt ở ranh giới đoạn văn), không giữ cả tài liệu trong heap
+    private static final int PARSE_WINDOW_CHARS = 64 * 1024;
+    private static final int CHUNK_SIZE_CHARS = 1500;
+    private static final int CHUNK_OVERLAP_CHARS = 200;
+    private static final String COUNT_BY_DOCUMENT_SQL =
+            "SELECT COUNT(*), MAX(metadata->>'filename') FROM " + RagConfig.EMBEDDING_TABLE + " WHERE metadata->>'documentId' = ?";
     private final EmbeddingStore<TextSegment> embeddingStore;
     private final EmbeddingModel embeddingModel;
-    private final DocumentParser documentParser = new ApacheTikaDocumentParser();
-    private final DocumentSplitter documentSplitter = DocumentSplitters.recursive(1500, 200);
+    private final Parser documentParser = new AutoDetectParser();
+    private final DocumentSplitter documentSplitter = DocumentSplitters.recursive(CHUNK_SIZE_CHARS, CHUNK_OVERLAP_CHARS);
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingCache embeddingCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Gemini batchEmbedContents nhận tối đa 100 input mỗi request
+    @Value("${rag.ingestion.embed-batch-size:100}")
+    private int embedBatchSize;
+
+    @Value("${rag.ingestion.embed-max-retries:3}")
+    private int embedMaxRetries;
 
     public void deleteFileEmbeddings(String fileId) {
         try {
             log.info("Starting to delete embeddings for file ID: {}", fileId);
 
-            List<String> embeddingIds = findEmbeddingIdsByFileId(fileId);
+            // Một câu DELETE theo metadata (dùng index documentId), không gọi API embedding
+            embeddingStore.removeAll(metadataKey(METADATA_DOCUMENT_ID).isEqualTo(fileId));
+            eventPublisher.publishEvent(new DocumentEmbeddingsChangedEvent(fileId));
 
-            if (embeddingIds.isEmpty()) {
-                log.warn("No embeddings found for file ID: {}", fileId);
-                return;
-            }
-
-            for (String embeddingId : embeddingIds) {
-                embeddingStore.remove(embeddingId);
-            }
-
-            log.info("Deleted {} embeddings for file ID: {}", embeddingIds.size(), fileId);
+            log.info("Deleted embeddings for file ID: {}", fileId);
         } catch (Exception e) {
             log.error("Error deleting embeddings for file ID {}: {}", fileId, e.getMessage(), e);
             throw new RuntimeException("Cannot delete embeddings: " + e.getMessage(), e);
@@ -68,61 +102,44 @@ public class EmbeddingService {
      * Create embeddings for file and save to vector store
      * Returns metadata and total chunks for the document
      */
-    public EmbeddingResult indexFile(com.aurora.backend.entity.Document doc, byte[] fileBytes) throws IOException {
+    public EmbeddingResult indexFile(com.aurora.backend.entity.Document doc, InputStream content) throws IOException {
+        Path file = spoolToTempFile(content);
+        try {
+            return indexFile(doc, file);
+        } finally {
+            deleteTempFile(file);
+        }
+    }
+
+    /**
+     * Index file đã ghi ra đĩa: chunk được embed và lưu theo từng lô ngay khi parse tới,
+     * lỗi giữa chừng thì xóa các lô đã lưu
+     */
+    public EmbeddingResult indexFile(com.aurora.backend.entity.Document doc, Path file) throws IOException {
         try {
             log.info("Starting to index file: {} (ID: {})", doc.getFilename(), doc.getId());
 
-            if (fileBytes == null || fileBytes.length == 0) {
-                throw new IOException("File bytes are empty");
+            List<String> storedIds = new ArrayList<>();
+            EmbeddingResult result;
+            try {
+                result = streamSegments(doc, file,
+                        batch -> storedIds.addAll(embeddingStore.addAll(embedBatch(batch), batch)));
+            } catch (IOException | RuntimeException e) {
+                if (!storedIds.isEmpty()) {
+                    embeddingStore.removeAll(storedIds);
+                }
+                throw e;
             }
 
-            Document document = documentParser.parse(new java.io.ByteArrayInputStream(fileBytes));
-            log.debug("Parsed document, length: {} characters", document.text().length());
-
-            List<TextSegment> segments = documentSplitter.split(document);
-            log.info("Split document into {} chunks", segments.size());
-
-            if (segments.isEmpty()) {
+            if (result.getTotalChunks() == 0) {
                 log.warn("Document has no content to index: {}", doc.getFilename());
                 return new EmbeddingResult(0, null);
             }
+            eventPublisher.publishEvent(new DocumentEmbeddingsChangedEvent(doc.getId()));
 
-            List<TextSegment> segmentsWithMetadata = new ArrayList<>();
-            Map<String, Object> documentMetadata = new HashMap<>();
-            
-            for (int i = 0; i < segments.size(); i++) {
-                TextSegment segment = segments.get(i);
-
-                Map<String, String> metadata = new HashMap<>();
-                metadata.put(METADATA_DOCUMENT_ID, doc.getId());
-                metadata.put(METADATA_FILENAME, doc.getFilename());
-                metadata.put(METADATA_FILE_TYPE, doc.getFileType());
-                metadata.put(METADATA_CHUNK_INDEX, String.valueOf(i));
-                metadata.put(METADATA_TOTAL_CHUNKS, String.valueOf(segments.size()));
-
-                // Store chunk metadata
-                documentMetadata.put("chunk_" + i, Map.of(
-                    "index", i,
-                    "length", segment.text().length(),
-                    "preview", segment.text().substring(0, Math.min(100, segment.text().length()))
-                ));
-
-                TextSegment segmentWithMetadata = TextSegment.from(
-                        segment.text(),
-                        new Metadata(metadata)
-                );
-
-                segmentsWithMetadata.add(segmentWithMetadata);
-            }
-
-            List<Embedding> embeddings = embeddingModel.embedAll(segmentsWithMetadata).content();
-            log.debug("Created {} embeddings", embeddings.size());
-
-            embeddingStore.addAll(embeddings, segmentsWithMetadata);
+            log.info("Completed indexing file: {} with {} chunks", doc.getFilename(), result.getTotalChunks());
 
-            log.info("Completed indexing file: {} with {} chunks", doc.getFilename(), segments.size());
-
-            return new EmbeddingResult(segments.size(), documentMetadata);
+            return result;
 
         } catch (IOException e) {
             log.error("IO error indexing file {}: {}", doc.getFilename(), e.getMessage(), e);
@@ -134,103 +151,393 @@ public class EmbeddingService {
     }
 
     /**
-     * Update embeddings for file (delete old and create new)
+     * Parse (Tika) + chia chunk toàn bộ tài liệu vào một danh sách - chỉ dùng cho tài liệu nhỏ
+     */
+    public List<TextSegment> splitDocument(com.aurora.backend.entity.Document doc, InputStream content) throws IOException {
+        Path file = spoolToTempFile(content);
+        try {
+            List<TextSegment> segments = new ArrayList<>();
+            streamSegments(doc, file, segments::addAll);
+            return segments;
+        } finally {
+            deleteTempFile(file);
+        }
+    }
+
+    /**
+     * Parse (Tika) + chia chunk theo luồng, gắn metadata documentId/filename/chunkIndex cho từng chunk.
+     * <p>
+     * Tika đọc trực tiếp từ file (PDFBox truy cập ngẫu nhiên trên đĩa), text được gom theo cửa sổ
+     * PARSE_WINDOW_CHARS ký tự cắt ở ranh giới đoạn văn, mỗi cửa sổ chia bằng cùng splitter recursive(1500, 200)
+     * rồi giao cho batchConsumer theo lô embed-batch-size. Cửa sổ sau bắt đầu bằng ~200 ký tự cuối của cửa sổ trước
+     * nên chunk ở ranh giới cửa sổ vẫn có overlap như chunk bên trong. Bộ nhớ phụ thuộc kích thước cửa sổ/lô, không phụ thuộc
+     * kích thước file; tài liệu ngắn hơn một cửa sổ cho ra đúng các chunk như khi chia cả văn bản một lần.
+     * Lỗi từ batchConsumer dừng parse và được ném lại nguyên vẹn.
+     */
+    public EmbeddingResult streamSegments(com.aurora.backend.entity.Document doc, Path file,
+                                          Consumer<List<TextSegment>> batchConsumer) throws IOException {
+        SegmentStream stream = new SegmentStream(doc, batchConsumer);
+        try (TikaInputStream input = TikaInputStream.get(file)) {
+            documentParser.parse(input, new BodyContentHandler(stream),
+                    new org.apache.tika.metadata.Metadata(), new ParseContext());
+        } catch (Exception e) {
+            if (stream.failure != null) {
+                throw stream.failure;
+            }
+            if (e instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Cannot parse document " + doc.getFilename() + ": " + e.getMessage(), e);
+        }
+        stream.finish();
+        log.info("Split document {} into {} chunks", doc.getFilename(), stream.chunkCount);
+        return new EmbeddingResult(stream.chunkCount, stream.summary);
+    }
+
+    /**
+     * Embed theo lô không vượt quá giới hạn của provider (mỗi lô có retry)
+     */
+    public List<Embedding> embedSegments(List<TextSegment> segments) {
+        int batchSize = getEmbedBatchSize();
+        List<Embedding> embeddings = new ArrayList<>(segments.size());
+        for (int from = 0; from < segments.size(); from += batchSize) {
+            embeddings.addAll(embedBatch(segments.subList(from, Math.min(from + batchSize, segments.size()))));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Embed một lô: chunk đã có trong EmbeddingCache (theo contentHash) dùng lại vector,
+     * chỉ chunk mới/thay đổi được gửi tới model, mỗi nội dung một lần
+     */
+    public List<Embedding> embedBatch(List<TextSegment> batch) {
+        List<String> hashes = batch.stream().map(EmbeddingService::contentHashOf).toList();
+        Map<String, Embedding> embeddingsByHash = embeddingCache.getAll(new HashSet<>(hashes));
+
+        Map<String, TextSegment> misses = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!embeddingsByHash.containsKey(hashes.get(i))) {
+                misses.putIfAbsent(hashes.get(i), batch.get(i));
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            List<Embedding> created = embedWithRetry(new ArrayList<>(misses.values()));
+            Map<String, Embedding> createdByHash = new HashMap<>();
+            int i = 0;
+            for (String hash : misses.keySet()) {
+                createdByHash.put(hash, created.get(i++));
+            }
+            embeddingCache.putAll(createdByHash);
+            embeddingsByHash.putAll(createdByHash);
+        }
+        log.debug("Embedded batch of {} chunks: {} from cache, {} from model",
+                batch.size(), batch.size() - misses.size(), misses.size());
+
+        return hashes.stream().map(embeddingsByHash::get).toList();
+    }
+
+    /**
+     * Chunk của tài liệu trong vector store đã khớp nội dung file (cùng thứ tự hash, cùng tên file) - bỏ qua reindex.
+     * Parse dừng ngay ở lô có chunk khác đầu tiên
+     */
+    public Optional<EmbeddingResult> findUnchanged(com.aurora.backend.entity.Document doc, Path file) throws IOException {
+        List<String[]> stored = jdbcTemplate.query(CHUNK_HASHES_BY_DOCUMENT_SQL,
+                (resultSet, rowNum) -> new String[]{resultSet.getString(1), resultSet.getString(2)}, doc.getId());
+        if (stored.isEmpty() || stored.stream().anyMatch(row -> !Objects.equals(doc.getFilename(), row[1]))) {
+            return Optional.empty();
+        }
+
+        int[] position = {0};
+        try {
+            EmbeddingResult result = streamSegments(doc, file, batch -> {
+                for (TextSegment segment : batch) {
+                    int i = position[0]++;
+                    if (i >= stored.size() || !contentHashOf(segment).equals(stored.get(i)[0])) {
+                        throw DocumentChangedException.INSTANCE;
+                    }
+                }
+            });
+            return result.getTotalChunks() == stored.size() ? Optional.of(result) : Optional.empty();
+        } catch (DocumentChangedException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String contentHashOf(TextSegment segment) {
+        String hash = segment.metadata().getString(METADATA_CONTENT_HASH);
+        return hash != null ? hash : EmbeddingCache.contentHash(segment.text());
+    }
+
+    /**
+     * Gọi model, retry với backoff lũy thừa khi lỗi tạm thời (rate limit, timeout, 5xx)
+     */
+    private List<Embedding> embedWithRetry(List<TextSegment> batch) {
+        int attempt = 0;
+        while (true) {
+            try {
+                List<Embedding> embeddings = embeddingModel.embedAll(batch).content();
+                if (embeddings.size() != batch.size()) {
+                    throw new IllegalStateException("Embedding model returned " + embeddings.size()
+                            + " embeddings for " + batch.size() + " segments");
+                }
+                return embeddings;
+            } catch (NonRetriableException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (++attempt > Math.max(embedMaxRetries, 0)) {
+                    throw e;
+                }
+                long backoffMillis = 1000L << Math.min(attempt - 1, 5);
+                log.warn("Embedding batch of {} failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public void storeEmbeddings(List<Embedding> embeddings, List<TextSegment> segments) {
+        embeddingStore.addAll(embeddings, segments);
+        segments.stream()
+                .map(segment -> segment.metadata().getString(METADATA_DOCUMENT_ID))
+                .distinct()
+                .forEach(documentId -> eventPublisher.publishEvent(new DocumentEmbeddingsChangedEvent(documentId)));
+    }
+
+    public int getEmbedBatchSize() {
+        return Math.max(embedBatchSize, 1);
+    }
+
+    /**
+     * Update embeddings for file: bỏ qua nếu nội dung không đổi, ngược lại thay chunk cũ,
+     * chỉ chunk mới/thay đổi gọi API embedding (chunk cũ lấy từ EmbeddingCache).
+     * Chunk cũ bị xóa ngay trước lô mới đầu tiên được lưu; lỗi giữa chừng thì xóa phần đã lưu
      */
-    public EmbeddingResult reindexFile(com.aurora.backend.entity.Document doc, byte[] fileBytes) throws IOException {
+    public EmbeddingResult reindexFile(com.aurora.backend.entity.Document doc, InputStream content) throws IOException {
         log.info("Starting to reindex file: {} (ID: {})", doc.getFilename(), doc.getId());
 
+        Path file = spoolToTempFile(content);
+        boolean[] cleared = {false};
         try {
-            deleteFileEmbeddings(doc.getId());
+            Optional<EmbeddingResult> unchanged = findUnchanged(doc, file);
+            if (unchanged.isPresent()) {
+                log.info("File {} unchanged, keeping {} existing chunks", doc.getFilename(), unchanged.get().getTotalChunks());
+                return unchanged.get();
+            }
 
-            EmbeddingResult result = indexFile(doc, fileBytes);
+            EmbeddingResult result = streamSegments(doc, file, batch -> {
+                List<Embedding> embeddings = embedBatch(batch);
+                if (!cleared[0]) {
+                    deleteFileEmbeddings(doc.getId());
+                    cleared[0] = true;
+                }
+                embeddingStore.addAll(embeddings, batch);
+            });
+            if (!cleared[0]) {
+                deleteFileEmbeddings(doc.getId());
+            } else {
+                eventPublisher.publishEvent(new DocumentEmbeddingsChangedEvent(doc.getId()));
+            }
 
             log.info("Completed reindexing file: {}", doc.getFilename());
-            
+
             return result;
         } catch (Exception e) {
             log.error("Error reindexing file {}: {}", doc.getFilename(), e.getMessage(), e);
+            if (cleared[0]) {
+                deleteFileEmbeddings(doc.getId());
+            }
+            throw e;
+        } finally {
+            deleteTempFile(file);
+        }
+    }
+
+    /**
+     * Ghi nội dung ra file tạm để Tika/PDFBox đọc trực tiếp từ đĩa thay vì giữ cả file trong heap
+     */
+    public static Path spoolToTempFile(InputStream content) throws IOException {
+        Path file = Files.createTempFile("aurora-doc-", ".tmp");
+        try (content) {
+            if (Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING) == 0) {
+                throw new IOException("File bytes are empty");
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            deleteTempFile(file);
             throw e;
         }
     }
 
+    public static void deleteTempFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete temp file {}: {}", file, e.getMessage());
+        }
+    }
+
     /**
      * Check if file has been indexed
      */
     public boolean isFileIndexed(String fileId) {
         try {
-            List<String> embeddingIds = findEmbeddingIdsByFileId(fileId);
-            boolean indexed = !embeddingIds.isEmpty();
-            log.debug("File ID {} {} indexed", fileId, indexed ? "is" : "is not");
-            return indexed;
+            Boolean indexed = jdbcTemplate.queryForObject(EXISTS_BY_DOCUMENT_SQL, Boolean.class, fileId);
+            log.debug("File ID {} {} indexed", fileId, Boolean.TRUE.equals(indexed) ? "is" : "is not");
+            return Boolean.TRUE.equals(indexed);
         } catch (Exception e) {
             log.error("Error checking index status for file {}: {}", fileId, e.getMessage());
             return false;
         }
     }
 
-    private List<String> findEmbeddingIdsByFileId(String fileId) {
-        List<String> embeddingIds = new ArrayList<>();
-
+    public FileIndexInfo getFileIndexInfo(String fileId) {
         try {
-            // With InMemoryEmbeddingStore or PgVector, we can search with filter
-            // Search with a dummy query to get all results with matching metadata
-            EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
-                    .queryEmbedding(embeddingModel.embed("dummy").content())
-                    .maxResults(1000)
-                    .minScore(0.0)
-                    .build();
-
-            EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.search(searchRequest);
-
-            for (EmbeddingMatch<TextSegment> match : searchResult.matches()) {
-                TextSegment segment = match.embedded();
-                if (segment != null && segment.metadata() != null) {
-                    String docId = segment.metadata().getString(METADATA_DOCUMENT_ID);
-                    if (docId != null && docId.equals(fileId)) {
-                        embeddingIds.add(match.embeddingId());
-                    }
-                }
+            return jdbcTemplate.queryForObject(COUNT_BY_DOCUMENT_SQL, (rs, rowNum) -> {
+                int chunkCount = rs.getInt(1);
+                return new FileIndexInfo(fileId, chunkCount > 0, chunkCount, rs.getString(2));
+            }, fileId);
+        } catch (Exception e) {
+            log.error("Error getting index info: {}", e.getMessage());
+            return new FileIndexInfo(fileId, false, 0, null);
+        }
+    }
+
+    /**
+     * Nhận text từ Tika theo từng đoạn, chia chunk theo cửa sổ và giao chunk cho consumer theo lô
+     */
+    private final class SegmentStream extends DefaultHandler {
+        private final com.aurora.backend.entity.Document doc;
+        private final Consumer<List<TextSegment>> batchConsumer;
+        private final int batchSize = getEmbedBatchSize();
+        private final StringBuilder window = new StringBuilder();
+        // Số ký tự đầu cửa sổ là overlap mang từ cửa sổ trước (đã nằm trong chunk trước đó)
+        private int carried;
+        private final Map<String, Object> summary = new HashMap<>();
+        private List<TextSegment> batch = new ArrayList<>();
+        private int chunkCount;
+        private RuntimeException failure;
+
+        private SegmentStream(com.aurora.backend.entity.Document doc, Consumer<List<TextSegment>> batchConsumer) {
+            this.doc = doc;
+            this.batchConsumer = batchConsumer;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            append(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            append(ch, start, length);
+        }
+
+        private void append(char[] ch, int start, int length) throws SAXException {
+            window.append(ch, start, length);
+            if (window.length() < PARSE_WINDOW_CHARS) {
+                return;
             }
+            try {
+                flushWindow(false);
+            } catch (RuntimeException e) {
+                // Tika có thể bọc lại exception, giữ bản gốc để streamSegments ném lại
+                failure = e;
+                throw new SAXException(e.getMessage());
+            }
+        }
 
-        } catch (Exception e) {
-            log.warn("Cannot find embeddings by metadata, using fallback method: {}", e.getMessage());
-            // Fallback: if store doesn't support search, return empty list
+        private void finish() {
+            flushWindow(true);
+            emitBatch();
         }
 
-        return embeddingIds;
-    }
+        /**
+         * Chia phần cửa sổ tới ranh giới đoạn văn (hoặc dòng) cuối cùng ở nửa sau, phần còn lại giữ cho cửa sổ sau
+         */
+        private void flushWindow(boolean last) {
+            int cut = window.length();
+            if (!last) {
+                int half = window.length() / 2;
+                int paragraph = window.lastIndexOf("\n\n");
+                int line = window.lastIndexOf("\n");
+                cut = paragraph >= half ? paragraph : line >= half ? line : window.length();
+            }
+            String text = window.substring(0, cut);
+            window.delete(0, cut);
+            boolean onlyOverlap = text.length() <= carried;
+            carried = 0;
+            if (text.isBlank() || onlyOverlap) {
+                return;
+            }
+            for (TextSegment segment : documentSplitter.split(Document.from(text))) {
+                add(segment.text());
+            }
+            if (!last) {
+                String tail = overlapTail(text);
+                window.insert(0, tail);
+                carried = tail.length();
+            }
+        }
 
-    public FileIndexInfo getFileIndexInfo(String fileId) {
-        List<String> embeddingIds = findEmbeddingIdsByFileId(fileId);
+        /**
+         * Tối đa CHUNK_OVERLAP_CHARS ký tự cuối, bắt đầu ở đầu một từ
+         */
+        private static String overlapTail(String text) {
+            int from = Math.max(text.length() - CHUNK_OVERLAP_CHARS, 0);
+            if (from > 0) {
+                int space = text.indexOf(' ', from);
+                from = space >= 0 ? space + 1 : text.length();
+            }
+            return text.substring(from).stripLeading();
+        }
 
-        if (embeddingIds.isEmpty()) {
-            return new FileIndexInfo(fileId, false, 0, null);
+        private void add(String text) {
+            int index = chunkCount++;
+            Map<String, String> metadata = new HashMap<>();
+            metadata.put(METADATA_DOCUMENT_ID, doc.getId());
+            metadata.put(METADATA_FILENAME, doc.getFilename());
+            metadata.put(METADATA_FILE_TYPE, doc.getFileType());
+            metadata.put(METADATA_CHUNK_INDEX, String.valueOf(index));
+            metadata.put(METADATA_CONTENT_HASH, EmbeddingCache.contentHash(text));
+            batch.add(TextSegment.from(text, new Metadata(metadata)));
+
+            // Metadata tóm tắt từng chunk, lưu vào Document.metadata
+            summary.put("chunk_" + index, Map.of(
+                    "index", index,
+                    "length", text.length(),
+                    "preview", text.substring(0, Math.min(100, text.length()))
+            ));
+
+            if (batch.size() >= batchSize) {
+                emitBatch();
+            }
         }
 
-        try {
-            EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
-                    .queryEmbedding(embeddingModel.embed("dummy").content())
-                    .maxResults(1)
-                    .minScore(0.0)
-                    .build();
-
-            EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.search(searchRequest);
-
-            for (EmbeddingMatch<TextSegment> match : searchResult.matches()) {
-                TextSegment segment = match.embedded();
-                if (segment != null && segment.metadata() != null) {
-                    String docId = segment.metadata().getString(METADATA_DOCUMENT_ID);
-                    if (docId != null && docId.equals(fileId)) {
-                        String filename = segment.metadata().getString(METADATA_FILENAME);
-                        return new FileIndexInfo(fileId, true, embeddingIds.size(), filename);
-                    }
-                }
+        private void emitBatch() {
+            if (batch.isEmpty()) {
+                return;
             }
-        } catch (Exception e) {
-            log.error("Error getting index info: {}", e.getMessage());
+            List<TextSegment> ready = batch;
+            batch = new ArrayList<>(batchSize);
+            batchConsumer.accept(ready);
         }
+    }
 
-        return new FileIndexInfo(fileId, true, embeddingIds.size(), null);
+    /**
+     * Dừng parse khi đã biết tài liệu thay đổi (không cần stack trace)
+     */
+    private static final class DocumentChangedException extends RuntimeException {
+        private static final DocumentChangedException INSTANCE = new DocumentChangedException();
+
+        private DocumentChangedException() {
+            super(null, null, false, false);
+        }
     }
 
     /**
@@ -6,30 +6,25 @@ import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.spring.AiService;
 import reactor.core.publisher.Flux;
 
+/**
+ * Chatbot RAG của khách sạn. Hàm có chatId giữ lịch sử hội thoại (chat memory), hàm không chatId không có trạng thái
+ */
 @AiService
 public interface RagService {
-    @SystemMessage("""
-                    Bạn là một trợ lý AI thông minh và thân thiện ☺️ của Khách sạn Aurora. Sử dụng các phần ngữ cảnh sau để trả lời câu hỏi.
-                    Nếu bạn không biết câu trả lời, hãy thành thật nói rằng bạn không có thông tin về điều đó, và đề nghị khách hàng liên hệ trực tiếp với lễ tân khách sạn.
-                    Cung cấp câu trả lời chi tiết, đầy đủ, lịch sự và thân thiện. Hãy trả lời như một nhân viên khách sạn chuyên nghiệp.
-                    Không bịa đặt thông tin không có trong ngữ cảnh được cung cấp và chỉ trả lời những câu hỏi liên quan đến khách sạn Aurora.
-            """)
+    String SYSTEM_PROMPT = """
+            Bạn là một trợ lý AI thông minh và thân thiện ☺️ của Khách sạn Aurora. Sử dụng các phần ngữ cảnh sau để trả lời câu hỏi.
+            Nếu bạn không biết câu trả lời, hãy thành thật nói rằng bạn không có thông tin về điều đó, và đề nghị khách hàng liên hệ trực tiếp với lễ tân khách sạn.
+            Cung cấp câu trả lời chi tiết, đầy đủ, lịch sự và thân thiện. Hãy trả lời như một nhân viên khách sạn chuyên nghiệp.
+            Không bịa đặt thông tin không có trong ngữ cảnh được cung cấp và chỉ trả lời những câu hỏi liên quan đến khách sạn Aurora.
+    """;
+
+    @SystemMessage(SYSTEM_PROMPT)
     String chat(@UserMessage String userMessage);
 
-    @SystemMessage("""
-                    Bạn là một trợ lý AI thông minh và thân thiện ☺️ của Khách sạn Aurora. Sử dụng các phần ngữ cảnh sau để trả lời câu hỏi.
-                    Nếu bạn không biết câu trả lời, hãy thành thật nói rằng bạn không có thông tin về điều đó, và đề nghị khách hàng liên hệ trực tiếp với lễ tân khách sạn.
-                    Cung cấp câu trả lời chi tiết, đầy đủ, lịch sự và thân thiện. Hãy trả lời như một nhân viên khách sạn chuyên nghiệp.
-                    Không bịa đặt thông tin không có trong ngữ cảnh được cung cấp và chỉ trả lời những câu hỏi liên quan đến khách sạn Aurora.
-            """)
+    @SystemMessage(SYSTEM_PROMPT)
     String chat(@MemoryId String chatId, @UserMessage String userMessage);
 
-    @SystemMessage("""
-                    Bạn là một trợ lý AI thông minh và thân thiện ☺️ của Khách sạn Aurora. Sử dụng các phần ngữ cảnh sau để trả lời câu hỏi.
-                    Nếu bạn không biết câu trả lời, hãy thành thật nói rằng bạn không có thông tin về điều đó, và đề nghị khách hàng liên hệ trực tiếp với lễ tân khách sạn.
-                    Cung cấp câu trả lời chi tiết, đầy đủ, lịch sự và thân thiện. Hãy trả lời như một nhân viên khách sạn chuyên nghiệp.
-                    Không bịa đặt thông tin không có trong ngữ cảnh được cung cấp và chỉ trả lời những câu hỏi liên quan đến khách sạn Aurora.
-            """)
+    @SystemMessage(SYSTEM_PROMPT)
     Flux<String> stream(@MemoryId String chatId, @UserMessage String userMessage);
 }
 
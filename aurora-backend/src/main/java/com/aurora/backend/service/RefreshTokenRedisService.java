@@ -16,6 +16,13 @@ public interface RefreshTokenRedisService {
      */
     void saveRefreshToken(String token, String userId, SessionMetaRequest sessionMetaRequest, Duration expire);
 
+    /**
+     * Atomically replace the old refresh token with a new one (single Lua script).
+     * Returns false if the old token does not exist (expired, logged out or already rotated)
+     */
+    boolean rotateRefreshToken(String oldToken, String newToken, String userId,
+                               SessionMetaRequest sessionMetaRequest, Duration expire);
+
     /**
      * Validate if refresh token exists for user
      */
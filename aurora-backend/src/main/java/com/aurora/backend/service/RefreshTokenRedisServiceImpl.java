@@ -6,8 +6,14 @@ import com.aurora.backend.entity.SessionMeta;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -18,19 +24,77 @@ import java.util.Set;
 /**
  * Implementation of RefreshTokenRedisService
  * Manages refresh tokens and session metadata in Redis
+ * <p>
+ * Mỗi user có một sorted set index: auth::sessions:{userId} (member = session key, score = login time).
+ * Token key và index luôn được ghi/xóa cùng nhau trong Lua script nên không cần KEYS để liệt kê session.
+ * Member có token key đã hết hạn được xóa lazy khi liệt kê.
  */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenRedisServiceImpl implements RefreshTokenRedisService {
 
+    private static final String TOKEN_KEY_PREFIX = "auth::refresh_token:";
+    private static final String SESSION_INDEX_PREFIX = "auth::sessions:";
+
+    // KEYS[1] = token key, KEYS[2] = index; ARGV[1] = session meta, ARGV[2] = ttl (ms), ARGV[3] = login time (ms)
+    // Index sống ít nhất bằng session dài nhất của user
+    private static final RedisScript<Long> SAVE_SESSION_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[3], KEYS[1])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[2]) then
+                redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = token key, KEYS[2] = index
+    private static final RedisScript<Long> DELETE_SESSION_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('ZREM', KEYS[2], KEYS[1])
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    // KEYS[1] = token key cũ, KEYS[2] = token key mới, KEYS[3] = index
+    // ARGV[1] = session meta mới, ARGV[2] = ttl (ms), ARGV[3] = login time (ms)
+    // DEL trả về 0 nghĩa là token cũ không tồn tại hoặc đã bị request khác rotate -> không ghi gì
+    private static final RedisScript<Long> ROTATE_SESSION_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('DEL', KEYS[1]) == 0 then
+                return 0
+            end
+            redis.call('ZREM', KEYS[3], KEYS[1])
+            redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2])
+            redis.call('ZADD', KEYS[3], ARGV[3], KEYS[2])
+            if redis.call('PTTL', KEYS[3]) < tonumber(ARGV[2]) then
+                redis.call('PEXPIRE', KEYS[3], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
     private final RedisTemplate<String, SessionMeta> redisSessionMetaTemplate;
+    // Index chứa member dạng chuỗi (session key) nên dùng string serializer
+    private final StringRedisTemplate stringRedisTemplate;
 
     /**
      * Build Redis key for refresh token
      * Format: auth::refresh_token:{userId}:{sha256(token)}
      */
     private String buildKey(String token, String userId) {
-        return "auth::refresh_token:" + userId + ":" + DigestUtils.sha256Hex(token);
+        return TOKEN_KEY_PREFIX + userId + ":" + DigestUtils.sha256Hex(token);
+    }
+
+    private String buildIndexKey(String userId) {
+        return SESSION_INDEX_PREFIX + userId;
+    }
+
+    /**
+     * Lấy userId từ key auth::refresh_token:{userId}:{hash}
+     */
+    private String extractUserId(String key) {
+        if (!key.startsWith(TOKEN_KEY_PREFIX) || key.lastIndexOf(':') <= TOKEN_KEY_PREFIX.length()) {
+            return null;
+        }
+        return key.substring(TOKEN_KEY_PREFIX.length(), key.lastIndexOf(':'));
     }
 
     @Override
@@ -41,16 +105,55 @@ public class RefreshTokenRedisServiceImpl implements RefreshTokenRedisService {
             Duration expire
     ) {
         String sessionId = buildKey(token, userId);
+        Instant loginAt = Instant.now();
+
+        redisSessionMetaTemplate.execute(
+                SAVE_SESSION_SCRIPT,
+                RedisSerializer.byteArray(),
+                LONG_SERIALIZER,
+                List.of(sessionId, buildIndexKey(userId)),
+                serializeSessionMeta(sessionId, sessionMetaRequest, loginAt),
+                utf8(String.valueOf(expire.toMillis())),
+                utf8(String.valueOf(loginAt.toEpochMilli()))
+        );
+    }
+
+    @Override
+    public boolean rotateRefreshToken(
+            String oldToken,
+            String newToken,
+            String userId,
+            SessionMetaRequest sessionMetaRequest,
+            Duration expire
+    ) {
+        String sessionId = buildKey(newToken, userId);
+        Instant loginAt = Instant.now();
+
+        Long rotated = redisSessionMetaTemplate.execute(
+                ROTATE_SESSION_SCRIPT,
+                RedisSerializer.byteArray(),
+                LONG_SERIALIZER,
+                List.of(buildKey(oldToken, userId), sessionId, buildIndexKey(userId)),
+                serializeSessionMeta(sessionId, sessionMetaRequest, loginAt),
+                utf8(String.valueOf(expire.toMillis())),
+                utf8(String.valueOf(loginAt.toEpochMilli()))
+        );
+        return rotated != null && rotated == 1L;
+    }
 
+    private byte[] serializeSessionMeta(String sessionId, SessionMetaRequest sessionMetaRequest, Instant loginAt) {
         SessionMeta sessionMeta = new SessionMeta(
                 sessionId,
                 sessionMetaRequest.getDeviceName(),
                 sessionMetaRequest.getDeviceType(),
                 sessionMetaRequest.getUserAgent(),
-                Instant.now()
+                loginAt
         );
 
-        redisSessionMetaTemplate.opsForValue().set(sessionId, sessionMeta, expire);
+        @SuppressWarnings("unchecked")
+        RedisSerializer<SessionMeta> valueSerializer =
+                (RedisSerializer<SessionMeta>) redisSessionMetaTemplate.getValueSerializer();
+        return valueSerializer.serialize(sessionMeta);
     }
 
     @Override
@@ -61,12 +164,26 @@ public class RefreshTokenRedisServiceImpl implements RefreshTokenRedisService {
 
     @Override
     public void deleteRefreshToken(String token, String userId) {
-        redisSessionMetaTemplate.delete(buildKey(token, userId));
+        deleteSession(buildKey(token, userId), userId);
     }
 
     @Override
     public void deleteRefreshToken(String key) {
-        redisSessionMetaTemplate.delete(key);
+        String userId = extractUserId(key);
+        if (userId == null) {
+            redisSessionMetaTemplate.delete(key);
+            return;
+        }
+        deleteSession(key, userId);
+    }
+
+    private void deleteSession(String key, String userId) {
+        redisSessionMetaTemplate.execute(
+                DELETE_SESSION_SCRIPT,
+                RedisSerializer.byteArray(),
+                LONG_SERIALIZER,
+                List.of(key, buildIndexKey(userId))
+        );
     }
 
     @Override
@@ -77,39 +194,50 @@ public class RefreshTokenRedisServiceImpl implements RefreshTokenRedisService {
 
     @Override
     public List<SessionMetaResponse> getAllSessionMetas(String userId, String currentRefreshToken) {
-        String keyPattern = "auth::refresh_token:" + userId + ":*";
-        Set<String> keys = redisSessionMetaTemplate.keys(keyPattern);
+        String indexKey = buildIndexKey(userId);
 
-        if (keys == null || keys.isEmpty()) {
+        // Mới đăng nhập trước (score = login time)
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(indexKey, 0, -1);
+        if (members == null || members.isEmpty()) {
             return Collections.emptyList();
         }
-        
-        String currentTokenHash = DigestUtils.sha256Hex(currentRefreshToken);
 
-        List<SessionMetaResponse> sessionMetas = new ArrayList<>();
-        for (String key : keys) {
-            SessionMeta meta = redisSessionMetaTemplate.opsForValue().get(key);
-            if (meta == null) continue;
+        List<String> keys = new ArrayList<>(members);
+        List<SessionMeta> metas = redisSessionMetaTemplate.opsForValue().multiGet(keys);
+        if (metas == null) {
+            return Collections.emptyList();
+        }
 
-            // Extract hash from key to compare with current token
-            String keyHash = key.substring(key.lastIndexOf(":") + 1);
-            boolean isCurrent = currentTokenHash.equals(keyHash);
+        String currentSessionId = buildKey(currentRefreshToken, userId);
 
-            SessionMetaResponse sessionMetaResponse = new SessionMetaResponse(
+        List<SessionMetaResponse> sessionMetas = new ArrayList<>(keys.size());
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            SessionMeta meta = metas.get(i);
+            if (meta == null) {
+                expired.add(keys.get(i));
+                continue;
+            }
+
+            sessionMetas.add(new SessionMetaResponse(
                     meta.getSessionId(),
                     meta.getDeviceName(),
                     meta.getDeviceType(),
                     meta.getUserAgent(),
                     meta.getLoginAt(),
-                    isCurrent
-            );
-            sessionMetas.add(sessionMetaResponse);
+                    currentSessionId.equals(keys.get(i))
+            ));
+        }
+
+        // Dọn lazy các session đã hết hạn khỏi index
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(indexKey, expired.toArray());
         }
-        
-        // Sort by login time, most recent first
-        sessionMetas.sort((a, b) -> b.getLoginAt().compareTo(a.getLoginAt()));
-        
+
         return sessionMetas;
     }
-}
 
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,19 @@
+package com.aurora.backend.service;
+
+import com.aurora.backend.enums.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Xuất báo cáo dạng stream (CSV/XLSX) cho kế toán.
+ * Tham số được validate ngay khi gọi; dữ liệu chỉ được đọc khi response bắt đầu ghi.
+ */
+public interface ReportExportService {
+
+    StreamingResponseBody exportBookings(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId);
+
+    StreamingResponseBody exportPayments(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId);
+
+    StreamingResponseBody exportRevenue(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId);
+}
@@ -0,0 +1,19 @@
+package com.aurora.backend.service;
+
+import java.time.Instant;
+
+/**
+ * Thu hồi access token (theo JTI) trước khi hết hạn, ví dụ khi logout.
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Thu hồi token có JTI cho đến thời điểm hết hạn của nó
+     */
+    void revoke(String jti, Instant expiresAt);
+
+    /**
+     * Kiểm tra JTI đã bị thu hồi chưa (gọi trên mỗi request có JWT)
+     */
+    boolean isRevoked(String jti);
+}
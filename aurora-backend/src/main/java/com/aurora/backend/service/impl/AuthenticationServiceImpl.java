@@ -1,5 +1,6 @@
 package com.aurora.backend.service.impl;
 
+import com.aurora.backend.config.PasswordVerifier;
 import com.aurora.backend.dto.request.*;
 import com.aurora.backend.dto.response.AuthResult;
 import com.aurora.backend.dto.response.AuthTokenResponse;
@@ -20,8 +21,10 @@ import com.aurora.backend.repository.UserRepository;
 import com.aurora.backend.service.AuthenticationService;
 import com.aurora.backend.service.RefreshTokenRedisService;
 import com.aurora.backend.service.StaffShiftService;
+import com.aurora.backend.service.TokenRevocationService;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import lombok.AccessLevel;
@@ -37,7 +40,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.text.ParseException;
 import java.time.Duration;
@@ -45,6 +51,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -57,10 +64,13 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     UserRepository userRepository;
     RoleRepository roleRepository;
     RefreshTokenRedisService refreshTokenRedisService;
+    TokenRevocationService tokenRevocationService;
     StaffShiftService staffShiftService;
     PasswordEncoder passwordEncoder;
+    PasswordVerifier passwordVerifier;
     PasswordResetTokenRepository passwordResetTokenRepository;
     EmailVerificationTokenRepository emailVerificationTokenRepository;
+    PlatformTransactionManager transactionManager;
 
     @NonFinal
     @Value("${jwt.signerKey}")
@@ -111,34 +121,76 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return mapToUserSessionResponse(savedUser);
     }
 
+    /**
+     * Không chạy trong một transaction bao trùm: BCrypt (có thể chờ pool tới vài giây) chạy khi không giữ
+     * connection DB nào, nên đợt đăng nhập dồn dập không rút cạn connection pool của các API khác.
+     * Đọc user và ghi kết quả là hai transaction ngắn riêng.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResult handleLogin(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-
-        if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(LocalDateTime.now())) {
-            log.warn("Login attempt on locked account: {}", user.getUsername());
-            throw new AppException(ErrorCode.ACCOUNT_LOCKED);
-        }
+        User candidate = inTransaction(true, () -> {
+            User user = userRepository.findByUsername(request.getUsername())
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+            checkNotLocked(user);
+            return user;
+        });
+        String passwordHash = candidate.getPassword();
 
-        boolean authenticated = passwordEncoder.matches(request.getPassword(), user.getPassword());
+        // BCrypt chạy trên pool riêng giới hạn theo CPU, không chiếm thread Tomcat
+        PasswordVerifier.Verification verification = passwordVerifier.verify(request.getPassword(), passwordHash);
 
-        if (!authenticated) {
-            handleFailedLogin(user);
+        if (!verification.matched()) {
+            inTransaction(false, () -> {
+                handleFailedLogin(findUser(candidate.getId()));
+                return null;
+            });
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
 
-        // Validate shift for STAFF role
-        validateStaffShift(user);
+        return inTransaction(false, () -> {
+            User user = findUser(candidate.getId());
+            // Mật khẩu đổi hoặc tài khoản bị khóa trong lúc verify
+            if (!passwordHash.equals(user.getPassword())) {
+                throw new AppException(ErrorCode.UNAUTHENTICATED);
+            }
+            checkNotLocked(user);
+
+            if (verification.upgradedHash() != null) {
+                user.setPassword(verification.upgradedHash());
+                log.info("Password hash upgraded for user: {}", user.getUsername());
+            }
 
-        handleSuccessfulLogin(user);
+            // Validate shift for STAFF role
+            validateStaffShift(user);
+
+            handleSuccessfulLogin(user);
+
+            return buildAuthResult(user, request.getSessionMeta());
+        });
+    }
+
+    private void checkNotLocked(User user) {
+        if (user.getLockedUntil() != null && user.getLockedUntil().isAfter(LocalDateTime.now())) {
+            log.warn("Login attempt on locked account: {}", user.getUsername());
+            throw new AppException(ErrorCode.ACCOUNT_LOCKED);
+        }
+    }
+
+    private User findUser(String id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+    }
 
-        return buildAuthResult(user, request.getSessionMeta());
+    private <T> T inTransaction(boolean readOnly, Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> work.get());
     }
 
     @Override
-    public ResponseCookie handleLogout(String refreshToken) {
+    @Transactional
+    public ResponseCookie handleLogout(String refreshToken, String accessToken) {
         if (refreshToken != null && !refreshToken.isBlank()) {
             try {
                 SignedJWT signedJWT = SignedJWT.parse(refreshToken);
@@ -153,6 +205,16 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             }
         }
 
+        // Thu hồi access token hiện tại để nó không còn dùng được tới khi hết hạn
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                JWTClaimsSet claims = verifyToken(accessToken).getJWTClaimsSet();
+                tokenRevocationService.revoke(claims.getJWTID(), claims.getExpirationTime().toInstant());
+            } catch (ParseException | BadJwtException e) {
+                log.warn("Access token not revoked during logout: {}", e.getMessage());
+            }
+        }
+
         return ResponseCookie
                 .from("refresh_token", "")
                 .httpOnly(true)
@@ -190,24 +252,28 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Transactional
     public AuthResult handleRefresh(String refreshToken, SessionMetaRequest sessionMetaRequest) 
             throws ParseException {
-        SignedJWT signedJWT = SignedJWT.parse(refreshToken);
+        // Verify chữ ký + hạn trước khi chạm DB/Redis: token giả mạo bị loại chỉ bằng CPU
+        SignedJWT signedJWT = verifyToken(refreshToken);
         String username = signedJWT.getJWTClaimsSet().getSubject();
 
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-        
-        String userId = user.getId();
 
-        // Validate token exists in Redis
-        if (!refreshTokenRedisService.validateToken(refreshToken, userId)) {
+        // Kiểm tra + xóa token cũ + lưu token mới trong một Lua script (một round trip).
+        // Hai request refresh đồng thời với cùng token chỉ có một request thắng.
+        String newRefreshToken = buildJwt(REFRESH_TOKEN_EXPIRATION, user);
+        boolean rotated = refreshTokenRedisService.rotateRefreshToken(
+                refreshToken,
+                newRefreshToken,
+                user.getId(),
+                sessionMetaRequest,
+                Duration.ofSeconds(REFRESH_TOKEN_EXPIRATION)
+        );
+        if (!rotated) {
             throw new BadJwtException("Invalid refresh token");
         }
 
-        // Delete old refresh token
-        refreshTokenRedisService.deleteRefreshToken(refreshToken, userId);
-
-        // Generate new tokens
-        return buildAuthResult(user, sessionMetaRequest);
+        return buildAuthResult(user, newRefreshToken);
     }
 
     @Override
@@ -345,6 +411,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 Duration.ofSeconds(REFRESH_TOKEN_EXPIRATION)
         );
 
+        return buildAuthResult(user, refreshToken);
+    }
+
+    private AuthResult buildAuthResult(User user, String refreshToken) {
         ResponseCookie responseCookie = ResponseCookie
                 .from("refresh_token", refreshToken)
                 .httpOnly(true)
@@ -364,6 +434,31 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return new AuthResult(authTokenResponse, responseCookie);
     }
 
+    /**
+     * Verify chữ ký HS512 và thời hạn của token (không truy cập DB/Redis)
+     */
+    private SignedJWT verifyToken(String token) throws ParseException {
+        SignedJWT signedJWT = SignedJWT.parse(token);
+
+        boolean verified;
+        try {
+            verified = JWSAlgorithm.HS512.equals(signedJWT.getHeader().getAlgorithm())
+                    && signedJWT.verify(new MACVerifier(SIGNER_KEY.getBytes()));
+        } catch (JOSEException e) {
+            log.error("Cannot verify token", e);
+            verified = false;
+        }
+        if (!verified) {
+            throw new BadJwtException("Invalid token");
+        }
+
+        Date expiration = signedJWT.getJWTClaimsSet().getExpirationTime();
+        if (expiration == null || expiration.before(new Date())) {
+            throw new BadJwtException("Token expired");
+        }
+        return signedJWT;
+    }
+
     private String buildJwt(Long expirationRate, User user) {
         Instant now = Instant.now();
         Instant validity = now.plus(expirationRate, ChronoUnit.SECONDS);
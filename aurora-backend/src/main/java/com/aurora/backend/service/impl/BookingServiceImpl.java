@@ -19,6 +19,9 @@ import com.aurora.backend.entity.Payment;
 import com.aurora.backend.entity.Promotion;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.BookingStatusChangedEvent;
+import com.aurora.backend.event.CustomerBookedEvent;
+import com.aurora.backend.event.PaymentSucceededEvent;
 import com.aurora.backend.mapper.BookingMapper;
 import com.aurora.backend.mapper.BookingRoomMapper;
 import com.aurora.backend.mapper.ServiceBookingMapper;
@@ -40,6 +43,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
@@ -74,6 +78,7 @@ public class BookingServiceImpl implements BookingService {
     RefundService refundService;
     EmailService emailService;
     PriceCalculationService priceCalculationService;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -117,6 +122,8 @@ public class BookingServiceImpl implements BookingService {
         
         Booking savedBooking = bookingRepository.save(booking);
         log.info("Booking created successfully with ID: {} and code: {}", savedBooking.getId(), savedBooking.getBookingCode());
+        publishStatusChange(savedBooking, null);
+        publishCustomerBooked(savedBooking);
         
         return bookingMapper.toBookingResponse(savedBooking);
     }
@@ -129,10 +136,12 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.BOOKING_NOT_FOUND));
         
+        Booking.BookingStatus previousStatus = booking.getStatus();
         bookingMapper.updateBooking(booking, request);
         
         Booking updatedBooking = bookingRepository.save(booking);
         log.info("Booking updated successfully with ID: {}", updatedBooking.getId());
+        publishStatusChange(updatedBooking, previousStatus);
         
         return bookingMapper.toBookingResponse(updatedBooking);
     }
@@ -147,6 +156,8 @@ public class BookingServiceImpl implements BookingService {
         
         bookingRepository.delete(booking);
         log.info("Booking deleted successfully with ID: {}", id);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(
+                booking.getId(), booking.getBranch().getId(), booking.getStatus(), null));
     }
 
     @Override
@@ -258,6 +269,18 @@ public class BookingServiceImpl implements BookingService {
         return bookings.map(bookingMapper::toBookingResponse);
     }
     
+    private void publishStatusChange(Booking booking, Booking.BookingStatus previousStatus) {
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(
+                booking.getId(), booking.getBranch().getId(), previousStatus, booking.getStatus()));
+    }
+    
+    private void publishCustomerBooked(Booking booking) {
+        if (booking.getCustomer() != null) {
+            eventPublisher.publishEvent(new CustomerBookedEvent(
+                    booking.getBranch().getId(), booking.getCustomer().getId(), booking.getCheckin()));
+        }
+    }
+    
     private String generateBookingCode() {
         return "BK" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
     }
@@ -285,6 +308,7 @@ public class BookingServiceImpl implements BookingService {
         
         Booking confirmedBooking = bookingRepository.save(booking);
         log.info("Booking confirmed successfully: {}", confirmedBooking.getBookingCode());
+        publishStatusChange(confirmedBooking, Booking.BookingStatus.PENDING);
         
         return bookingMapper.toBookingResponse(confirmedBooking);
     }
@@ -320,6 +344,9 @@ public class BookingServiceImpl implements BookingService {
         
         Booking modifiedBooking = bookingRepository.save(booking);
         log.info("Booking modified successfully: {}", modifiedBooking.getBookingCode());
+        if (request.getNewCheckin() != null) {
+            publishCustomerBooked(modifiedBooking);
+        }
         
         return bookingMapper.toBookingResponse(modifiedBooking);
     }
@@ -346,6 +373,7 @@ public class BookingServiceImpl implements BookingService {
         String refundPolicy = refundService.getRefundPolicyExplanation(daysUntilCheckin);
         
         // Update booking status
+        Booking.BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         booking.setCancelledAt(LocalDateTime.now());
         booking.setCancellationReason(request.getReason());
@@ -356,6 +384,7 @@ public class BookingServiceImpl implements BookingService {
         }
         
         bookingRepository.save(booking);
+        publishStatusChange(booking, previousStatus);
         
         log.info("Booking cancelled: {} with refund: {} VND ({}%)", 
                  booking.getBookingCode(), refundAmount, refundPercentage);
@@ -392,6 +421,7 @@ public class BookingServiceImpl implements BookingService {
         
         Booking checkedInBooking = bookingRepository.save(booking);
         log.info("Booking checked in successfully: {}", checkedInBooking.getBookingCode());
+        publishStatusChange(checkedInBooking, Booking.BookingStatus.CONFIRMED);
         
         return bookingMapper.toBookingResponse(checkedInBooking);
     }
@@ -419,6 +449,7 @@ public class BookingServiceImpl implements BookingService {
         // Auto-complete after checkout
         checkedOutBooking.setStatus(Booking.BookingStatus.COMPLETED);
         bookingRepository.save(checkedOutBooking);
+        publishStatusChange(checkedOutBooking, Booking.BookingStatus.CHECKED_IN);
         
         log.info("Booking checked out and completed: {}", checkedOutBooking.getBookingCode());
         
@@ -434,12 +465,14 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new AppException(ErrorCode.BOOKING_NOT_FOUND));
         
         // Update status
+        Booking.BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(Booking.BookingStatus.NO_SHOW);
         booking.setCancellationReason(reason);
         booking.setPaymentStatus(Booking.PaymentStatus.REFUNDED); // No refund for no-show
         
         Booking noShowBooking = bookingRepository.save(booking);
         log.info("Booking marked as no-show: {}", noShowBooking.getBookingCode());
+        publishStatusChange(noShowBooking, previousStatus);
         
         return bookingMapper.toBookingResponse(noShowBooking);
     }
@@ -461,6 +494,7 @@ public class BookingServiceImpl implements BookingService {
             
             bookingRepository.save(booking);
             log.info("Booking auto-confirmed: {}", booking.getBookingCode());
+            publishStatusChange(booking, Booking.BookingStatus.PENDING);
         }
     }
     
@@ -651,6 +685,8 @@ public class BookingServiceImpl implements BookingService {
         
         Booking savedBooking = bookingRepository.save(booking);
         log.info("Booking created: {} with code: {}", savedBooking.getId(), savedBooking.getBookingCode());
+        publishStatusChange(savedBooking, null);
+        publishCustomerBooked(savedBooking);
         
         // 1.5. Create Payment record for CASH payment
         if ("cash".equals(request.getPaymentMethod())) {
@@ -664,6 +700,8 @@ public class BookingServiceImpl implements BookingService {
                     .notes("Cash payment on checkout")
                     .build();
             paymentRepository.save(cashPayment);
+            eventPublisher.publishEvent(new PaymentSucceededEvent(
+                    cashPayment.getId(), branch.getId(), cashPayment.getAmount()));
             log.info("Cash payment record created for booking: {} with amount: {}", 
                     savedBooking.getBookingCode(), savedBooking.getTotalPrice());
         }
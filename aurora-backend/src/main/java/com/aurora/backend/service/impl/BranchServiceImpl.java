@@ -6,6 +6,7 @@ import com.aurora.backend.dto.response.BranchResponse;
 import com.aurora.backend.entity.Branch;
 import com.aurora.backend.entity.User;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.CatalogChangedEvent;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.mapper.BranchMapper;
 import com.aurora.backend.repository.BranchRepository;
@@ -15,6 +16,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,6 +32,7 @@ public class BranchServiceImpl implements BranchService {
     BranchRepository branchRepository;
     UserRepository userRepository;
     BranchMapper branchMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -59,6 +62,7 @@ public class BranchServiceImpl implements BranchService {
         
         Branch savedBranch = branchRepository.save(branch);
         log.info("Branch created successfully with ID: {}", savedBranch.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent("Branch", savedBranch.getId()));
         
         return branchMapper.toBranchResponse(savedBranch);
     }
@@ -94,6 +98,7 @@ public class BranchServiceImpl implements BranchService {
         Branch updatedBranch = branchRepository.save(branch);
         
         log.info("Branch updated successfully: {}", id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("Branch", id));
         return branchMapper.toBranchResponse(updatedBranch);
     }
 
@@ -119,6 +124,7 @@ public class BranchServiceImpl implements BranchService {
         
         branchRepository.delete(branch);
         log.info("Branch deleted successfully: {}", id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("Branch", id));
     }
 
     @Override
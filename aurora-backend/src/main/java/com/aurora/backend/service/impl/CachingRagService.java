@@ -0,0 +1,131 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.config.SemanticAnswerCache;
+import com.aurora.backend.service.RagService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * RagService có {@link SemanticAnswerCache} phía trước: câu hỏi lặp lại (giờ check-in, bữa sáng, đỗ xe...)
+ * trả lời từ cache thay vì gọi Gemini. Client stream nhận câu trả lời cache dưới dạng các chunk.
+ * <p>
+ * Cache chỉ theo câu hỏi nên chỉ dùng khi câu trả lời không phụ thuộc hội thoại: chat không chatId, hoặc lượt đầu
+ * của chatId (chat memory rỗng). Từ lượt thứ hai ("còn chi nhánh kia thì sao?") luôn gọi delegate và không ghi cache.
+ * Lượt đầu trả lời từ cache được ghi vào chat memory để lượt sau có ngữ cảnh (và không dùng cache nữa).
+ * chatId null/rỗng (/rag/sync, /rag/stream không chatId) đi đường không trạng thái, không tạo key chat memory.
+ */
+@RequiredArgsConstructor
+public class CachingRagService implements RagService {
+
+    private static final int REPLAY_CHUNK_LENGTH = 40;
+
+    private final RagService delegate;
+    private final SemanticAnswerCache answerCache;
+    private final ChatMemoryStore chatMemoryStore;
+
+    @Override
+    public String chat(String userMessage) {
+        return cached(userMessage, () -> delegate.chat(userMessage));
+    }
+
+    @Override
+    public String chat(String chatId, String userMessage) {
+        if (isStateless(chatId)) {
+            return chat(userMessage);
+        }
+        if (!isFirstTurn(chatId)) {
+            return delegate.chat(chatId, userMessage);
+        }
+        SemanticAnswerCache.Lookup lookup = answerCache.lookup(userMessage);
+        if (lookup.hit()) {
+            remember(chatId, userMessage, lookup.answer());
+            return lookup.answer();
+        }
+        String answer = delegate.chat(chatId, userMessage);
+        answerCache.put(lookup, answer);
+        return answer;
+    }
+
+    @Override
+    public Flux<String> stream(String chatId, String userMessage) {
+        if (isStateless(chatId)) {
+            // Không có stream không trạng thái - trả lời một lần rồi chia chunk như câu trả lời cache
+            return Mono.fromCallable(() -> chat(userMessage))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(answer -> Flux.fromIterable(replayChunks(answer)));
+        }
+        // Đọc chat memory (Redis) và embed câu hỏi là lời gọi blocking - không chạy trên thread của reactor
+        return Mono.fromCallable(() -> isFirstTurn(chatId)
+                        ? Optional.of(answerCache.lookup(userMessage))
+                        : Optional.<SemanticAnswerCache.Lookup>empty())
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(cacheable -> {
+                    if (cacheable.isEmpty()) {
+                        return delegate.stream(chatId, userMessage);
+                    }
+                    SemanticAnswerCache.Lookup lookup = cacheable.get();
+                    if (lookup.hit()) {
+                        remember(chatId, userMessage, lookup.answer());
+                        return Flux.fromIterable(replayChunks(lookup.answer()));
+                    }
+                    StringBuilder answer = new StringBuilder();
+                    return delegate.stream(chatId, userMessage)
+                            .doOnNext(chunk -> {
+                                if (chunk != null) {
+                                    answer.append(chunk);
+                                }
+                            })
+                            .doOnComplete(() -> answerCache.put(lookup, answer.toString()));
+                });
+    }
+
+    private static boolean isStateless(String chatId) {
+        return chatId == null || chatId.isBlank();
+    }
+
+    private boolean isFirstTurn(String chatId) {
+        return chatMemoryStore.getMessages(chatId).isEmpty();
+    }
+
+    private void remember(String chatId, String userMessage, String answer) {
+        chatMemoryStore.updateMessages(chatId, List.of(UserMessage.from(userMessage), AiMessage.from(answer)));
+    }
+
+    private String cached(String userMessage, Supplier<String> call) {
+        SemanticAnswerCache.Lookup lookup = answerCache.lookup(userMessage);
+        if (lookup.hit()) {
+            return lookup.answer();
+        }
+        String answer = call.get();
+        answerCache.put(lookup, answer);
+        return answer;
+    }
+
+    /**
+     * Chia câu trả lời thành các chunk cắt ở khoảng trắng, giống nhịp stream của model
+     */
+    static List<String> replayChunks(String answer) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < answer.length()) {
+            int end = Math.min(start + REPLAY_CHUNK_LENGTH, answer.length());
+            if (end < answer.length()) {
+                int space = answer.indexOf(' ', end);
+                end = space < 0 ? answer.length() : space + 1;
+            }
+            chunks.add(answer.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,255 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.enums.CustomerCountMode;
+import com.aurora.backend.event.CustomerBookedEvent;
+import com.aurora.backend.repository.BookingRepository;
+import com.aurora.backend.service.CustomerAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Đếm khách mới / quay lại bằng HyperLogLog trên Redis.
+ * <p>
+ * Sketch được ghi khi có booking (PFADD customerId), theo ngày check-in:
+ * <ul>
+ *     <li>{@code analytics:customers:{branchId}:{yyyy-MM-dd}} - theo chi nhánh, theo ngày</li>
+ *     <li>{@code analytics:customers:all:{yyyy-MM-dd}} - toàn hệ thống, theo ngày</li>
+ *     <li>{@code analytics:customers:all:{yyyy-MM}} - toàn hệ thống, theo tháng (để union lịch sử ít key)</li>
+ * </ul>
+ * Khách trong khoảng R = PFCOUNT(ngày trong khoảng), lịch sử P = PFCOUNT(tháng/ngày trước start),
+ * khách quay lại = |R| + |P| - |R ∪ P|, khách mới = |R| - khách quay lại.
+ * <p>
+ * Sai số: Redis HLL có sai số chuẩn 0.81%, nên |R| lệch khoảng ±0.81% (±1.6% với xác suất 95%).
+ * Khách quay lại tính bằng bao hàm - loại trừ nên sai số tuyệt đối cỡ 0.81% × |R ∪ P|; khi lịch sử lớn
+ * hơn nhiều so với khoảng xem thì sai số tương đối của số khách quay lại có thể lớn - dùng mode EXACT
+ * cho báo cáo cần con số chính xác. HLL không xóa được phần tử nên booking bị hủy/xóa vẫn được đếm
+ * (giống truy vấn SQL hiện tại không lọc theo trạng thái).
+ * <p>
+ * Khi chưa có sketch (chưa backfill xong), Redis lỗi hoặc mode = EXACT thì dùng truy vấn SQL.
+ */
+@Slf4j
+@Service
+public class CustomerAnalyticsServiceImpl implements CustomerAnalyticsService {
+
+    private static final String KEY_PREFIX = "analytics:customers:";
+    private static final String ALL_BRANCHES = "all";
+    // Tháng sớm nhất có dữ liệu; chỉ được set sau khi backfill xong
+    private static final String SINCE_KEY = KEY_PREFIX + "since";
+    private static final String REBUILD_LOCK_KEY = KEY_PREFIX + "rebuild-lock";
+    private static final Duration REBUILD_LOCK_TTL = Duration.ofHours(1);
+    private static final int REBUILD_FETCH_SIZE = 1000;
+    private static final int REBUILD_BATCH_SIZE = 2000;
+
+    private static final String REBUILD_SQL = """
+            SELECT customer_id, branch_id, checkin
+            FROM bookings
+            WHERE customer_id IS NOT NULL AND checkin IS NOT NULL
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CustomerCountMode mode;
+
+    public CustomerAnalyticsServiceImpl(StringRedisTemplate redisTemplate,
+                                        BookingRepository bookingRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${analytics.customers.mode:approximate}") String mode) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.mode = CustomerCountMode.from(mode);
+    }
+
+    @Override
+    public CustomerCounts countCustomers(LocalDate start, LocalDate end, String branchId) {
+        if (mode == CustomerCountMode.APPROXIMATE) {
+            try {
+                String since = redisTemplate.opsForValue().get(SINCE_KEY);
+                if (since != null) {
+                    return countApproximate(start, end, branchId, YearMonth.parse(since));
+                }
+                log.debug("Customer sketches not ready - using exact count");
+            } catch (DataAccessException e) {
+                log.warn("Customer sketch lookup failed, falling back to exact count: {}", e.getMessage());
+            }
+        }
+        return new CustomerCounts(
+                bookingRepository.countFirstTimeCustomers(start, end, branchId),
+                bookingRepository.countReturningCustomers(start, end, branchId),
+                false
+        );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerBooked(CustomerBookedEvent event) {
+        if (mode != CustomerCountMode.APPROXIMATE || event.customerId() == null || event.checkin() == null) {
+            return;
+        }
+        try {
+            Map<String, List<String>> batch = new HashMap<>();
+            addToBatch(batch, event.branchId(), event.customerId(), event.checkin());
+            flush(batch);
+        } catch (DataAccessException e) {
+            // Sketch thiếu phần tử chỉ làm lệch số liệu gần đúng; lần rebuild sau sẽ bổ sung
+            log.warn("Failed to record customer {} in sketch: {}", event.customerId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfMissing() {
+        if (mode != CustomerCountMode.APPROXIMATE) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(SINCE_KEY))) {
+                return;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable, skipping customer sketch backfill: {}", e.getMessage());
+            return;
+        }
+        // Chạy nền để không chặn startup; trong lúc đó dashboard dùng đếm chính xác
+        Thread.ofVirtual().name("customer-sketch-backfill").start(this::rebuildSketches);
+    }
+
+    @Override
+    public void rebuildSketches() {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", REBUILD_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("Customer sketch rebuild already running on another instance");
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            Map<String, List<String>> batch = new HashMap<>();
+            int[] pending = {0};
+            long[] rows = {0};
+            YearMonth[] earliest = {YearMonth.now()};
+
+            // PFADD là idempotent nên không cần xóa sketch cũ, booking mới trong lúc rebuild vẫn được giữ
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(REBUILD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(REBUILD_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                LocalDate checkin = rs.getObject(3, Date.class).toLocalDate();
+                addToBatch(batch, rs.getString(2), rs.getString(1), checkin);
+                YearMonth month = YearMonth.from(checkin);
+                if (month.isBefore(earliest[0])) {
+                    earliest[0] = month;
+                }
+                rows[0]++;
+                if (++pending[0] >= REBUILD_BATCH_SIZE) {
+                    flush(batch);
+                    batch.clear();
+                    pending[0] = 0;
+                }
+            }));
+            flush(batch);
+
+            redisTemplate.opsForValue().set(SINCE_KEY, earliest[0].toString());
+            log.info("Customer sketches rebuilt from {} bookings in {} ms",
+                    rows[0], System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.error("Customer sketch rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            redisTemplate.delete(REBUILD_LOCK_KEY);
+        }
+    }
+
+    private CustomerCounts countApproximate(LocalDate start, LocalDate end, String branchId, YearMonth since) {
+        String scope = branchId == null ? ALL_BRANCHES : branchId;
+        List<String> rangeKeys = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            rangeKeys.add(dayKey(scope, day));
+        }
+        long inRange = pfCount(rangeKeys);
+        if (inRange == 0) {
+            return new CustomerCounts(0, 0, true);
+        }
+
+        // Lịch sử trước start luôn tính trên toàn hệ thống (giống EXISTS trong truy vấn SQL)
+        List<String> priorKeys = new ArrayList<>();
+        for (YearMonth month = since; month.isBefore(YearMonth.from(start)); month = month.plusMonths(1)) {
+            priorKeys.add(KEY_PREFIX + ALL_BRANCHES + ":" + month);
+        }
+        for (LocalDate day = start.withDayOfMonth(1); day.isBefore(start); day = day.plusDays(1)) {
+            priorKeys.add(dayKey(ALL_BRANCHES, day));
+        }
+        if (priorKeys.isEmpty()) {
+            return new CustomerCounts(inRange, 0, true);
+        }
+
+        long prior = pfCount(priorKeys);
+        List<String> unionKeys = new ArrayList<>(rangeKeys);
+        unionKeys.addAll(priorKeys);
+        long union = pfCount(unionKeys);
+
+        long returning = Math.min(Math.max(inRange + prior - union, 0), inRange);
+        return new CustomerCounts(inRange - returning, returning, true);
+    }
+
+    private long pfCount(List<String> keys) {
+        Long size = redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+        return size == null ? 0L : size;
+    }
+
+    private void addToBatch(Map<String, List<String>> batch, String branchId, String customerId, LocalDate checkin) {
+        for (String key : Set.of(
+                dayKey(branchId, checkin),
+                dayKey(ALL_BRANCHES, checkin),
+                KEY_PREFIX + ALL_BRANCHES + ":" + YearMonth.from(checkin))) {
+            batch.computeIfAbsent(key, k -> new ArrayList<>()).add(customerId);
+        }
+    }
+
+    private void flush(Map<String, List<String>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            pfAdd(connection, batch);
+            return null;
+        });
+    }
+
+    private void pfAdd(RedisConnection connection, Map<String, List<String>> batch) {
+        batch.forEach((key, values) -> connection.hyperLogLogCommands().pfAdd(
+                key.getBytes(StandardCharsets.UTF_8),
+                values.stream().map(v -> v.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new)));
+    }
+
+    private static String dayKey(String scope, LocalDate day) {
+        return KEY_PREFIX + scope + ":" + day;
+    }
+}
@@ -0,0 +1,212 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.entity.Booking;
+import com.aurora.backend.entity.Payment;
+import com.aurora.backend.event.BookingStatusChangedEvent;
+import com.aurora.backend.event.PaymentSucceededEvent;
+import com.aurora.backend.repository.BookingRepository;
+import com.aurora.backend.repository.PaymentRepository;
+import com.aurora.backend.service.DashboardLiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Counter KPI trong ngày theo chi nhánh. Chỉ chi nhánh đang có người theo dõi mới có counter;
+ * counter được nạp từ database một lần rồi cập nhật bằng delta sau khi transaction commit.
+ * Định kỳ (và khi sang ngày mới) counter được nạp lại để sửa sai lệch do event bị lỡ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardLiveServiceImpl implements DashboardLiveService {
+
+    private static final String ALL_BRANCHES = "*";
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final Map<String, LiveCounters> counters = new ConcurrentHashMap<>();
+
+    @Value("${dashboard.live.resync-interval:10m}")
+    private Duration resyncInterval;
+
+    @Override
+    public Map<String, Object> acquire(String branchId) {
+        LiveCounters live = counters.compute(key(branchId), (k, existing) -> {
+            LiveCounters c = existing != null ? existing : new LiveCounters();
+            c.subscribers++;
+            return c;
+        });
+        synchronized (live) {
+            if (live.day == null) {
+                reload(live, branchId);
+                live.lastSent = live.snapshot();
+            }
+            return live.snapshot();
+        }
+    }
+
+    @Override
+    public void release(String branchId) {
+        counters.computeIfPresent(key(branchId), (k, c) -> --c.subscribers <= 0 ? null : c);
+    }
+
+    @Override
+    public Map<String, Object> pollChanges(String branchId) {
+        LiveCounters live = counters.get(key(branchId));
+        if (live == null) {
+            return Map.of();
+        }
+        synchronized (live) {
+            if (live.day == null) {
+                return Map.of();
+            }
+            if (!LocalDate.now().equals(live.day)
+                    || System.currentTimeMillis() - live.loadedAt >= resyncInterval.toMillis()) {
+                reload(live, branchId);
+            }
+            Map<String, Object> current = live.snapshot();
+            Map<String, Object> changes = new LinkedHashMap<>();
+            current.forEach((name, value) -> {
+                if (!Objects.equals(live.lastSent.get(name), value)) {
+                    changes.put(name, value);
+                }
+            });
+            live.lastSent = current;
+            return changes;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        if (event.previousStatus() == event.currentStatus()) {
+            return;
+        }
+        apply(event.branchId(), live -> live.applyBooking(event.previousStatus(), event.currentStatus()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentSucceeded(PaymentSucceededEvent event) {
+        if (event.amount() == null) {
+            return;
+        }
+        apply(event.branchId(), live -> live.revenue = live.revenue.add(event.amount()));
+    }
+
+    private void apply(String branchId, Consumer<LiveCounters> delta) {
+        for (String k : branchId == null ? List.of(ALL_BRANCHES) : List.of(branchId, ALL_BRANCHES)) {
+            LiveCounters live = counters.get(k);
+            if (live == null) {
+                continue;
+            }
+            synchronized (live) {
+                // Chưa nạp xong thì bỏ qua - giá trị sẽ có trong kết quả nạp
+                if (live.day != null) {
+                    delta.accept(live);
+                }
+            }
+        }
+    }
+
+    private void reload(LiveCounters live, String branchId) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = bookingRepository.summarizeLiveActivity(
+                today.atStartOfDay(),
+                today.plusDays(1).atStartOfDay(),
+                Booking.BookingStatus.CHECKED_IN,
+                Booking.BookingStatus.PENDING,
+                branchId
+        );
+        Object[] row = rows.isEmpty() ? new Object[6] : rows.get(0);
+        live.created = toLong(row[0]);
+        live.cancelled = toLong(row[1]);
+        live.checkIns = toLong(row[2]);
+        live.checkOuts = toLong(row[3]);
+        live.inHouse = toLong(row[4]);
+        live.pending = toLong(row[5]);
+
+        BigDecimal revenue = paymentRepository.sumPaymentsByStatusAndRange(
+                Payment.PaymentStatus.SUCCESS, today, today, branchId);
+        live.revenue = revenue == null ? BigDecimal.ZERO : revenue;
+        live.day = today;
+        live.loadedAt = System.currentTimeMillis();
+        log.debug("Live dashboard counters loaded for branch {}", branchId == null ? ALL_BRANCHES : branchId);
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static String key(String branchId) {
+        return branchId == null ? ALL_BRANCHES : branchId;
+    }
+
+    /**
+     * Mọi truy cập đều synchronized trên chính instance (trừ subscribers - được cập nhật trong compute của map).
+     */
+    private static class LiveCounters {
+        int subscribers;
+        LocalDate day;
+        long loadedAt;
+        Map<String, Object> lastSent = Map.of();
+
+        BigDecimal revenue = BigDecimal.ZERO;
+        long created;
+        long cancelled;
+        long checkIns;
+        long checkOuts;
+        long inHouse;
+        long pending;
+
+        void applyBooking(Booking.BookingStatus previous, Booking.BookingStatus current) {
+            if (previous == null) {
+                created++;
+            }
+            if (previous == Booking.BookingStatus.PENDING) {
+                pending--;
+            }
+            if (current == Booking.BookingStatus.PENDING) {
+                pending++;
+            }
+            if (current == Booking.BookingStatus.CANCELLED) {
+                cancelled++;
+            }
+            if (current == Booking.BookingStatus.CHECKED_IN) {
+                checkIns++;
+                inHouse++;
+            }
+            if (previous == Booking.BookingStatus.CHECKED_IN) {
+                inHouse--;
+                if (current == Booking.BookingStatus.CHECKED_OUT || current == Booking.BookingStatus.COMPLETED) {
+                    checkOuts++;
+                }
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> kpis = new LinkedHashMap<>();
+            kpis.put("date", day == null ? null : day.toString());
+            kpis.put("revenueToday", revenue.setScale(2, RoundingMode.HALF_UP));
+            kpis.put("bookingsCreatedToday", created);
+            kpis.put("cancellationsToday", cancelled);
+            kpis.put("checkInsToday", checkIns);
+            kpis.put("checkOutsToday", checkOuts);
+            kpis.put("inHouseBookings", Math.max(inHouse, 0));
+            kpis.put("pendingBookings", Math.max(pending, 0));
+            return kpis;
+        }
+    }
+}
@@ -26,6 +26,7 @@
     import com.aurora.backend.repository.ShiftCheckInRepository;
     import com.aurora.backend.repository.projection.PaymentMethodRevenueProjection;
     import com.aurora.backend.repository.projection.TopRoomTypeProjection;
+    import com.aurora.backend.service.CustomerAnalyticsService;
     import com.aurora.backend.service.DashboardService;
     import lombok.RequiredArgsConstructor;
     import org.springframework.data.domain.PageRequest;
@@ -66,6 +67,7 @@
         private final BranchRepository branchRepository;
         private final StaffShiftAssignmentRepository shiftAssignmentRepository;
         private final ShiftCheckInRepository shiftCheckInRepository;
+        private final CustomerAnalyticsService customerAnalyticsService;
 
         @Override
         public DashboardOverviewResponse getAdminOverview(LocalDate dateFrom, LocalDate dateTo) {
@@ -403,8 +405,8 @@
             }
             double occupancyRate = calculateOccupancyRate(occupancyDate, branchId);
 
-            long newCustomers = bookingRepository.countFirstTimeCustomers(range.start(), range.end(), branchId);
-            long returningCustomers = bookingRepository.countReturningCustomers(range.start(), range.end(), branchId);
+            CustomerAnalyticsService.CustomerCounts customers =
+                    customerAnalyticsService.countCustomers(range.start(), range.end(), branchId);
 
             BigDecimal previousRevenue = defaultZero(paymentRepository.sumPaymentsByStatusAndRange(
                     Payment.PaymentStatus.SUCCESS,
@@ -420,8 +422,9 @@
                     .totalBookings((int) totalBookings) // Cast về int cho khớp DTO
                     .averageBookingValue(averageBookingValue)
                     .occupancyRate(occupancyRate)
-                    .newCustomers((int) newCustomers)
-                    .returningCustomers((int) returningCustomers)
+                    .newCustomers((int) customers.newCustomers())
+                    .returningCustomers((int) customers.returningCustomers())
+                    .customerCountsApproximate(customers.approximate())
                     .revenueGrowthPercent(revenueGrowthPercent)
                     .build();
         }
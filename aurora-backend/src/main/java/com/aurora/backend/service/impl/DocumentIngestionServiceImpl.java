@@ -0,0 +1,209 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.dto.response.IngestionJobResponse;
+import com.aurora.backend.entity.Document;
+import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.enums.IngestionJobStatus;
+import com.aurora.backend.exception.AppException;
+import com.aurora.backend.repository.DocumentRepository;
+import com.aurora.backend.service.DocumentIngestionService;
+import com.aurora.backend.service.EmbeddingService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Chạy reindex tài liệu trên {@link IngestionPipeline} ở background, giữ trạng thái các job gần nhất trong bộ nhớ.
+ * Mỗi instance chỉ chạy một job tại một thời điểm.
+ */
+@Slf4j
+@Service
+public class DocumentIngestionServiceImpl implements DocumentIngestionService {
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final DocumentRepository documentRepository;
+    private final EmbeddingService embeddingService;
+    private final ObjectMapper objectMapper;
+    private final IngestionPipeline.Settings settings;
+    private final Duration downloadTimeout;
+    private final HttpClient httpClient;
+
+    private final AtomicReference<Job> runningJob = new AtomicReference<>();
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public DocumentIngestionServiceImpl(DocumentRepository documentRepository,
+                                        EmbeddingService embeddingService,
+                                        ObjectMapper objectMapper,
+                                        @Value("${rag.ingestion.download-workers:4}") int downloadWorkers,
+                                        @Value("${rag.ingestion.parse-workers:2}") int parseWorkers,
+                                        @Value("${rag.ingestion.embed-workers:2}") int embedWorkers,
+                                        @Value("${rag.ingestion.store-workers:2}") int storeWorkers,
+                                        @Value("${rag.ingestion.queue-capacity:16}") int queueCapacity,
+                                        @Value("${rag.ingestion.download-timeout:60s}") Duration downloadTimeout) {
+        this.documentRepository = documentRepository;
+        this.embeddingService = embeddingService;
+        this.objectMapper = objectMapper;
+        this.settings = new IngestionPipeline.Settings(downloadWorkers, parseWorkers, embedWorkers, storeWorkers, queueCapacity);
+        this.downloadTimeout = downloadTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public IngestionJobResponse startReindexAll() {
+        IngestionPipeline pipeline = new IngestionPipeline(embeddingService, this::download, this::onDocumentIndexed, settings);
+        Job job = new Job(UUID.randomUUID().toString(), pipeline, LocalDateTime.now());
+        if (!runningJob.compareAndSet(null, job)) {
+            throw new AppException(ErrorCode.INGESTION_JOB_RUNNING);
+        }
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            if (jobs.size() > MAX_RETAINED_JOBS) {
+                jobs.remove(jobs.keySet().iterator().next());
+            }
+        }
+
+        Thread.ofVirtual().name("ingest-job-" + job.id).start(() -> runJob(job));
+        return toResponse(job);
+    }
+
+    @Override
+    public IngestionJobResponse getJob(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new AppException(ErrorCode.INGESTION_JOB_NOT_FOUND);
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public List<IngestionJobResponse> listJobs() {
+        List<Job> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs.values());
+        }
+        return snapshot.reversed().stream().map(this::toResponse).toList();
+    }
+
+    private void runJob(Job job) {
+        try {
+            List<Document> documents = documentRepository.findAll().stream()
+                    .filter(document -> Boolean.TRUE.equals(document.getIsEmbed()))
+                    .toList();
+            log.info("Starting reindex job {} for {} files", job.id, documents.size());
+
+            job.pipeline.run(documents);
+
+            job.status = job.pipeline.getFailedDocuments() > 0
+                    ? IngestionJobStatus.COMPLETED_WITH_ERRORS
+                    : IngestionJobStatus.COMPLETED;
+            log.info("Completed reindex job {}: {} indexed, {} failed", job.id,
+                    job.pipeline.getCompletedDocuments(), job.pipeline.getFailedDocuments());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.status = IngestionJobStatus.FAILED;
+        } catch (Exception e) {
+            log.error("Reindex job {} failed: {}", job.id, e.getMessage(), e);
+            job.status = IngestionJobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            runningJob.compareAndSet(job, null);
+        }
+    }
+
+    /**
+     * Tải file về file tạm (không giữ nội dung trong heap); pipeline xóa file sau khi parse
+     */
+    private Path download(Document document) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(document.getDocUrl()))
+                .timeout(downloadTimeout)
+                .GET()
+                .build();
+        Path file = Files.createTempFile("aurora-doc-", ".tmp");
+        try {
+            HttpResponse<Path> response = httpClient.send(request, HttpResponse.BodyHandlers.ofFile(file));
+            if (response.statusCode() != 200) {
+                throw new IOException("Failed to download file from Cloudinary: HTTP " + response.statusCode());
+            }
+            if (Files.size(file) == 0) {
+                throw new IOException("File bytes are empty");
+            }
+            return file;
+        } catch (InterruptedException e) {
+            EmbeddingService.deleteTempFile(file);
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            EmbeddingService.deleteTempFile(file);
+            throw e;
+        }
+    }
+
+    private void onDocumentIndexed(Document indexed, int totalChunks, Map<String, Object> metadata) {
+        Document document = documentRepository.findById(indexed.getId())
+                .orElseThrow(() -> new RuntimeException("Document not found"));
+        try {
+            document.setMetadata(objectMapper.writeValueAsString(metadata));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to update document metadata", e);
+        }
+        document.setTotalChunks(totalChunks);
+        documentRepository.save(document);
+    }
+
+    private IngestionJobResponse toResponse(Job job) {
+        IngestionPipeline pipeline = job.pipeline;
+        return IngestionJobResponse.builder()
+                .jobId(job.id)
+                .status(job.status)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .totalDocuments(pipeline.getTotalDocuments())
+                .completedDocuments(pipeline.getCompletedDocuments())
+                .failedDocuments(pipeline.getFailedDocuments())
+                .unchangedDocuments(pipeline.getUnchangedDocuments())
+                .embeddedChunks(pipeline.getEmbeddedChunks())
+                .storedChunks(pipeline.getStoredChunks())
+                .queueDepths(pipeline.getQueueDepths())
+                .errors(pipeline.getErrors())
+                .build();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final IngestionPipeline pipeline;
+        private final LocalDateTime startedAt;
+        private volatile IngestionJobStatus status = IngestionJobStatus.RUNNING;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(String id, IngestionPipeline pipeline, LocalDateTime startedAt) {
+            this.id = id;
+            this.pipeline = pipeline;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.config.ChatbotFactIndex;
+import com.aurora.backend.service.RagService;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * RagService có {@link ChatbotFactIndex} phía trước: câu hỏi về giá/loại phòng, chi nhánh, khuyến mãi,
+ * giờ nhận/trả phòng được trả lời thẳng từ dữ liệu hệ thống (không retrieval, không Gemini).
+ * Câu hỏi còn lại chuyển cho delegate. Câu trả lời từ dữ liệu không ghi vào chat memory hay cache ngữ nghĩa.
+ */
+@RequiredArgsConstructor
+public class FactAnsweringRagService implements RagService {
+
+    private final RagService delegate;
+    private final ChatbotFactIndex factIndex;
+
+    @Override
+    public String chat(String userMessage) {
+        return factIndex.answer(userMessage).orElseGet(() -> delegate.chat(userMessage));
+    }
+
+    @Override
+    public String chat(String chatId, String userMessage) {
+        return factIndex.answer(userMessage).orElseGet(() -> delegate.chat(chatId, userMessage));
+    }
+
+    @Override
+    public Flux<String> stream(String chatId, String userMessage) {
+        // Tra cứu trong bộ nhớ, không blocking - chạy ngay trên thread đăng ký
+        return Mono.fromCallable(() -> factIndex.answer(userMessage))
+                .flatMapMany(answer -> answer
+                        .map(text -> Flux.fromIterable(CachingRagService.replayChunks(text)))
+                        .orElseGet(() -> delegate.stream(chatId, userMessage)));
+    }
+}
@@ -0,0 +1,356 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.entity.Document;
+import com.aurora.backend.service.EmbeddingService;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline index tài liệu nhiều giai đoạn: download -> parse/split -> embed -> store.
+ * <p>
+ * File được tải về file tạm; giai đoạn parse đọc file theo luồng và đẩy từng lô chunk sang embed ngay khi
+ * tách xong, không giữ nội dung file hay toàn bộ chunk của tài liệu trong bộ nhớ.
+ * Giữa các giai đoạn là hàng đợi có giới hạn nên giai đoạn nhanh bị chặn lại (backpressure) thay vì
+ * dồn file/chunk vào bộ nhớ. Mỗi giai đoạn chạy số worker riêng trên virtual thread.
+ * Embedding gửi theo lô {@link EmbeddingService#getEmbedBatchSize()} có retry; embedding cũ của một
+ * tài liệu chỉ bị xóa ngay trước lô đầu tiên được lưu, tài liệu lỗi giữa chừng không để lại chunk dở dang.
+ * Tài liệu có chunk không đổi (so theo contentHash) được bỏ qua, chunk trùng nội dung lấy vector từ EmbeddingCache.
+ * <p>
+ * Không phụ thuộc Spring: dựng với EmbeddingService (có thể dùng EmbeddingModel/EmbeddingStore giả)
+ * và {@link Fetcher} tải nội dung file ra file tạm (pipeline xóa file sau khi parse).
+ */
+@Slf4j
+public class IngestionPipeline {
+
+    private static final Object END = new Object();
+    private static final int MAX_ERRORS = 50;
+
+    @FunctionalInterface
+    public interface Fetcher {
+        Path fetch(Document document) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface CompletionListener {
+        void onCompleted(Document document, int totalChunks, Map<String, Object> metadata);
+    }
+
+    public record Settings(int downloadWorkers, int parseWorkers, int embedWorkers, int storeWorkers,
+                           int queueCapacity) {
+    }
+
+    private final EmbeddingService embeddingService;
+    private final Fetcher fetcher;
+    private final CompletionListener listener;
+    private final Settings settings;
+
+    private final BlockingQueue<Object> parseQueue;
+    private final BlockingQueue<Object> embedQueue;
+    private final BlockingQueue<Object> storeQueue;
+
+    private final AtomicInteger totalDocuments = new AtomicInteger();
+    private final AtomicInteger completedDocuments = new AtomicInteger();
+    private final AtomicInteger failedDocuments = new AtomicInteger();
+    private final AtomicInteger unchangedDocuments = new AtomicInteger();
+    private final AtomicInteger embeddedChunks = new AtomicInteger();
+    private final AtomicInteger storedChunks = new AtomicInteger();
+    private final ConcurrentLinkedDeque<String> errors = new ConcurrentLinkedDeque<>();
+
+    public IngestionPipeline(EmbeddingService embeddingService, Fetcher fetcher,
+                             CompletionListener listener, Settings settings) {
+        this.embeddingService = embeddingService;
+        this.fetcher = fetcher;
+        this.listener = listener;
+        this.settings = settings;
+        int capacity = Math.max(settings.queueCapacity(), 1);
+        this.parseQueue = new ArrayBlockingQueue<>(capacity);
+        this.embedQueue = new ArrayBlockingQueue<>(capacity);
+        this.storeQueue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Chạy pipeline cho danh sách tài liệu, block tới khi mọi giai đoạn kết thúc
+     */
+    public void run(List<Document> documents) throws InterruptedException {
+        totalDocuments.set(documents.size());
+
+        BlockingQueue<Object> downloadQueue = new ArrayBlockingQueue<>(documents.size() + workers(settings.downloadWorkers()));
+        downloadQueue.addAll(documents);
+
+        List<Thread> threads = new ArrayList<>();
+        threads.addAll(startStage("download", settings.downloadWorkers(), downloadQueue,
+                parseQueue, settings.parseWorkers(), this::download));
+        threads.addAll(startStage("parse", settings.parseWorkers(), parseQueue,
+                embedQueue, settings.embedWorkers(), this::parse));
+        threads.addAll(startStage("embed", settings.embedWorkers(), embedQueue,
+                storeQueue, settings.storeWorkers(), this::embed));
+        threads.addAll(startStage("store", settings.storeWorkers(), storeQueue,
+                null, 0, this::store));
+
+        for (int i = 0; i < workers(settings.downloadWorkers()); i++) {
+            downloadQueue.add(END);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Mỗi worker lấy item tới khi gặp END; worker cuối cùng của giai đoạn gửi END cho giai đoạn sau
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<Thread> startStage(String name, int workerCount, BlockingQueue<Object> input,
+                                        BlockingQueue<Object> output, int outputWorkers, Consumer<T> handler) {
+        int count = workers(workerCount);
+        AtomicInteger alive = new AtomicInteger(count);
+        List<Thread> threads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            threads.add(Thread.ofVirtual().name("ingest-" + name + "-" + i).start(() -> {
+                try {
+                    for (Object item = input.take(); item != END; item = input.take()) {
+                        handler.accept((T) item);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (alive.decrementAndGet() == 0 && output != null) {
+                        for (int j = 0; j < workers(outputWorkers); j++) {
+                            putQuietly(output, END);
+                        }
+                    }
+                }
+            }));
+        }
+        return threads;
+    }
+
+    private void download(Document document) {
+        try {
+            putQuietly(parseQueue, new Downloaded(document, fetcher.fetch(document)));
+        } catch (Exception e) {
+            recordFailure(document, "download", e);
+        }
+    }
+
+    private void parse(Downloaded downloaded) {
+        Document document = downloaded.document();
+        try {
+            Optional<EmbeddingService.EmbeddingResult> unchanged = Optional.empty();
+            try {
+                unchanged = embeddingService.findUnchanged(document, downloaded.file());
+            } catch (Exception e) {
+                // Không so sánh được thì index lại toàn bộ (chunk không đổi vẫn lấy từ EmbeddingCache)
+                log.warn("Cannot compare stored chunks of {}: {}", document.getFilename(), e.getMessage());
+            }
+            if (unchanged.isPresent()) {
+                DocumentState state = new DocumentState(document, 0);
+                state.setResult(unchanged.get());
+                try {
+                    complete(state);
+                    unchangedDocuments.incrementAndGet();
+                } catch (Exception e) {
+                    fail(state, "complete", e);
+                }
+                return;
+            }
+
+            // Giữ một lượt của giai đoạn parse để tài liệu không hoàn tất trước khi parse xong
+            DocumentState state = new DocumentState(document, 1);
+            try {
+                state.setResult(embeddingService.streamSegments(document, downloaded.file(), batch -> {
+                    if (state.failed.get()) {
+                        throw new IllegalStateException("Document failed at a later stage");
+                    }
+                    state.remainingBatches.incrementAndGet();
+                    putQuietly(embedQueue, new Batch(state, batch, null));
+                }));
+                if (state.totalChunks == 0) {
+                    log.warn("Document has no content to index: {}", document.getFilename());
+                }
+            } catch (Exception e) {
+                fail(state, "parse", e);
+            }
+            finishBatch(state);
+        } finally {
+            EmbeddingService.deleteTempFile(downloaded.file());
+        }
+    }
+
+    private void embed(Batch batch) {
+        DocumentState state = batch.state();
+        if (state.failed.get()) {
+            finishBatch(state);
+            return;
+        }
+        try {
+            List<Embedding> embeddings = embeddingService.embedBatch(batch.segments());
+            embeddedChunks.addAndGet(embeddings.size());
+            putQuietly(storeQueue, new Batch(state, batch.segments(), embeddings));
+        } catch (Exception e) {
+            fail(state, "embed", e);
+            finishBatch(state);
+        }
+    }
+
+    private void store(Batch batch) {
+        DocumentState state = batch.state();
+        try {
+            if (!state.failed.get()) {
+                state.clearOldEmbeddings();
+                embeddingService.storeEmbeddings(batch.embeddings(), batch.segments());
+                storedChunks.addAndGet(batch.segments().size());
+            }
+        } catch (Exception e) {
+            fail(state, "store", e);
+        }
+        finishBatch(state);
+    }
+
+    private void finishBatch(DocumentState state) {
+        if (state.remainingBatches.decrementAndGet() > 0) {
+            return;
+        }
+        if (!state.failed.get()) {
+            try {
+                // Tài liệu rỗng không có lô nào được lưu - vẫn xóa embedding cũ
+                state.clearOldEmbeddings();
+                complete(state);
+                return;
+            } catch (Exception e) {
+                fail(state, "complete", e);
+            }
+        }
+        // Xóa chunk đã lưu của tài liệu lỗi để không trả về nội dung thiếu
+        if (state.isCleared()) {
+            try {
+                embeddingService.deleteFileEmbeddings(state.document.getId());
+            } catch (Exception e) {
+                log.warn("Failed to remove partial embeddings of {}: {}", state.document.getFilename(), e.getMessage());
+            }
+        }
+    }
+
+    private void complete(DocumentState state) {
+        listener.onCompleted(state.document, state.totalChunks, state.metadata);
+        completedDocuments.incrementAndGet();
+        log.info("Successfully reindexed file: {} ({} chunks)", state.document.getFilename(), state.totalChunks);
+    }
+
+    private void fail(DocumentState state, String stage, Exception e) {
+        if (state.failed.compareAndSet(false, true)) {
+            recordFailure(state.document, stage, e);
+        }
+    }
+
+    private void recordFailure(Document document, String stage, Exception e) {
+        failedDocuments.incrementAndGet();
+        log.error("Failed to reindex file {} at {} stage: {}", document.getFilename(), stage, e.getMessage());
+        errors.addLast(document.getFilename() + " [" + stage + "]: " + e.getMessage());
+        while (errors.size() > MAX_ERRORS) {
+            errors.pollFirst();
+        }
+    }
+
+    private static void putQuietly(BlockingQueue<Object> queue, Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ingestion pipeline interrupted", e);
+        }
+    }
+
+    private static int workers(int configured) {
+        return Math.max(configured, 1);
+    }
+
+    public int getTotalDocuments() {
+        return totalDocuments.get();
+    }
+
+    public int getCompletedDocuments() {
+        return completedDocuments.get();
+    }
+
+    public int getFailedDocuments() {
+        return failedDocuments.get();
+    }
+
+    public int getUnchangedDocuments() {
+        return unchangedDocuments.get();
+    }
+
+    public int getEmbeddedChunks() {
+        return embeddedChunks.get();
+    }
+
+    public int getStoredChunks() {
+        return storedChunks.get();
+    }
+
+    public List<String> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        depths.put("parse", parseQueue.size());
+        depths.put("embed", embedQueue.size());
+        depths.put("store", storeQueue.size());
+        return depths;
+    }
+
+    private record Downloaded(Document document, Path file) {
+    }
+
+    private record Batch(DocumentState state, List<TextSegment> segments, List<Embedding> embeddings) {
+    }
+
+    private final class DocumentState {
+        private final Document document;
+        private final AtomicInteger remainingBatches;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private volatile int totalChunks;
+        private volatile Map<String, Object> metadata;
+        private boolean cleared;
+
+        private DocumentState(Document document, int pendingBatches) {
+            this.document = document;
+            this.remainingBatches = new AtomicInteger(pendingBatches);
+        }
+
+        private void setResult(EmbeddingService.EmbeddingResult result) {
+            this.totalChunks = result.getTotalChunks();
+            this.metadata = result.getMetadata();
+        }
+
+        /**
+         * Xóa embedding cũ đúng một lần, trước lô đầu tiên được lưu
+         */
+        private synchronized void clearOldEmbeddings() {
+            if (!cleared) {
+                embeddingService.deleteFileEmbeddings(document.getId());
+                cleared = true;
+            }
+        }
+
+        private synchronized boolean isCleared() {
+            return cleared;
+        }
+    }
+}
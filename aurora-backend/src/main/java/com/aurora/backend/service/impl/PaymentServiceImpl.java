@@ -7,6 +7,7 @@ import com.aurora.backend.entity.Booking;
 import com.aurora.backend.entity.Payment;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.PaymentSucceededEvent;
 import com.aurora.backend.mapper.PaymentMapper;
 import com.aurora.backend.repository.BookingRepository;
 import com.aurora.backend.repository.PaymentRepository;
@@ -17,6 +18,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
@@ -34,6 +36,7 @@ public class PaymentServiceImpl implements PaymentService {
     PaymentRepository paymentRepository;
     BookingRepository bookingRepository;
     PaymentMapper paymentMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -56,6 +59,7 @@ public class PaymentServiceImpl implements PaymentService {
         
         if (savedPayment.getStatus() == Payment.PaymentStatus.SUCCESS) {
             updateBookingPaymentStatus(booking);
+            publishPaymentSucceeded(savedPayment);
         }
         
         log.info("Payment created successfully with ID: {}", savedPayment.getId());
@@ -87,6 +91,11 @@ public class PaymentServiceImpl implements PaymentService {
             paymentAmount, totalPaid, remaining);
     }
 
+    private void publishPaymentSucceeded(Payment payment) {
+        eventPublisher.publishEvent(new PaymentSucceededEvent(
+                payment.getId(), payment.getBooking().getBranch().getId(), payment.getAmount()));
+    }
+
     private void updateBookingPaymentStatus(Booking booking) {
         BigDecimal totalPaid = paymentRepository.getTotalPaidAmount(booking.getId());
         BigDecimal totalPrice = booking.getTotalPrice();
@@ -116,10 +125,15 @@ public class PaymentServiceImpl implements PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.PAYMENT_NOT_EXISTED));
         
+        Payment.PaymentStatus previousStatus = payment.getStatus();
         paymentMapper.updatePayment(payment, request);
         
         Payment updatedPayment = paymentRepository.save(payment);
         log.info("Payment updated successfully with ID: {}", updatedPayment.getId());
+        if (previousStatus != Payment.PaymentStatus.SUCCESS
+                && updatedPayment.getStatus() == Payment.PaymentStatus.SUCCESS) {
+            publishPaymentSucceeded(updatedPayment);
+        }
         
         return paymentMapper.toPaymentResponse(updatedPayment);
     }
@@ -6,6 +6,7 @@ import com.aurora.backend.dto.response.PermissionResponse;
 import com.aurora.backend.entity.Permission;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.AuthorityGrantsChangedEvent;
 import com.aurora.backend.mapper.PermissionMapper;
 import com.aurora.backend.repository.PermissionRepository;
 import com.aurora.backend.service.PermissionService;
@@ -13,6 +14,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
@@ -27,6 +29,7 @@ public class PermissionServiceImpl implements PermissionService {
     
     PermissionRepository permissionRepository;
     PermissionMapper permissionMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -56,6 +59,7 @@ public class PermissionServiceImpl implements PermissionService {
         permissionMapper.updatePermission(permission, request);
         Permission updatedPermission = permissionRepository.save(permission);
         log.info("Permission updated successfully with ID: {}", updatedPermission.getId());
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
         
         return permissionMapper.toPermissionResponse(updatedPermission);
     }
@@ -70,6 +74,7 @@ public class PermissionServiceImpl implements PermissionService {
         
         permissionRepository.delete(permission);
         log.info("Permission deleted successfully with ID: {}", id);
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
     }
 
     @Override
@@ -7,6 +7,7 @@ import com.aurora.backend.entity.Branch;
 import com.aurora.backend.entity.Promotion;
 import com.aurora.backend.entity.RoomType;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.CatalogChangedEvent;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.mapper.PromotionMapper;
 import com.aurora.backend.repository.BranchRepository;
@@ -17,6 +18,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
@@ -38,6 +40,7 @@ public class PromotionServiceImpl implements PromotionService {
     PromotionMapper promotionMapper;
     BranchRepository branchRepository;
     RoomTypeRepository roomTypeRepository;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -94,6 +97,7 @@ public class PromotionServiceImpl implements PromotionService {
         
         Promotion savedPromotion = promotionRepository.save(promotion);
         log.info("Promotion created successfully with ID: {}", savedPromotion.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent("Promotion", savedPromotion.getId()));
         
         return promotionMapper.toPromotionResponse(savedPromotion);
     }
@@ -140,6 +144,7 @@ public class PromotionServiceImpl implements PromotionService {
         promotionMapper.updatePromotion(promotion, request);
         Promotion updatedPromotion = promotionRepository.save(promotion);
         log.info("Promotion updated successfully with ID: {}", updatedPromotion.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent("Promotion", updatedPromotion.getId()));
         
         return promotionMapper.toPromotionResponse(updatedPromotion);
     }
@@ -151,6 +156,7 @@ public class PromotionServiceImpl implements PromotionService {
         }
         
         promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("Promotion", id));
     }
 
     @Override
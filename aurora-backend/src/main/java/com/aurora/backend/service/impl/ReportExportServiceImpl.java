@@ -0,0 +1,225 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.enums.ExportFormat;
+import com.aurora.backend.exception.AppException;
+import com.aurora.backend.repository.BranchRepository;
+import com.aurora.backend.service.ReportExportService;
+import com.aurora.backend.util.ReportRowWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export báo cáo bằng JDBC cursor (forward-only, fetch size cố định) thay vì phân trang qua entity/DTO.
+ * <p>
+ * PostgreSQL chỉ dùng server-side cursor khi autocommit tắt, vì vậy mỗi export chạy trong một
+ * transaction read-only riêng trên thread ghi response. Mỗi dòng được ghi ngay ra output stream:
+ * khi client đọc chậm thì write() block (backpressure tự nhiên qua TCP), khi client ngắt kết nối
+ * thì write() ném IOException và cursor bị đóng ngay.
+ */
+@Slf4j
+@Service
+public class ReportExportServiceImpl implements ReportExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private static final String[] BOOKING_COLUMNS = {
+            "Booking Code", "Branch Code", "Branch Name", "Customer Username", "Customer Name",
+            "Email", "Phone", "Check-in", "Check-out", "Status", "Payment Status",
+            "Subtotal", "Discount", "Total", "Created At", "Created By"
+    };
+
+    private static final String BOOKING_SQL = """
+            SELECT b.booking_code, br.code, br.name, u.username,
+                   COALESCE(NULLIF(TRIM(CONCAT(u.first_name, ' ', u.last_name)), ''), b.guest_full_name),
+                   COALESCE(u.email, b.guest_email), COALESCE(u.phone, b.guest_phone),
+                   b.checkin, b.checkout, b.status, b.payment_status,
+                   b.subtotal_price, b.discount_amount, b.total_price, b.created_at, b.created_by
+            FROM bookings b
+            JOIN branches br ON br.id = b.branch_id
+            LEFT JOIN users u ON u.id = b.customer_id
+            WHERE b.deleted = false AND b.checkin <= ? AND b.checkout >= ?
+            """;
+
+    private static final String[] PAYMENT_COLUMNS = {
+            "Booking Code", "Branch Code", "Method", "Status", "Amount", "Currency",
+            "Provider Txn ID", "VNPay Txn Ref", "Paid At", "Refund Amount", "Refunded At",
+            "Processed By", "Created At"
+    };
+
+    private static final String PAYMENT_SQL = """
+            SELECT b.booking_code, br.code, p.method, p.status, p.amount, p.currency,
+                   p.provider_txn_id, p.vnpay_txn_ref, p.paid_at, p.refund_amount, p.refunded_at,
+                   p.processed_by, p.created_at
+            FROM payments p
+            JOIN bookings b ON b.id = p.booking_id
+            JOIN branches br ON br.id = b.branch_id
+            WHERE p.deleted = false AND p.created_at >= ? AND p.created_at < ?
+            """;
+
+    private static final String[] REVENUE_COLUMNS = {
+            "Date", "Branch Code", "Branch Name", "Method", "Payments", "Revenue", "Refunded"
+    };
+
+    // Doanh thu tính theo ngày thanh toán (paidAt) giống DashboardService
+    private static final String REVENUE_SQL = """
+            SELECT CAST(p.paid_at AS DATE), br.code, br.name, p.method,
+                   COUNT(*), SUM(p.amount), COALESCE(SUM(p.refund_amount), 0)
+            FROM payments p
+            JOIN bookings b ON b.id = p.booking_id
+            JOIN branches br ON br.id = b.branch_id
+            WHERE p.deleted = false AND p.status = 'SUCCESS'
+              AND p.paid_at >= ? AND p.paid_at < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BranchRepository branchRepository;
+
+    public ReportExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   BranchRepository branchRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.branchRepository = branchRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public StreamingResponseBody exportBookings(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId) {
+        DateRange range = normalizeRange(dateFrom, dateTo);
+        String normalizedBranchId = normalizeBranchId(branchId);
+
+        StringBuilder sql = new StringBuilder(BOOKING_SQL);
+        List<Object> params = new ArrayList<>(List.of(range.end(), range.start()));
+        appendBranchFilter(sql, params, normalizedBranchId);
+        sql.append(" ORDER BY b.checkin, b.booking_code");
+
+        return out -> stream(format, "Bookings", BOOKING_COLUMNS, sql.toString(), params, out);
+    }
+
+    @Override
+    public StreamingResponseBody exportPayments(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId) {
+        DateRange range = normalizeRange(dateFrom, dateTo);
+        String normalizedBranchId = normalizeBranchId(branchId);
+
+        StringBuilder sql = new StringBuilder(PAYMENT_SQL);
+        List<Object> params = new ArrayList<>(List.of(range.startTimestamp(), range.endExclusiveTimestamp()));
+        appendBranchFilter(sql, params, normalizedBranchId);
+        sql.append(" ORDER BY p.created_at");
+
+        return out -> stream(format, "Payments", PAYMENT_COLUMNS, sql.toString(), params, out);
+    }
+
+    @Override
+    public StreamingResponseBody exportRevenue(ExportFormat format, LocalDate dateFrom, LocalDate dateTo, String branchId) {
+        DateRange range = normalizeRange(dateFrom, dateTo);
+        String normalizedBranchId = normalizeBranchId(branchId);
+
+        StringBuilder sql = new StringBuilder(REVENUE_SQL);
+        List<Object> params = new ArrayList<>(List.of(range.startTimestamp(), range.endExclusiveTimestamp()));
+        appendBranchFilter(sql, params, normalizedBranchId);
+        sql.append(" GROUP BY CAST(p.paid_at AS DATE), br.code, br.name, p.method")
+                .append(" ORDER BY CAST(p.paid_at AS DATE), br.code, p.method");
+
+        return out -> stream(format, "Revenue", REVENUE_COLUMNS, sql.toString(), params, out);
+    }
+
+    private void stream(ExportFormat format,
+                        String sheetName,
+                        String[] columns,
+                        String sql,
+                        List<Object> params,
+                        OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long[] rowCount = {0};
+
+        try (ReportRowWriter writer = ReportRowWriter.of(format, out, sheetName)) {
+            try {
+                writer.writeHeader(columns);
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                }, (RowCallbackHandler) rs -> {
+                    Object[] values = new Object[columns.length];
+                    for (int i = 0; i < columns.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    try {
+                        writer.writeRow(values);
+                    } catch (IOException e) {
+                        // Client ngắt kết nối - dừng đọc cursor ngay
+                        throw new UncheckedIOException(e);
+                    }
+                    rowCount[0]++;
+                }));
+            } catch (RuntimeException | IOException e) {
+                // XLSX: không ghi workbook dở dang vào stream đã hỏng
+                writer.abort();
+                throw e;
+            }
+        } catch (UncheckedIOException e) {
+            log.info("{} export aborted by client after {} rows: {}", sheetName, rowCount[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.info("{} export ({}) completed: {} rows in {} ms",
+                sheetName, format, rowCount[0], System.currentTimeMillis() - startedAt);
+    }
+
+    private void appendBranchFilter(StringBuilder sql, List<Object> params, String branchId) {
+        if (branchId != null) {
+            sql.append(" AND b.branch_id = ?");
+            params.add(branchId);
+        }
+    }
+
+    private DateRange normalizeRange(LocalDate dateFrom, LocalDate dateTo) {
+        LocalDate end = dateTo != null ? dateTo : LocalDate.now();
+        LocalDate start = dateFrom != null ? dateFrom : end.minusDays(DEFAULT_RANGE_DAYS - 1L);
+        if (start.isAfter(end)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+        }
+        return new DateRange(start, end);
+    }
+
+    private String normalizeBranchId(String branchId) {
+        if (branchId == null || branchId.isBlank()) {
+            return null;
+        }
+        if (!branchRepository.existsById(branchId)) {
+            throw new AppException(ErrorCode.BRANCH_NOT_EXISTED);
+        }
+        return branchId;
+    }
+
+    private record DateRange(LocalDate start, LocalDate end) {
+        Timestamp startTimestamp() {
+            return Timestamp.valueOf(start.atStartOfDay());
+        }
+
+        Timestamp endExclusiveTimestamp() {
+            return Timestamp.valueOf(end.plusDays(1).atStartOfDay());
+        }
+    }
+}
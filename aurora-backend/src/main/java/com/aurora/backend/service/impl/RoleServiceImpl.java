@@ -7,6 +7,7 @@ import com.aurora.backend.entity.Permission;
 import com.aurora.backend.entity.Role;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.AuthorityGrantsChangedEvent;
 import com.aurora.backend.mapper.RoleMapper;
 import com.aurora.backend.repository.PermissionRepository;
 import com.aurora.backend.repository.RoleRepository;
@@ -15,6 +16,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +41,7 @@ public class RoleServiceImpl implements RoleService {
     RoleRepository roleRepository;
     PermissionRepository permissionRepository;
     RoleMapper roleMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -68,6 +71,7 @@ public class RoleServiceImpl implements RoleService {
         roleMapper.updateRole(role, request);
         Role updatedRole = roleRepository.save(role);
         log.info("Role updated successfully with ID: {}", updatedRole.getId());
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
         
         return roleMapper.toRoleResponse(updatedRole);
     }
@@ -82,6 +86,7 @@ public class RoleServiceImpl implements RoleService {
         
         roleRepository.delete(role);
         log.info("Role deleted successfully with ID: {}", id);
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
     }
 
     @Override
@@ -162,6 +167,7 @@ public class RoleServiceImpl implements RoleService {
         
         role.getPermissions().add(permission);
         Role updatedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
         
         return roleMapper.toRoleResponse(updatedRole);
     }
@@ -179,6 +185,7 @@ public class RoleServiceImpl implements RoleService {
         
         role.getPermissions().remove(permission);
         Role updatedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(AuthorityGrantsChangedEvent.allUsers());
         
         return roleMapper.toRoleResponse(updatedRole);
     }
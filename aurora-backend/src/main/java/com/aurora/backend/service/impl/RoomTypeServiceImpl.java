@@ -8,6 +8,7 @@ import com.aurora.backend.entity.Branch;
 import com.aurora.backend.entity.RoomCategory;
 import com.aurora.backend.entity.RoomType;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.CatalogChangedEvent;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.mapper.RoomTypeMapper;
 import com.aurora.backend.repository.AmenityRepository;
@@ -19,6 +20,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -40,6 +42,7 @@ public class RoomTypeServiceImpl implements RoomTypeService {
     RoomCategoryRepository roomCategoryRepository;
     AmenityRepository amenityRepository;
     RoomTypeMapper roomTypeMapper;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -73,6 +76,7 @@ public class RoomTypeServiceImpl implements RoomTypeService {
 
         RoomType savedRoomType = roomTypeRepository.save(roomType);
         log.info("Room type created successfully with ID: {}", savedRoomType.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent("RoomType", savedRoomType.getId()));
 
         return roomTypeMapper.toRoomTypeResponse(savedRoomType);
     }
@@ -150,6 +154,7 @@ public class RoomTypeServiceImpl implements RoomTypeService {
         RoomType updatedRoomType = roomTypeRepository.save(roomType);
 
         log.info("Room type updated successfully with ID: {}", updatedRoomType.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent("RoomType", updatedRoomType.getId()));
         return roomTypeMapper.toRoomTypeResponse(updatedRoomType);
     }
 
@@ -163,6 +168,7 @@ public class RoomTypeServiceImpl implements RoomTypeService {
 
         roomTypeRepository.deleteById(id);
         log.info("Room type deleted successfully with ID: {}", id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("RoomType", id));
     }
 
     @Override
@@ -0,0 +1,164 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.entity.InvalidatedToken;
+import com.aurora.backend.repository.InvalidatedTokenRepository;
+import com.aurora.backend.service.TokenRevocationService;
+import com.aurora.backend.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Thu hồi access token theo JTI.
+ * <p>
+ * - Bảng InvalidatedToken là bản ghi bền vững, dùng để build lại Bloom filter khi khởi động.
+ * - Redis giữ key auth::revoked_jti:{jti} với TTL bằng thời gian sống còn lại của token (nguồn xác nhận).
+ * - Mỗi instance giữ một Bloom filter trong bộ nhớ, đồng bộ qua Redis pub/sub. Đường "chưa bị thu hồi"
+ *   (gần như mọi request) chỉ là một lần probe filter, không khóa, không I/O.
+ * - Định kỳ xóa các dòng đã hết hạn và build filter mới để filter không đầy dần.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final String REVOKED_KEY_PREFIX = "auth::revoked_jti:";
+    private static final String REVOCATION_CHANNEL = "auth::revocations";
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    // null cho tới khi build xong: lúc đó mọi JTI đều được kiểm tra trên Redis
+    private volatile BloomFilter filter;
+    // JTI thu hồi trong lúc đang rebuild, được thêm lại vào filter mới trước khi swap
+    private Set<String> pendingDuringRebuild;
+    private final Object filterLock = new Object();
+
+    public TokenRevocationServiceImpl(InvalidatedTokenRepository invalidatedTokenRepository,
+                                      StringRedisTemplate stringRedisTemplate,
+                                      RedisMessageListenerContainer listenerContainer,
+                                      @Value("${security.revocation.expected-insertions:100000}") int expectedInsertions,
+                                      @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Subscribe trước khi đọc DB để không lỡ JTI nào bị thu hồi trong lúc build
+        listenerContainer.addMessageListener(this::onRevocationMessage, new ChannelTopic(REVOCATION_CHANNEL));
+        rebuildFilter();
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (jti == null || remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+
+        invalidatedTokenRepository.save(InvalidatedToken.builder()
+                .id(jti)
+                .expiryTime(Date.from(expiresAt))
+                .build());
+        markRevoked(jti);
+
+        try {
+            stringRedisTemplate.opsForValue().set(REVOKED_KEY_PREFIX + jti, "1", remaining);
+            stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, jti);
+        } catch (DataAccessException e) {
+            // Instance khác sẽ thấy JTI khi rebuild filter từ DB
+            log.warn("Cannot publish revoked token {} to Redis: {}", jti, e.getMessage());
+        }
+        log.info("Access token revoked: jti={}, expiresAt={}", jti, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(REVOKED_KEY_PREFIX + jti));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for revocation check, falling back to database: {}", e.getMessage());
+            return invalidatedTokenRepository.existsById(jti);
+        }
+    }
+
+    /**
+     * Xóa JTI đã hết hạn và build lại filter (Bloom filter không xóa được phần tử)
+     */
+    @Scheduled(initialDelayString = "${security.revocation.prune-interval-ms:3600000}",
+            fixedDelayString = "${security.revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = invalidatedTokenRepository.deleteExpiredTokens(new Date());
+        log.info("Pruned {} expired revoked tokens", deleted);
+        rebuildFilter();
+    }
+
+    private void rebuildFilter() {
+        synchronized (filterLock) {
+            pendingDuringRebuild = new HashSet<>();
+        }
+        try {
+            List<String> activeIds = invalidatedTokenRepository.findActiveIds(new Date());
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, activeIds.size() * 2), falsePositiveRate);
+            activeIds.forEach(rebuilt::put);
+
+            synchronized (filterLock) {
+                pendingDuringRebuild.forEach(rebuilt::put);
+                filter = rebuilt;
+            }
+            log.info("Revocation filter rebuilt with {} active tokens", activeIds.size());
+        } catch (DataAccessException e) {
+            // Giữ filter cũ (hoặc null -> kiểm tra Redis) cho tới lần rebuild sau
+            log.error("Cannot rebuild revocation filter: {}", e.getMessage());
+        } finally {
+            synchronized (filterLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    private void onRevocationMessage(Message message, byte[] pattern) {
+        markRevoked(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void markRevoked(String jti) {
+        synchronized (filterLock) {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(jti);
+            }
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(jti);
+            }
+        }
+    }
+}
@@ -15,12 +15,14 @@ import com.aurora.backend.dto.response.UserResponse;
 import com.aurora.backend.entity.Role;
 import com.aurora.backend.entity.User;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.AuthorityGrantsChangedEvent;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.mapper.UserMapper;
 import com.aurora.backend.repository.RoleRepository;
 import com.aurora.backend.repository.UserRepository;
 import com.aurora.backend.service.CloudinaryService;
 import com.aurora.backend.service.UserService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -44,6 +46,7 @@ public class UserServiceImpl implements UserService {
     UserMapper userMapper;
     PasswordEncoder passwordEncoder;
     CloudinaryService cloudinaryService;
+    ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserResponse registerUser(UserRegistrationRequest request) {
@@ -173,6 +176,7 @@ public class UserServiceImpl implements UserService {
             }
             user.setRoles(roles);
             log.info("Updated roles for user {}: {}", id, request.getRoles());
+            eventPublisher.publishEvent(new AuthorityGrantsChangedEvent(user.getUsername()));
         }
         
         User updatedUser = userRepository.save(user);
@@ -303,6 +307,7 @@ public class UserServiceImpl implements UserService {
         User savedUser = userRepository.save(user);
         
         log.info("Successfully assigned role {} to user {}", roleId, userId);
+        eventPublisher.publishEvent(new AuthorityGrantsChangedEvent(savedUser.getUsername()));
         return userMapper.toUserResponse(savedUser);
     }
 
@@ -326,6 +331,7 @@ public class UserServiceImpl implements UserService {
         User savedUser = userRepository.save(user);
         
         log.info("Successfully removed role {} from user {}", roleId, userId);
+        eventPublisher.publishEvent(new AuthorityGrantsChangedEvent(savedUser.getUsername()));
         return userMapper.toUserResponse(savedUser);
     }
 
@@ -362,6 +368,7 @@ public class UserServiceImpl implements UserService {
         User savedUser = userRepository.save(user);
         
         log.info("Successfully updated permissions for user {}", userId);
+        eventPublisher.publishEvent(new AuthorityGrantsChangedEvent(savedUser.getUsername()));
         return userMapper.toUserResponse(savedUser);
     }
     @Override
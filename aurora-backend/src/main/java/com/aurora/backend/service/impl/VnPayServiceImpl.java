@@ -5,6 +5,8 @@ import com.aurora.backend.dto.response.VnPayPaymentResponse;
 import com.aurora.backend.entity.Booking;
 import com.aurora.backend.entity.Payment;
 import com.aurora.backend.enums.ErrorCode;
+import com.aurora.backend.event.BookingStatusChangedEvent;
+import com.aurora.backend.event.PaymentSucceededEvent;
 import com.aurora.backend.exception.AppException;
 import com.aurora.backend.repository.BookingRepository;
 import com.aurora.backend.repository.PaymentRepository;
@@ -16,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,6 +52,7 @@ public class VnPayServiceImpl implements VnPayService {
     final BookingRepository bookingRepository;
     final PaymentRepository paymentRepository;
     final EmailService emailService;
+    final ApplicationEventPublisher eventPublisher;
     
     @Override
     public VnPayPaymentResponse createPaymentUrl(
@@ -227,12 +231,14 @@ public class VnPayServiceImpl implements VnPayService {
             
             // Update booking status to PAID
             Booking booking = payment.getBooking();
+            Booking.BookingStatus previousStatus = booking.getStatus();
             booking.setPaymentStatus(Booking.PaymentStatus.PAID);
             booking.setStatus(Booking.BookingStatus.CONFIRMED);
             booking.setUpdatedAt(LocalDateTime.now());
             
             paymentRepository.save(payment);
             bookingRepository.save(booking);
+            publishPaymentSuccess(payment, booking, previousStatus);
             
             log.info("Payment SUCCESS for booking: {} ({})", 
                 booking.getBookingCode(), booking.getId());
@@ -301,12 +307,14 @@ public class VnPayServiceImpl implements VnPayService {
                 payment.setVnpayCardType(params.get("vnp_CardType"));
                 payment.setProviderResponse(params.toString());
                 
+                Booking.BookingStatus previousStatus = booking.getStatus();
                 booking.setPaymentStatus(Booking.PaymentStatus.PAID);
                 booking.setStatus(Booking.BookingStatus.CONFIRMED);
                 booking.setUpdatedAt(LocalDateTime.now());
                 
                 paymentRepository.save(payment);
                 bookingRepository.save(booking);
+                publishPaymentSuccess(payment, booking, previousStatus);
                 
                 log.info("=== VNPAY RETURN: Payment and booking updated successfully");
                 
@@ -342,6 +350,16 @@ public class VnPayServiceImpl implements VnPayService {
         return result;
     }
     
+    /**
+     * Publish events cho live dashboard (xử lý sau khi transaction commit)
+     */
+    private void publishPaymentSuccess(Payment payment, Booking booking, Booking.BookingStatus previousStatus) {
+        String branchId = booking.getBranch().getId();
+        eventPublisher.publishEvent(new PaymentSucceededEvent(payment.getId(), branchId, payment.getAmount()));
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(
+                booking.getId(), branchId, previousStatus, booking.getStatus()));
+    }
+    
     /**
      * Generate unique transaction reference for VNPay
      * Format: AURORA_YYYYMMDDHHMMSS_BOOKINGCODE
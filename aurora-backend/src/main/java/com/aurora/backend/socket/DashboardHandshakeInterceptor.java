@@ -0,0 +1,83 @@
+package com.aurora.backend.socket;
+
+import com.aurora.backend.config.CustomJwtAuthenticationConverter;
+import com.aurora.backend.config.CustomJwtDecoder;
+import com.aurora.backend.exception.AppException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Xác thực JWT khi handshake /ws/dashboard. Browser không gửi được header Authorization cho WebSocket
+ * nên chấp nhận cả query param ?token=...
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String ATTR_USERNAME = "username";
+    static final String ATTR_PERMISSIONS = "permissions";
+
+    private final CustomJwtDecoder jwtDecoder;
+    private final CustomJwtAuthenticationConverter jwtAuthenticationConverter;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request,
+                                   ServerHttpResponse response,
+                                   WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        String token = resolveToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        try {
+            Jwt jwt = jwtDecoder.decode(token);
+            Set<String> permissions = jwtAuthenticationConverter.convert(jwt).getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toSet());
+            attributes.put(ATTR_USERNAME, jwt.getSubject());
+            attributes.put(ATTR_PERMISSIONS, permissions);
+            return true;
+        } catch (JwtException | AppException e) {
+            // Token sai/hết hạn/bị thu hồi, hoặc user không còn tồn tại khi dựng quyền
+            log.debug("Rejected dashboard WebSocket handshake: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Rejected dashboard WebSocket handshake, cannot resolve authorities: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request,
+                               ServerHttpResponse response,
+                               WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
@@ -0,0 +1,214 @@
+package com.aurora.backend.socket;
+
+import com.aurora.backend.constant.PermissionConstants;
+import com.aurora.backend.entity.Branch;
+import com.aurora.backend.entity.User;
+import com.aurora.backend.repository.BranchRepository;
+import com.aurora.backend.repository.UserRepository;
+import com.aurora.backend.service.DashboardLiveService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kênh /ws/dashboard: client gửi {"type":"subscribe","branchId":"..."} và nhận snapshot KPI,
+ * sau đó chỉ nhận các KPI thay đổi. Các thay đổi được gom lại và đẩy tối đa một frame
+ * mỗi chu kỳ dashboard.live.push-interval-ms cho mỗi chi nhánh.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardWebSocketHandler extends TextWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 64 * 1024;
+
+    private final DashboardLiveService dashboardLiveService;
+    private final UserRepository userRepository;
+    private final BranchRepository branchRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        // Decorator đảm bảo gửi tuần tự giữa thread push và thread xử lý message,
+        // client đọc quá chậm sẽ bị đóng kết nối thay vì giữ buffer vô hạn
+        WebSocketSession safeSession = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES);
+        subscribers.put(session.getId(), new Subscriber(safeSession));
+        send(safeSession, Map.of("type", "connection", "status", "connected"));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Subscriber subscriber = subscribers.get(session.getId());
+        if (subscriber == null) {
+            return;
+        }
+        Map<?, ?> request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), Map.class);
+        } catch (IOException e) {
+            sendError(subscriber.session, "Invalid message format");
+            return;
+        }
+        if (!"subscribe".equals(request.get("type"))) {
+            sendError(subscriber.session, "Unsupported message type");
+            return;
+        }
+
+        Object requestedBranch = request.get("branchId");
+        String requestedBranchId = requestedBranch == null || requestedBranch.toString().isBlank()
+                ? null : requestedBranch.toString();
+        if (requestedBranchId != null && !branchRepository.existsById(requestedBranchId)) {
+            sendError(subscriber.session, "Branch not found");
+            return;
+        }
+        String branchId = resolveBranch(session, requestedBranchId);
+        if (branchId == null && !hasPermission(session, PermissionConstants.Admin.DASHBOARD_VIEW_ADMIN)) {
+            sendError(subscriber.session, "Access denied");
+            return;
+        }
+
+        synchronized (subscriber) {
+            if (subscriber.subscribed) {
+                dashboardLiveService.release(subscriber.branchId);
+            }
+            Map<String, Object> snapshot = dashboardLiveService.acquire(branchId);
+            subscriber.branchId = branchId;
+            subscriber.subscribed = true;
+
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "snapshot");
+            frame.put("branchId", branchId);
+            frame.put("kpis", snapshot);
+            send(subscriber.session, frame);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Dashboard WebSocket transport error {}: {}", session.getId(), exception.getMessage());
+        cleanupSession(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        cleanupSession(session);
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.live.push-interval-ms:1000}")
+    public void pushChanges() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, List<Subscriber>> byBranch = new HashMap<>();
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.subscribed) {
+                byBranch.computeIfAbsent(subscriber.branchId, k -> new ArrayList<>()).add(subscriber);
+            }
+        }
+
+        byBranch.forEach((branchId, targets) -> {
+            Map<String, Object> changes = dashboardLiveService.pollChanges(branchId);
+            if (changes.isEmpty()) {
+                return;
+            }
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "delta");
+            frame.put("branchId", branchId);
+            frame.put("kpis", changes);
+            TextMessage message;
+            try {
+                message = new TextMessage(objectMapper.writeValueAsString(frame));
+            } catch (IOException e) {
+                log.error("Failed to serialize dashboard delta: {}", e.getMessage());
+                return;
+            }
+            for (Subscriber target : targets) {
+                try {
+                    if (target.session.isOpen()) {
+                        target.session.sendMessage(message);
+                    }
+                } catch (Exception e) {
+                    log.debug("Failed to push dashboard delta to {}: {}", target.session.getId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Staff chỉ xem được chi nhánh được phân công; manager/admin được chọn chi nhánh.
+     * Trả về null nếu là toàn hệ thống (chỉ admin).
+     */
+    private String resolveBranch(WebSocketSession session, String requestedBranch) {
+        boolean canChooseBranch = hasPermission(session, PermissionConstants.Admin.DASHBOARD_VIEW_ADMIN)
+                || hasPermission(session, PermissionConstants.Manager.DASHBOARD_VIEW_MANAGER);
+        if (canChooseBranch) {
+            return requestedBranch;
+        }
+        if (hasPermission(session, PermissionConstants.Staff.DASHBOARD_VIEW_STAFF)) {
+            String username = (String) session.getAttributes().get(DashboardHandshakeInterceptor.ATTR_USERNAME);
+            return userRepository.findByUsername(username)
+                    .map(User::getAssignedBranch)
+                    .map(Branch::getId)
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean hasPermission(WebSocketSession session, String permission) {
+        Object permissions = session.getAttributes().get(DashboardHandshakeInterceptor.ATTR_PERMISSIONS);
+        return permissions instanceof Set<?> set && ((Set<String>) set).contains(permission);
+    }
+
+    private void cleanupSession(WebSocketSession session) {
+        Subscriber subscriber = subscribers.remove(session.getId());
+        if (subscriber == null) {
+            return;
+        }
+        synchronized (subscriber) {
+            if (subscriber.subscribed) {
+                dashboardLiveService.release(subscriber.branchId);
+                subscriber.subscribed = false;
+            }
+        }
+    }
+
+    private void sendError(WebSocketSession session, String message) throws IOException {
+        send(session, Map.of("type", "error", "message", message));
+    }
+
+    private void send(WebSocketSession session, Map<String, Object> data) throws IOException {
+        if (session.isOpen()) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(data)));
+        }
+    }
+
+    private static class Subscriber {
+        final WebSocketSession session;
+        volatile String branchId;
+        volatile boolean subscribed;
+
+        Subscriber(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -1,101 +1,115 @@
 package com.aurora.backend.socket;
 
 import com.aurora.backend.service.RagService;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import reactor.core.Disposable;
 
-import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Kênh /ws/rag/stream: client gửi {"message":"..."} và nhận câu trả lời dạng stream.
+ * <p>
+ * Token từ Gemini chỉ được nối vào buffer của stream (không gửi trên thread của Reactor/Gemini);
+ * mỗi stream có một virtual thread gom token thành frame - gửi khi đủ coalesce-chars ký tự hoặc sau coalesce-interval.
+ * Session được bọc ConcurrentWebSocketSessionDecorator; client đọc quá chậm (token dồn quá send-buffer-limit byte UTF-8
+ * khi thread gửi đang bị chặn, hoặc decorator vượt send-time-limit/send-buffer-limit) bị đóng kết nối
+ * thay vì giữ buffer vô hạn. Mỗi IP chạy tối đa max-streams-per-ip stream cùng lúc.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class GeminiStreamWebSocketHandler implements WebSocketHandler {
 
+    private static final String DEFAULT_MESSAGE = "dịch vụ của khách sạn aurora";
+    // Envelope JSON dựng sẵn, chỉ escape phần nội dung
+    private static final String CHUNK_FRAME_PREFIX = "{\"type\":\"chunk\",\"data\":\"";
+    private static final String ERROR_FRAME_PREFIX = "{\"type\":\"error\",\"message\":\"";
+    private static final TextMessage COMPLETE_FRAME = new TextMessage("{\"type\":\"complete\",\"status\":\"finished\"}");
+    private static final TextMessage INVALID_FORMAT_FRAME = errorFrame("Invalid message format");
+    private static final TextMessage TOO_MANY_STREAMS_FRAME = errorFrame("Too many concurrent requests");
+
     private final RagService geminiRagService;
+    private final ChatMemoryStore chatMemoryStore;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferLimitBytes;
+    private final long coalesceIntervalNanos;
+    private final int coalesceChars;
+    private final int maxStreamsPerIp;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<String, Disposable> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<String, Integer> streamsPerIp = new ConcurrentHashMap<>();
+
+    public GeminiStreamWebSocketHandler(RagService geminiRagService,
+                                        ChatMemoryStore chatMemoryStore,
+                                        @Value("${rag.websocket.send-time-limit:5s}") Duration sendTimeLimit,
+                                        @Value("${rag.websocket.send-buffer-limit:65536}") int sendBufferLimitBytes,
+                                        @Value("${rag.websocket.coalesce-interval:50ms}") Duration coalesceInterval,
+                                        @Value("${rag.websocket.coalesce-chars:256}") int coalesceChars,
+                                        @Value("${rag.websocket.max-streams-per-ip:4}") int maxStreamsPerIp) {
+        this.geminiRagService = geminiRagService;
+        this.chatMemoryStore = chatMemoryStore;
+        this.sendTimeLimitMillis = (int) sendTimeLimit.toMillis();
+        this.sendBufferLimitBytes = sendBufferLimitBytes;
+        this.coalesceIntervalNanos = coalesceInterval.toNanos();
+        this.coalesceChars = Math.max(coalesceChars, 1);
+        this.maxStreamsPerIp = Math.max(maxStreamsPerIp, 1);
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         log.info("WebSocket connected: {}", session.getId());
-        sendMessage(session, Map.of(
-                "type", "connection",
-                "status", "connected",
-                "sessionId", session.getId()
-        ));
+        WebSocketSession safeSession = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMillis, sendBufferLimitBytes);
+        connections.put(session.getId(), new Connection(safeSession, clientIp(session)));
+        send(safeSession, new TextMessage("{\"type\":\"connection\",\"status\":\"connected\",\"sessionId\":\""
+                + escape(session.getId()) + "\"}"));
     }
 
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        if (message instanceof TextMessage) {
-            String payload = ((TextMessage) message).getPayload();
-            log.info("Received message: {}", payload);
-
-            try {
-                Map<String, String> request = objectMapper.readValue(payload, Map.class);
-                String userMessage = request.getOrDefault("message", "dịch vụ của khách sạn aurora");
-                String chatId = request.getOrDefault("chatId", "1");
-
-                // Hủy subscription cũ nếu có
-                Disposable oldSubscription = subscriptions.remove(session.getId());
-                if (oldSubscription != null && !oldSubscription.isDisposed()) {
-                    oldSubscription.dispose();
-                }
-
-                // Stream response
-                Disposable subscription = geminiRagService.stream(chatId, userMessage)
-                        .doOnNext(chunk -> {
-                            try {
-                                if (chunk != null && !chunk.trim().isEmpty()) {
-                                    sendMessage(session, Map.of(
-                                            "type", "chunk",
-                                            "data", chunk
-                                    ));
-                                }
-                            } catch (Exception e) {
-                                log.error("Error sending chunk: {}", e.getMessage());
-                            }
-                        })
-                        .doOnComplete(() -> {
-                            try {
-                                sendMessage(session, Map.of(
-                                        "type", "complete",
-                                        "status", "finished"
-                                ));
-                                subscriptions.remove(session.getId());
-                            } catch (Exception e) {
-                                log.error("Error sending completion: {}", e.getMessage());
-                            }
-                        })
-                        .doOnError(error -> {
-                            try {
-                                log.error("Streaming error: {}", error.getMessage());
-                                sendMessage(session, Map.of(
-                                        "type", "error",
-                                        "message", error.getMessage()
-                                ));
-                                subscriptions.remove(session.getId());
-                            } catch (Exception e) {
-                                log.error("Error sending error message: {}", e.getMessage());
-                            }
-                        })
-                        .subscribe();
+        Connection connection = connections.get(session.getId());
+        if (connection == null || !(message instanceof TextMessage textMessage)) {
+            return;
+        }
+        String payload = textMessage.getPayload();
+        log.info("Received message: {}", payload);
 
-                subscriptions.put(session.getId(), subscription);
+        String userMessage;
+        try {
+            Map<String, String> request = objectMapper.readValue(payload, Map.class);
+            userMessage = request.getOrDefault("message", DEFAULT_MESSAGE);
+        } catch (Exception e) {
+            log.error("Error processing message: {}", e.getMessage());
+            send(connection.session, INVALID_FORMAT_FRAME);
+            return;
+        }
 
-            } catch (Exception e) {
-                log.error("Error processing message: {}", e.getMessage());
-                sendMessage(session, Map.of(
-                        "type", "error",
-                        "message", "Invalid message format"
-                ));
+        synchronized (connection) {
+            // Hủy stream cũ nếu có (trả lại suất của IP trước khi xin suất mới)
+            connection.cancelStream();
+            if (!acquireStream(connection.ip)) {
+                send(connection.session, TOO_MANY_STREAMS_FRAME);
+                return;
             }
+
+            StreamSender sender = new StreamSender(connection.session);
+            Thread.ofVirtual().name("rag-ws-" + session.getId()).start(sender);
+            connection.sender = sender;
+            // Mỗi WebSocket session là một hội thoại riêng, không nhận chatId từ client
+            connection.subscription = geminiRagService.stream(chatId(session), userMessage)
+                    .doFinally(signal -> releaseStream(connection.ip))
+                    .subscribe(sender::append, sender::fail, sender::finish);
         }
     }
 
@@ -116,17 +130,232 @@ public class GeminiStreamWebSocketHandler implements WebSocketHandler {
         return false;
     }
 
-    private void sendMessage(WebSocketSession session, Map<String, Object> data) throws IOException {
-        if (session.isOpen()) {
-            String json = objectMapper.writeValueAsString(data);
-            session.sendMessage(new TextMessage(json));
-        }
+    private boolean acquireStream(String ip) {
+        boolean[] acquired = {false};
+        streamsPerIp.compute(ip, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxStreamsPerIp) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseStream(String ip) {
+        streamsPerIp.computeIfPresent(ip, (key, count) -> count <= 1 ? null : count - 1);
     }
 
     private void cleanupSession(WebSocketSession session) {
-        Disposable subscription = subscriptions.remove(session.getId());
-        if (subscription != null && !subscription.isDisposed()) {
-            subscription.dispose();
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            synchronized (connection) {
+                connection.cancelStream();
+            }
+        }
+        chatMemoryStore.deleteMessages(chatId(session));
+    }
+
+    private static String chatId(WebSocketSession session) {
+        return "ws:" + session.getId();
+    }
+
+    private static String clientIp(WebSocketSession session) {
+        InetSocketAddress address = session.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static void send(WebSocketSession session, TextMessage message) {
+        try {
+            if (session.isOpen()) {
+                session.sendMessage(message);
+            }
+        } catch (Exception e) {
+            log.debug("Failed to send to {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            log.debug("Failed to close {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private static TextMessage errorFrame(String message) {
+        return new TextMessage(ERROR_FRAME_PREFIX + escape(message) + "\"}");
+    }
+
+    private static String escape(String text) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(text));
+    }
+
+    private static final class Connection {
+        private final WebSocketSession session;
+        private final String ip;
+        private Disposable subscription;
+        private StreamSender sender;
+
+        private Connection(WebSocketSession session, String ip) {
+            this.session = session;
+            this.ip = ip;
+        }
+
+        private void cancelStream() {
+            if (subscription != null && !subscription.isDisposed()) {
+                subscription.dispose();
+            }
+            if (sender != null) {
+                sender.cancel();
+            }
+            subscription = null;
+            sender = null;
+        }
+    }
+
+    /**
+     * Số byte UTF-8 của text, không cấp phát (cặp surrogate = 4 byte)
+     */
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gom token của một stream thành frame và gửi tuần tự trên virtual thread riêng
+     */
+    private final class StreamSender implements Runnable {
+        private final WebSocketSession session;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final StringBuilder pending = new StringBuilder();
+        // Kích thước UTF-8 của pending - cùng đơn vị byte với giới hạn của ConcurrentWebSocketSessionDecorator
+        private int pendingBytes;
+        private boolean finished;
+        private boolean cancelled;
+        private String error;
+
+        private StreamSender(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void append(String chunk) {
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (finished) {
+                    return;
+                }
+                // Client không đọc kịp (thread gửi đang bị chặn) - ngắt kết nối thay vì dồn token vô hạn
+                int chunkBytes = utf8Length(chunk);
+                if (pendingBytes + chunkBytes > sendBufferLimitBytes) {
+                    finished = true;
+                    cancelled = true;
+                    changed.signal();
+                    log.debug("Client {} too slow, closing session", session.getId());
+                    Thread.ofVirtual().start(() -> closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE));
+                    return;
+                }
+                boolean wasEmpty = pending.isEmpty();
+                pending.append(chunk);
+                pendingBytes += chunkBytes;
+                // Đánh thức khi bắt đầu đếm thời gian gom hoặc khi đã đủ kích thước frame
+                if (wasEmpty || pending.length() >= coalesceChars) {
+                    changed.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finish() {
+            terminate(null, false);
+        }
+
+        void fail(Throwable throwable) {
+            log.error("Streaming error: {}", throwable.getMessage());
+            terminate(throwable.getMessage() != null ? throwable.getMessage() : "Streaming error", false);
+        }
+
+        void cancel() {
+            terminate(null, true);
+        }
+
+        private void terminate(String errorMessage, boolean cancel) {
+            lock.lock();
+            try {
+                finished = true;
+                cancelled |= cancel;
+                error = errorMessage;
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    String text;
+                    boolean done;
+                    String errorMessage;
+                    lock.lock();
+                    try {
+                        while (pending.isEmpty() && !finished) {
+                            changed.await();
+                        }
+                        long deadline = System.nanoTime() + coalesceIntervalNanos;
+                        while (pending.length() < coalesceChars && !finished) {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                break;
+                            }
+                            changed.awaitNanos(remaining);
+                        }
+                        if (cancelled) {
+                            return;
+                        }
+                        text = pending.toString();
+                        pending.setLength(0);
+                        pendingBytes = 0;
+                        done = finished;
+                        errorMessage = error;
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (!text.isEmpty()) {
+                        send(session, new TextMessage(CHUNK_FRAME_PREFIX + escape(text) + "\"}"));
+                    }
+                    if (done) {
+                        send(session, errorMessage != null ? errorFrame(errorMessage) : COMPLETE_FRAME);
+                        return;
+                    }
+                    if (!session.isOpen()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.aurora.backend.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV writer (RFC 4180) ghi thẳng ra response stream.
+ * Flush định kỳ để servlet container gửi chunk cho client thay vì buffer toàn bộ file.
+ */
+public class CsvRowWriter implements ReportRowWriter {
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final char UTF8_BOM = '\uFEFF'; // Để Excel mở đúng tiếng Việt
+
+    private final Writer writer;
+    private int pendingRows;
+
+    public CsvRowWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    @Override
+    public void writeHeader(String... columns) throws IOException {
+        writer.write(UTF8_BOM);
+        writeRow((Object[]) columns);
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(values[i]);
+        }
+        writer.write("\r\n");
+
+        if (++pendingRows >= FLUSH_EVERY_ROWS) {
+            writer.flush();
+            pendingRows = 0;
+        }
+    }
+
+    private void writeCell(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        boolean needsQuoting = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,31 @@
+package com.aurora.backend.util;
+
+import com.aurora.backend.enums.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Ghi từng dòng báo cáo trực tiếp ra OutputStream của response.
+ * Không giữ toàn bộ dữ liệu trong bộ nhớ - mỗi dòng được ghi ngay khi đọc từ cursor.
+ */
+public interface ReportRowWriter extends Closeable {
+
+    void writeHeader(String... columns) throws IOException;
+
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * Export bị hủy giữa chừng (client ngắt kết nối, lỗi truy vấn): close() chỉ dọn tài nguyên, không ghi phần còn lại
+     */
+    default void abort() {
+    }
+
+    static ReportRowWriter of(ExportFormat format, OutputStream out, String sheetName) {
+        return switch (format) {
+            case CSV -> new CsvRowWriter(out);
+            case XLSX -> new XlsxRowWriter(out, sheetName);
+        };
+    }
+}
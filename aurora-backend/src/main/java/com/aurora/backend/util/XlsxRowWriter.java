@@ -0,0 +1,115 @@
+package com.aurora.backend.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * XLSX writer dùng SXSSF: chỉ giữ một cửa sổ {@value #ROW_ACCESS_WINDOW} dòng trong heap,
+ * các dòng cũ hơn được flush ra file tạm (nén) nên bộ nhớ không tăng theo số dòng.
+ * Khi vượt quá giới hạn dòng của một sheet, tự động tạo sheet mới.
+ * <p>
+ * Workbook chỉ được ghi ra response khi close() (định dạng zip), nên client chỉ nhận byte đầu tiên sau khi đọc hết
+ * dữ liệu và việc ngắt kết nối chỉ lộ ra lúc đó. Export bị hủy thì không ghi workbook dở dang.
+ */
+public class XlsxRowWriter implements ReportRowWriter {
+
+    private static final int ROW_ACCESS_WINDOW = 200;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final String sheetName;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+
+    private String[] header;
+    private SXSSFSheet sheet;
+    private int sheetCount;
+    private int rowIndex;
+    private boolean aborted;
+
+    public XlsxRowWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.sheetName = sheetName;
+        this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        this.headerStyle.setFont(bold);
+    }
+
+    @Override
+    public void writeHeader(String... columns) {
+        this.header = columns;
+        newSheet();
+    }
+
+    @Override
+    public void writeRow(Object... values) {
+        if (sheet == null || rowIndex >= MAX_ROWS_PER_SHEET) {
+            newSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            setCell(row.createCell(i), values[i]);
+        }
+    }
+
+    private void newSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+        rowIndex = 0;
+        if (header != null) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < header.length; i++) {
+                Cell cell = row.createCell(i);
+                cell.setCellValue(header[i]);
+                cell.setCellStyle(headerStyle);
+            }
+        }
+    }
+
+    private void setCell(Cell cell, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BigDecimal decimal) {
+            cell.setCellValue(decimal.doubleValue());
+        } else if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            cell.setCellValue(bool);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    @Override
+    public void abort() {
+        aborted = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!aborted) {
+                workbook.write(out);
+                out.flush();
+            }
+        } finally {
+            // Xóa file tạm của SXSSF kể cả khi client ngắt kết nối giữa chừng
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -9,4 +9,7 @@ CREATE TABLE IF NOT EXISTS langchain_store (
    embedding vector(768)
 );
 
-CREATE INDEX ON langchain_store USING HNSW (embedding vector_cosine_ops);
\ No newline at end of file
+-- Tham số phải khớp rag.vector-index (RagConfig chỉ cảnh báo khi khác, không tự build lại)
+CREATE INDEX IF NOT EXISTS langchain_store_embedding_idx ON langchain_store USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64);
+-- Full-text search cho HybridContentRetriever (RagConfig cũng tạo index này khi khởi động)
+CREATE INDEX IF NOT EXISTS idx_langchain_store_text_fts ON langchain_store USING GIN (to_tsvector('simple', coalesce(text, '')));
@@ -0,0 +1,5 @@
+#!/bin/bash
+# Cho phép replica (docker-compose profile "replica") kết nối replication tới primary.
+# Chỉ chạy khi khởi tạo volume mới; với volume cũ thêm dòng này vào pg_hba.conf rồi reload.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,113 @@
+package com.aurora.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Định tuyến câu hỏi của ChatbotFactIndex trên bản chiếu dữ liệu giả (2 chi nhánh, 3 loại phòng, 1 khuyến mãi):
+ * câu hỏi dữ liệu được trả lời từ DB, câu hỏi có nội dung khác chuyển cho RAG (empty).
+ */
+public class ChatbotFactIndexTest {
+
+    private ChatbotFactIndex factIndex;
+
+    @BeforeEach
+    void setUp() {
+        factIndex = new ChatbotFactIndex(new CatalogJdbcTemplate(), true, 25);
+        factIndex.refresh();
+    }
+
+    @Test
+    void questionsAboutOtherTopicsFallThroughToRag() {
+        assertTrue(factIndex.answer("Hồ bơi ở đâu?").isEmpty());
+        assertTrue(factIndex.answer("Bãi đỗ xe nằm ở đâu?").isEmpty());
+        assertTrue(factIndex.answer("Giá phòng có bao gồm bữa sáng không?").isEmpty());
+        assertTrue(factIndex.answer("Trả phòng muộn có tính phí không?").isEmpty());
+        assertTrue(factIndex.answer("Khách sạn có hồ bơi không?").isEmpty());
+        assertTrue(factIndex.answer("Nên chọn phòng nào cho gia đình?").isEmpty());
+    }
+
+    @Test
+    void answersCatalogQuestionsFromSnapshot() {
+        String branches = factIndex.answer("Aurora có những chi nhánh nào?").orElseThrow();
+        assertTrue(branches.contains("Aurora Hà Nội") && branches.contains("Aurora Sài Gòn"), branches);
+
+        String location = factIndex.answer("Khách sạn Aurora ở đâu?").orElseThrow();
+        assertTrue(location.contains("1 Tràng Tiền"), location);
+
+        String saigon = factIndex.answer("Aurora ở Sài Gòn?").orElseThrow();
+        assertTrue(saigon.contains("2 Lê Lợi") && !saigon.contains("Tràng Tiền"), saigon);
+
+        String prices = factIndex.answer("Giá phòng ở Sài Gòn bao nhiêu?").orElseThrow();
+        assertTrue(prices.contains("Standard Twin") && !prices.contains("Deluxe City View"), prices);
+
+        String deluxe = factIndex.answer("Phòng deluxe giá bao nhiêu tiền một đêm?").orElseThrow();
+        assertTrue(deluxe.contains("Deluxe City View") && !deluxe.contains("Standard Twin"), deluxe);
+
+        String checkIn = factIndex.answer("Mấy giờ nhận phòng?").orElseThrow();
+        assertTrue(checkIn.contains("14:00") && checkIn.contains("12:00"), checkIn);
+
+        String promotions = factIndex.answer("Có khuyến mãi giá phòng không?").orElseThrow();
+        assertTrue(promotions.contains("SUMMER"), promotions);
+    }
+
+    /**
+     * Trả các dòng cố định cho BRANCHES_SQL / ROOM_TYPES_SQL / PROMOTIONS_SQL qua ResultSet giả
+     */
+    private static final class CatalogJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+            List<Object[]> rows;
+            if (sql.contains("FROM branches")) {
+                rows = List.of(
+                        new Object[]{"b1", "Aurora Hà Nội", "1 Tràng Tiền", "Tràng Tiền", "Hoàn Kiếm", "Hà Nội", "024",
+                                LocalTime.of(14, 0), LocalTime.of(12, 0)},
+                        new Object[]{"b2", "Aurora Sài Gòn", "2 Lê Lợi", null, "Quận 1", "Hồ Chí Minh", "028",
+                                LocalTime.of(14, 0), LocalTime.of(12, 0)});
+            } else if (sql.contains("FROM room_types")) {
+                rows = List.of(
+                        new Object[]{"b1", "Deluxe City View", "Deluxe", new BigDecimal("1500000"), 2, 30.0},
+                        new Object[]{"b2", "Standard Twin", "Standard", new BigDecimal("900000"), 2, 22.0},
+                        new Object[]{"b2", "Presidential Suite", "Suite", new BigDecimal("8000000"), 4, 90.0});
+            } else {
+                rows = List.<Object[]>of(
+                        new Object[]{"SUMMER", "Hè rực rỡ", null, LocalDate.now().minusDays(3), LocalDate.now().plusDays(30),
+                                "PERCENTAGE", new BigDecimal("10.00"), null, new BigDecimal("500000"), 2});
+            }
+            List<T> results = new ArrayList<>();
+            try {
+                for (int i = 0; i < rows.size(); i++) {
+                    results.add(rowMapper.mapRow(resultSet(rows.get(i)), i));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return results;
+        }
+
+        private static ResultSet resultSet(Object[] columns) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        Object value = columns[(Integer) args[0] - 1];
+                        return switch (method.getName()) {
+                            case "getDouble" -> ((Number) value).doubleValue();
+                            default -> value;
+                        };
+                    });
+        }
+    }
+}
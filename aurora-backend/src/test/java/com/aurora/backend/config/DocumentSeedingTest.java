@@ -0,0 +1,147 @@
+package com.aurora.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentSeeding với manifest trong bộ nhớ và loader giả ghi lại thứ tự nạp/xóa:
+ * file không đổi bị bỏ qua, file đổi nội dung thay tài liệu cũ sau khi bản mới embed xong,
+ * tài liệu embed lỗi được nạp lại ở lần chạy sau.
+ */
+public class DocumentSeedingTest {
+
+    private RecordingLoader loader;
+    private InMemoryManifest manifest;
+
+    @BeforeEach
+    void setUp() {
+        loader = new RecordingLoader();
+        manifest = new InMemoryManifest();
+    }
+
+    @Test
+    void unchangedFilesAreSkipped() {
+        List<DocumentSeeding.SeedFile> files = List.of(file("policy.txt", "v1"), file("menu.txt", "v1"));
+        assertEquals(new DocumentSeeding.Result(2, 0, 0), run(files));
+
+        loader.events.clear();
+        assertEquals(new DocumentSeeding.Result(0, 2, 0), run(files));
+        assertTrue(loader.events.isEmpty(), loader.events::toString);
+        assertEquals(2, loader.documents.size());
+    }
+
+    @Test
+    void changedFileReplacesPreviousDocumentAfterLoading() {
+        run(List.of(file("policy.txt", "v1"), file("menu.txt", "v1")));
+        String oldId = manifest.entries.get("policy.txt").documentId();
+        loader.events.clear();
+
+        assertEquals(new DocumentSeeding.Result(1, 1, 0), run(List.of(file("policy.txt", "v2"), file("menu.txt", "v1"))));
+
+        String newId = manifest.entries.get("policy.txt").documentId();
+        assertNotEquals(oldId, newId);
+        assertEquals(EmbeddingCache.contentHash("v2"), manifest.entries.get("policy.txt").contentHash());
+        // Bản mới nạp trước, bản cũ chỉ bị xóa sau đó
+        assertEquals(List.of("load policy.txt", "remove " + oldId), loader.events);
+        assertEquals("v2", loader.documents.get(newId));
+        assertFalse(loader.documents.containsKey(oldId));
+    }
+
+    @Test
+    void documentThatFailedToEmbedIsRetried() {
+        loader.failingContents.add("broken");
+        assertEquals(new DocumentSeeding.Result(0, 0, 1), run(List.of(file("guide.txt", "broken"))));
+        DocumentSeeding.ManifestEntry failed = manifest.entries.get("guide.txt");
+        assertNull(failed.contentHash());
+
+        // Cùng nội dung nhưng chưa embed: nạp lại và xóa bản lỗi
+        loader.failingContents.clear();
+        loader.events.clear();
+        assertEquals(new DocumentSeeding.Result(1, 0, 0), run(List.of(file("guide.txt", "broken"))));
+        assertEquals(List.of("load guide.txt", "remove " + failed.documentId()), loader.events);
+        assertEquals(Set.of(manifest.entries.get("guide.txt").documentId()), loader.documents.keySet());
+    }
+
+    @Test
+    void failedReplacementKeepsPreviousDocument() {
+        run(List.of(file("policy.txt", "v1")));
+        String oldId = manifest.entries.get("policy.txt").documentId();
+
+        loader.failingContents.add("v2");
+        assertEquals(new DocumentSeeding.Result(0, 0, 1), run(List.of(file("policy.txt", "v2"))));
+
+        assertEquals(new DocumentSeeding.ManifestEntry(null, oldId), manifest.entries.get("policy.txt"));
+        assertEquals(Map.of(oldId, "v1"), loader.documents);
+
+        // Lần sau embed được: bản cũ mới bị thay
+        loader.failingContents.clear();
+        assertEquals(new DocumentSeeding.Result(1, 0, 0), run(List.of(file("policy.txt", "v2"))));
+        assertFalse(loader.documents.containsKey(oldId));
+        assertEquals(List.of("v2"), List.copyOf(loader.documents.values()));
+    }
+
+    private DocumentSeeding.Result run(List<DocumentSeeding.SeedFile> files) {
+        return new DocumentSeeding(loader, manifest, 2).run(files);
+    }
+
+    private static DocumentSeeding.SeedFile file(String filename, String content) {
+        return new DocumentSeeding.SeedFile(filename, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tài liệu giữ trong map id -> nội dung; nội dung thuộc failingContents được "upload" nhưng embed lỗi
+     */
+    private static final class RecordingLoader implements DocumentSeeding.Loader {
+
+        private final Map<String, String> documents = new ConcurrentHashMap<>();
+        private final Set<String> failingContents = ConcurrentHashMap.newKeySet();
+        private final List<String> events = new ArrayList<>();
+        private final AtomicInteger ids = new AtomicInteger();
+
+        @Override
+        public DocumentSeeding.Seeded load(DocumentSeeding.SeedFile file) {
+            String content = new String(file.content(), StandardCharsets.UTF_8);
+            String id = "doc-" + ids.incrementAndGet();
+            documents.put(id, content);
+            record("load " + file.filename());
+            return new DocumentSeeding.Seeded(id, !failingContents.contains(content));
+        }
+
+        @Override
+        public void remove(String documentId) {
+            documents.remove(documentId);
+            record("remove " + documentId);
+        }
+
+        private void record(String event) {
+            synchronized (events) {
+                events.add(event);
+            }
+        }
+    }
+
+    private static final class InMemoryManifest implements DocumentSeeding.Manifest {
+
+        private final Map<String, DocumentSeeding.ManifestEntry> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, DocumentSeeding.ManifestEntry> entries() {
+            return Map.copyOf(entries);
+        }
+
+        @Override
+        public void record(String filename, DocumentSeeding.ManifestEntry entry) {
+            entries.put(filename, entry);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.service.TokenRevocationService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark throughput CustomJwtDecoder.decode: có cache token đã verify (security.jwt-cache.max-size) so với
+ * không cache (max-size = 0, mỗi request parse + HMAC-SHA512 + validate lại như NimbusJwtDecoder thuần).
+ * <p>
+ * Token giống token ứng dụng phát (HS512, claims userId/roles/permissions/jti), TOKENS token khác nhau được
+ * các thread chọn ngẫu nhiên - mô phỏng nhiều user gửi lại cùng access token của mình. Kiểm tra thu hồi là bản giả
+ * trả về false (Bloom filter trong bộ nhớ) để chỉ đo phần decode.
+ * <p>
+ * Chạy: main class này; tùy chọn -Dbench.threads (mặc định số CPU), -Dbench.seconds (mặc định 5) cho mỗi lần đo,
+ * -Dbench.tokens (mặc định 1000).
+ */
+public class JwtDecoderBenchmark {
+
+    private static final String SIGNER_KEY = "benchmark-signer-key-benchmark-signer-key-benchmark-signer-key-0123456789";
+    private static final int THREADS = Integer.getInteger("bench.threads", Runtime.getRuntime().availableProcessors());
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 5);
+    private static final int TOKENS = Integer.getInteger("bench.tokens", 1_000);
+    private static final int WARMUP_SECONDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(token("user" + i));
+        }
+        TokenRevocationService notRevoked = new TokenRevocationService() {
+            @Override
+            public void revoke(String jti, Instant expiresAt) {
+            }
+
+            @Override
+            public boolean isRevoked(String jti) {
+                return false;
+            }
+        };
+
+        System.out.printf("threads=%d, tokens=%d, %d s per run%n", THREADS, TOKENS, SECONDS);
+        System.out.printf("%-10s %14s %12s%n", "decoder", "ops/s", "ns/op");
+        for (int cacheMaxSize : new int[]{0, 10_000}) {
+            CustomJwtDecoder decoder = new CustomJwtDecoder(notRevoked, SIGNER_KEY, cacheMaxSize);
+            run(decoder, tokens, WARMUP_SECONDS);
+            long ops = run(decoder, tokens, SECONDS);
+            double opsPerSecond = ops / (double) SECONDS;
+            System.out.printf("%-10s %14.0f %12.0f%n", cacheMaxSize > 0 ? "cached" : "uncached",
+                    opsPerSecond, 1e9 * THREADS / opsPerSecond);
+        }
+    }
+
+    private static long run(CustomJwtDecoder decoder, List<String> tokens, int seconds) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Thread.ofPlatform().name("jwt-bench-" + t).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    decoder.decode(tokens.get(random.nextInt(tokens.size())));
+                    count++;
+                }
+                ops.add(count);
+                done.countDown();
+            });
+        }
+        done.await();
+        return ops.sum();
+    }
+
+    private static String token(String username) throws Exception {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .subject(username)
+                .claim("userId", UUID.randomUUID().toString())
+                .claim("roles", List.of("MANAGER"))
+                .claim("permissions", List.of("BOOKING_VIEW", "BOOKING_CREATE", "ROOM_VIEW", "REPORT_VIEW", "DASHBOARD_VIEW"))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.HS512), new Payload(claims.toJSONObject()));
+        jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        return jwsObject.serialize();
+    }
+}
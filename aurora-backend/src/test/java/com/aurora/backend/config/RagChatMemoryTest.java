@@ -0,0 +1,76 @@
+package com.aurora.backend.config;
+
+import com.aurora.backend.service.RagService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RagService dựng như bean geminiRagService (RagConfig.ragService + chatMemoryProvider) với ChatModel giả
+ * ghi lại prompt: lượt sau cùng chatId phải mang theo lượt trước, chatId khác thì không.
+ */
+public class RagChatMemoryTest {
+
+    @Test
+    void secondTurnPromptContainsFirstTurn() {
+        RecordingChatModel chatModel = new RecordingChatModel();
+        InMemoryChatMemoryStore memoryStore = new InMemoryChatMemoryStore();
+        RagService ragService = RagConfig.ragService(chatModel, null, query -> List.of(),
+                new RagConfig().chatMemoryProvider(memoryStore, 10));
+
+        ragService.chat("chat-1", "Khách sạn có hồ bơi không?");
+        ragService.chat("chat-1", "Mở cửa lúc mấy giờ?");
+        ragService.chat("chat-2", "Có chỗ đỗ xe không?");
+
+        List<ChatMessage> secondTurn = chatModel.requests.get(1);
+        assertTrue(secondTurn.stream().anyMatch(message -> message instanceof UserMessage user
+                && user.singleText().contains("Khách sạn có hồ bơi không?")), secondTurn::toString);
+        assertTrue(secondTurn.stream().anyMatch(message -> message instanceof AiMessage ai
+                && "answer 1".equals(ai.text())), secondTurn::toString);
+        assertTrue(secondTurn.get(secondTurn.size() - 1) instanceof UserMessage last
+                && last.singleText().contains("Mở cửa lúc mấy giờ?"));
+
+        List<ChatMessage> otherChat = chatModel.requests.get(2);
+        assertTrue(otherChat.stream().noneMatch(message -> message instanceof AiMessage), otherChat::toString);
+        assertEquals(4, memoryStore.getMessages("chat-1").stream()
+                .filter(message -> !(message instanceof SystemMessage))
+                .count());
+    }
+
+    @Test
+    void statelessChatDoesNotShareMemory() {
+        RecordingChatModel chatModel = new RecordingChatModel();
+        InMemoryChatMemoryStore memoryStore = new InMemoryChatMemoryStore();
+        RagService ragService = RagConfig.ragService(chatModel, null, query -> List.of(),
+                new RagConfig().chatMemoryProvider(memoryStore, 10));
+
+        ragService.chat("Khách sạn có hồ bơi không?");
+        ragService.chat("Mở cửa lúc mấy giờ?");
+
+        assertTrue(chatModel.requests.get(1).stream().noneMatch(message -> message instanceof AiMessage),
+                chatModel.requests.get(1)::toString);
+        assertTrue(memoryStore.getMessages("default").isEmpty());
+    }
+
+    private static final class RecordingChatModel implements ChatModel {
+
+        private final List<List<ChatMessage>> requests = new ArrayList<>();
+
+        @Override
+        public ChatResponse doChat(ChatRequest request) {
+            requests.add(List.copyOf(request.messages()));
+            return ChatResponse.builder().aiMessage(AiMessage.from("answer " + requests.size())).build();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.aurora.backend.rag;
+
+import com.aurora.backend.config.HybridContentRetriever;
+import com.aurora.backend.entity.Document;
+import com.aurora.backend.service.EmbeddingService;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Đánh giá offline (proxy) của cách gộp RRF trong HybridContentRetriever: recall@k và độ trễ của vector-only
+ * so với hybrid trên các PDF trong resources/docs, không cần Gemini hay database.
+ * <p>
+ * Đây KHÔNG phải số đo của cấu hình production: embedding là model giả băm từ/cặp từ (HashingEmbeddingModel),
+ * nhánh từ khóa là BM25 trong bộ nhớ chứ không phải PgFullTextSearch (ts_rank_cd, config 'simple', các từ nối
+ * bằng OR) - hai cách xếp hạng khác nhau nên recall và độ trễ ở đây không suy ra được cho Gemini + Postgres.
+ * Chỉ dùng để so sánh tương đối khi đổi tham số gộp (candidates, rrfK). Chunk giống hệt EmbeddingService.
+ * Bộ câu hỏi: test/resources/rag/retrieval-eval.tsv.
+ * <p>
+ * Chạy: main class này (IDE hoặc java -cp target/test-classes:target/classes:...), tham số tùy chọn là thư mục PDF.
+ */
+public class RetrievalEvaluation {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] KS = {1, 3, 5};
+    private static final int REPETITIONS = 20;
+
+    public static void main(String[] args) throws IOException {
+        Path docsDir = Path.of(args.length > 0 ? args[0] : "src/main/resources/docs");
+        List<String[]> queries = loadQueries();
+
+        EmbeddingModel embeddingModel = new HashingEmbeddingModel(768);
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+        EmbeddingService splitter = new EmbeddingService(null, null, null, null, null, null);
+        Bm25Index bm25 = new Bm25Index();
+
+        List<Path> files;
+        try (var stream = Files.list(docsDir)) {
+            files = stream.filter(path -> path.toString().endsWith(".pdf")).sorted().toList();
+        }
+        int chunkCount = 0;
+        for (Path file : files) {
+            Document document = Document.builder()
+                    .id(file.getFileName().toString())
+                    .filename(file.getFileName().toString())
+                    .fileType("application/pdf")
+                    .build();
+            List<TextSegment> segments;
+            try (InputStream content = Files.newInputStream(file)) {
+                segments = splitter.splitDocument(document, content);
+            }
+            List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+            List<String> ids = store.addAll(embeddings, segments);
+            for (int i = 0; i < ids.size(); i++) {
+                bm25.add(ids.get(i), segments.get(i));
+            }
+            chunkCount += segments.size();
+        }
+        System.out.printf("Indexed %d files, %d chunks, %d queries (proxy: hashing embeddings + in-memory BM25)%n%n",
+                files.size(), chunkCount, queries.size());
+
+        int maxK = Arrays.stream(KS).max().orElse(5);
+        ContentRetriever vectorOnly = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(store)
+                .embeddingModel(embeddingModel)
+                .maxResults(maxK)
+                .minScore(0.0)
+                .build();
+        try (HybridContentRetriever hybrid = new HybridContentRetriever(store, embeddingModel, bm25::search,
+                new HybridContentRetriever.Settings(maxK, 0.0, 20, 60, Duration.ofSeconds(2)))) {
+            evaluate("vector", vectorOnly, queries);
+            evaluate("hybrid", hybrid, queries);
+        }
+    }
+
+    private static void evaluate(String name, ContentRetriever retriever, List<String[]> queries) {
+        int[] found = new int[KS.length];
+        List<Long> latencies = new ArrayList<>();
+        for (String[] query : queries) {
+            List<Content> contents = List.of();
+            for (int r = 0; r < REPETITIONS; r++) {
+                long start = System.nanoTime();
+                contents = retriever.retrieve(Query.from(query[1]));
+                latencies.add(System.nanoTime() - start);
+            }
+            for (int i = 0; i < KS.length; i++) {
+                int k = KS[i];
+                boolean hit = contents.stream().limit(k)
+                        .anyMatch(content -> query[0].equals(content.textSegment().metadata().getString("filename")));
+                found[i] += hit ? 1 : 0;
+            }
+        }
+
+        latencies.sort(null);
+        StringBuilder line = new StringBuilder(String.format("%-7s", name));
+        for (int i = 0; i < KS.length; i++) {
+            line.append(String.format("  recall@%d=%.2f", KS[i], (double) found[i] / queries.size()));
+        }
+        line.append(String.format("  p50=%.2fms  p95=%.2fms",
+                latencies.get(latencies.size() / 2) / 1e6,
+                latencies.get((int) (latencies.size() * 0.95)) / 1e6));
+        System.out.println(line);
+    }
+
+    private static List<String[]> loadQueries() throws IOException {
+        try (InputStream input = Objects.requireNonNull(
+                RetrievalEvaluation.class.getResourceAsStream("/rag/retrieval-eval.tsv"), "retrieval-eval.tsv not found")) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                    .map(line -> line.split("\t", 2))
+                    .toList();
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> token.length() >= 2)
+                .toList();
+    }
+
+    /**
+     * Model giả: băm từ đơn và cặp từ liền nhau vào vector cố định số chiều, chuẩn hóa L2
+     */
+    static final class HashingEmbeddingModel implements EmbeddingModel {
+
+        private final int dimension;
+
+        HashingEmbeddingModel(int dimension) {
+            this.dimension = dimension;
+        }
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            return Response.from(textSegments.stream().map(segment -> Embedding.from(vectorize(segment.text()))).toList());
+        }
+
+        private float[] vectorize(String text) {
+            float[] vector = new float[dimension];
+            List<String> tokens = tokenize(text);
+            for (int i = 0; i < tokens.size(); i++) {
+                add(vector, tokens.get(i), 1f);
+                if (i > 0) {
+                    add(vector, tokens.get(i - 1) + " " + tokens.get(i), 0.5f);
+                }
+            }
+            double norm = 0;
+            for (float value : vector) {
+                norm += value * value;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < vector.length && norm > 0; i++) {
+                vector[i] /= (float) norm;
+            }
+            return vector;
+        }
+
+        private void add(float[] vector, String feature, float weight) {
+            int hash = feature.hashCode() * 0x9E3779B9;
+            vector[Math.floorMod(hash, dimension)] += (hash >>> 31) == 0 ? weight : -weight;
+        }
+
+        @Override
+        public int dimension() {
+            return dimension;
+        }
+    }
+
+    /**
+     * BM25 (k1 = 1.2, b = 0.75) trong bộ nhớ, thế chỗ nhánh PgFullTextSearch khi chạy offline (xếp hạng khác ts_rank_cd)
+     */
+    static final class Bm25Index {
+
+        private final List<String> ids = new ArrayList<>();
+        private final List<TextSegment> segments = new ArrayList<>();
+        private final List<Map<String, Integer>> termFrequencies = new ArrayList<>();
+        private final Map<String, Integer> documentFrequencies = new HashMap<>();
+        private long totalLength;
+
+        void add(String id, TextSegment segment) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            List<String> tokens = tokenize(segment.text());
+            tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+            frequencies.keySet().forEach(token -> documentFrequencies.merge(token, 1, Integer::sum));
+            ids.add(id);
+            segments.add(segment);
+            termFrequencies.add(frequencies);
+            totalLength += tokens.size();
+        }
+
+        List<EmbeddingMatch<TextSegment>> search(String query, int limit) {
+            List<String> terms = tokenize(query).stream().distinct().toList();
+            double averageLength = (double) totalLength / Math.max(ids.size(), 1);
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Map<String, Integer> frequencies = termFrequencies.get(i);
+                int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+                double score = 0;
+                for (String term : terms) {
+                    int tf = frequencies.getOrDefault(term, 0);
+                    if (tf == 0) {
+                        continue;
+                    }
+                    int df = documentFrequencies.get(term);
+                    double idf = Math.log(1 + (ids.size() - df + 0.5) / (df + 0.5));
+                    score += idf * tf * 2.2 / (tf + 1.2 * (0.25 + 0.75 * length / averageLength));
+                }
+                if (score > 0) {
+                    matches.add(new EmbeddingMatch<>(score, ids.get(i), null, segments.get(i)));
+                }
+            }
+            matches.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return matches.subList(0, Math.min(limit, matches.size()));
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.aurora.backend.rag;
+
+import com.aurora.backend.config.PgVectorIndex;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark index ANN của pgvector: p50/p99 độ trễ và recall@5 (so với tìm kiếm chính xác) của HNSW và IVFFlat
+ * với nhiều bộ tham số, trên vector tổng hợp 768 chiều (10k - 1M). Dùng để chọn rag.vector-index.*.
+ * <p>
+ * Vector sinh theo cụm (tâm cụm ngẫu nhiên + nhiễu, chuẩn hóa L2) - gần phân bố embedding thật hơn vector đều,
+ * câu hỏi là điểm mới sinh từ các cụm (không có trong bảng). Ground truth lấy bằng quét tuần tự trước khi tạo index.
+ * Index được tạo bằng chính PgVectorIndex, tham số truy vấn gắn qua connection options như vector store của ứng dụng.
+ * Dữ liệu nằm trong bảng riêng vector_index_benchmark (xóa khi chạy xong), không đụng langchain_store.
+ * <p>
+ * Chạy với Postgres có pgvector (docker-compose): DB_URL, DB_USERNAME, DB_PASSWORD như ứng dụng;
+ * tùy chọn -Dbench.sizes=10000,100000,1000000 -Dbench.queries=100 -Dbench.keep=true.
+ */
+public class VectorIndexBenchmark {
+
+    private static final String TABLE = "vector_index_benchmark";
+    private static final int DIMENSION = 768;
+    private static final int K = 5;
+    private static final int WARMUP_QUERIES = 10;
+    private static final int COPY_BATCH_ROWS = 2_000;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        PGSimpleDataSource adminDataSource = dataSource(null);
+        int[] sizes = Arrays.stream(System.getProperty("bench.sizes", "10000,100000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int queryCount = Integer.getInteger("bench.queries", 100);
+        boolean keep = Boolean.getBoolean("bench.keep");
+
+        System.out.printf("%-9s %-8s %-28s %-18s %9s %9s %9s %10s %9s%n",
+                "rows", "index", "build", "query", "recall@5", "p50 ms", "p99 ms", "build s", "size MB");
+        for (int rows : sizes) {
+            Dataset dataset = new Dataset(rows, new Random(SEED + rows));
+            float[][] queries = dataset.queries(queryCount);
+            try (Connection connection = adminDataSource.getConnection()) {
+                load(connection, dataset);
+                // Ground truth: chưa có index nên ORDER BY ... LIMIT quét toàn bộ bảng
+                List<Set<Integer>> exact = new ArrayList<>();
+                long[] exactLatencies = search(connection, queries, exact);
+                print(rows, "none", "exact scan", "-", 1.0, exactLatencies, 0, 0);
+
+                for (PgVectorIndex.Settings settings : configurations(rows)) {
+                    PgVectorIndex index = new PgVectorIndex(TABLE, settings);
+                    long buildNanos = build(connection, index);
+                    long sizeBytes = indexSize(connection, index);
+                    for (PgVectorIndex.Settings querySettings : querySettings(settings)) {
+                        PgVectorIndex tuned = new PgVectorIndex(TABLE, querySettings);
+                        try (Connection queryConnection = dataSource(tuned.connectionOptions()).getConnection()) {
+                            List<Set<Integer>> found = new ArrayList<>();
+                            long[] latencies = search(queryConnection, queries, found);
+                            print(rows, settings.type().name().toLowerCase(), buildLabel(settings),
+                                    tuned.connectionOptions().replace("-c ", ""), recall(exact, found), latencies,
+                                    buildNanos, sizeBytes);
+                        }
+                    }
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("DROP INDEX IF EXISTS " + index.indexName());
+                    }
+                }
+                if (!keep) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * HNSW: mặc định pgvector và hai mức đồ thị dày hơn; IVFFlat: lists = rows/1000 và sqrt(rows) (khuyến nghị pgvector)
+     */
+    private static List<PgVectorIndex.Settings> configurations(int rows) {
+        int smallLists = Math.max(rows / 1000, 10);
+        int sqrtLists = Math.max((int) Math.sqrt(rows), 10);
+        List<PgVectorIndex.Settings> configurations = new ArrayList<>(List.of(
+                new PgVectorIndex.Settings(PgVectorIndex.Type.HNSW, 16, 64, 0, 0, 0),
+                new PgVectorIndex.Settings(PgVectorIndex.Type.HNSW, 16, 128, 0, 0, 0),
+                new PgVectorIndex.Settings(PgVectorIndex.Type.HNSW, 32, 128, 0, 0, 0),
+                new PgVectorIndex.Settings(PgVectorIndex.Type.IVFFLAT, 0, 0, smallLists, 0, 0)));
+        if (sqrtLists != smallLists) {
+            configurations.add(new PgVectorIndex.Settings(PgVectorIndex.Type.IVFFLAT, 0, 0, sqrtLists, 0, 0));
+        }
+        return configurations;
+    }
+
+    private static List<PgVectorIndex.Settings> querySettings(PgVectorIndex.Settings build) {
+        if (build.type() == PgVectorIndex.Type.HNSW) {
+            return List.of(20, 40, 100, 200).stream()
+                    .map(efSearch -> new PgVectorIndex.Settings(build.type(), build.m(), build.efConstruction(), 0, efSearch, 0))
+                    .toList();
+        }
+        return List.of(1, 5, 10, (int) Math.sqrt(build.lists())).stream()
+                .distinct()
+                .map(probes -> new PgVectorIndex.Settings(build.type(), 0, 0, build.lists(), 0, probes))
+                .toList();
+    }
+
+    private static void load(Connection connection, Dataset dataset) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS vector");
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (id INT PRIMARY KEY, embedding vector(" + DIMENSION + "))");
+        }
+        // COPY theo lô, vector sinh dần - không giữ cả tập dữ liệu trong heap
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        StringBuilder buffer = new StringBuilder(COPY_BATCH_ROWS * DIMENSION * 12);
+        for (int from = 0; from < dataset.rows; from += COPY_BATCH_ROWS) {
+            buffer.setLength(0);
+            for (int id = from; id < Math.min(from + COPY_BATCH_ROWS, dataset.rows); id++) {
+                buffer.append(id).append('\t');
+                appendVector(buffer, dataset.next());
+                buffer.append('\n');
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            CopyIn copy = pgConnection.getCopyAPI().copyIn("COPY " + TABLE + " (id, embedding) FROM STDIN");
+            copy.writeToCopy(bytes, 0, bytes.length);
+            copy.endCopy();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + TABLE);
+        }
+        System.out.printf("# loaded %d rows in %.1f s%n", dataset.rows, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static long build(Connection connection, PgVectorIndex index) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX IF EXISTS " + index.indexName());
+            // Đồ thị HNSW không vừa maintenance_work_mem thì build chậm hơn nhiều
+            statement.execute("SET maintenance_work_mem = '" + System.getProperty("bench.maintenance-work-mem", "1GB") + "'");
+            long start = System.nanoTime();
+            statement.execute(index.createIndexSql());
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static long indexSize(Connection connection, PgVectorIndex index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_relation_size(?::regclass)")) {
+            statement.setString(1, index.indexName());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Cùng dạng truy vấn với PgVectorEmbeddingStore (ORDER BY khoảng cách cosine LIMIT k)
+     */
+    private static long[] search(Connection connection, float[][] queries, List<Set<Integer>> results) throws SQLException {
+        String sql = "SELECT id FROM " + TABLE + " ORDER BY embedding <=> ?::vector LIMIT " + K;
+        long[] latencies = new long[queries.length];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < Math.min(WARMUP_QUERIES, queries.length); i++) {
+                query(statement, queries[i]);
+            }
+            for (int i = 0; i < queries.length; i++) {
+                long start = System.nanoTime();
+                results.add(query(statement, queries[i]));
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static Set<Integer> query(PreparedStatement statement, float[] vector) throws SQLException {
+        StringBuilder text = new StringBuilder(DIMENSION * 12);
+        appendVector(text, vector);
+        statement.setString(1, text.toString());
+        Set<Integer> ids = new HashSet<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private static double recall(List<Set<Integer>> exact, List<Set<Integer>> found) {
+        long hits = 0;
+        long total = 0;
+        for (int i = 0; i < exact.size(); i++) {
+            Set<Integer> expected = exact.get(i);
+            total += expected.size();
+            hits += found.get(i).stream().filter(expected::contains).count();
+        }
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+
+    private static void print(int rows, String index, String build, String query, double recall, long[] latencies,
+                              long buildNanos, long sizeBytes) {
+        System.out.printf("%-9d %-8s %-28s %-18s %9.3f %9.2f %9.2f %10.1f %9.1f%n",
+                rows, index, build, query, recall,
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                buildNanos / 1e9, sizeBytes / (1024.0 * 1024.0));
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = Math.min((int) Math.ceil(percentile * sortedNanos.length) - 1, sortedNanos.length - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sortedNanos[Math.max(index, 0)]) / 1000.0;
+    }
+
+    private static String buildLabel(PgVectorIndex.Settings settings) {
+        return settings.type() == PgVectorIndex.Type.HNSW
+                ? "m=" + settings.m() + ",ef_construction=" + settings.efConstruction()
+                : "lists=" + settings.lists();
+    }
+
+    private static void appendVector(StringBuilder buffer, float[] vector) {
+        buffer.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            buffer.append(vector[i]);
+        }
+        buffer.append(']');
+    }
+
+    private static PGSimpleDataSource dataSource(String options) {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(Objects.requireNonNull(System.getenv("DB_URL"), "DB_URL is not set"));
+        dataSource.setUser(System.getenv("DB_USERNAME"));
+        dataSource.setPassword(System.getenv("DB_PASSWORD"));
+        if (options != null) {
+            dataSource.setOptions(options);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Vector theo cụm: sqrt(rows) tâm cụm, mỗi điểm = tâm + nhiễu Gauss, chuẩn hóa L2 (khoảng cách cosine)
+     */
+    private static final class Dataset {
+        private static final double NOISE = 0.6;
+
+        private final int rows;
+        private final Random random;
+        private final float[][] centroids;
+
+        private Dataset(int rows, Random random) {
+            this.rows = rows;
+            this.random = random;
+            this.centroids = new float[Math.max((int) Math.sqrt(rows), 1)][];
+            for (int i = 0; i < centroids.length; i++) {
+                float[] centroid = new float[DIMENSION];
+                for (int d = 0; d < DIMENSION; d++) {
+                    centroid[d] = (float) random.nextGaussian();
+                }
+                centroids[i] = normalize(centroid);
+            }
+        }
+
+        private float[] next() {
+            return sample(random);
+        }
+
+        /**
+         * Câu hỏi sinh từ bộ sinh ngẫu nhiên riêng để không làm lệch dữ liệu nạp vào bảng
+         */
+        private float[][] queries(int count) {
+            Random queryRandom = new Random(SEED ^ rows);
+            float[][] queries = new float[count][];
+            for (int i = 0; i < count; i++) {
+                queries[i] = sample(queryRandom);
+            }
+            return queries;
+        }
+
+        private float[] sample(Random source) {
+            float[] centroid = centroids[source.nextInt(centroids.length)];
+            float[] vector = new float[DIMENSION];
+            double scale = NOISE / Math.sqrt(DIMENSION);
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = (float) (centroid[d] + source.nextGaussian() * scale);
+            }
+            return normalize(vector);
+        }
+
+        private static float[] normalize(float[] vector) {
+            double norm = 0;
+            for (float value : vector) {
+                norm += value * value;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < vector.length && norm > 0; i++) {
+                vector[i] /= (float) norm;
+            }
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.config.SemanticAnswerCache;
+import com.aurora.backend.service.RagService;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CachingRagService chỉ dùng cache ngữ nghĩa cho câu hỏi không phụ thuộc hội thoại: lượt đầu của chatId
+ * hoặc không có chatId. Delegate giả ghi chat memory như AiServices.
+ */
+public class CachingRagServiceTest {
+
+    private static final String QUESTION = "Mấy giờ nhận phòng?";
+
+    private RecordingMemoryStore memoryStore;
+    private List<String> delegateCalls;
+    private CachingRagService ragService;
+
+    @BeforeEach
+    void setUp() {
+        memoryStore = new RecordingMemoryStore();
+        delegateCalls = new ArrayList<>();
+        RagService delegate = new RagService() {
+            @Override
+            public String chat(String userMessage) {
+                delegateCalls.add("stateless");
+                return "Nhận phòng từ 14:00.";
+            }
+
+            @Override
+            public String chat(String chatId, String userMessage) {
+                delegateCalls.add(chatId);
+                List<ChatMessage> messages = new ArrayList<>(memoryStore.getMessages(chatId));
+                messages.add(UserMessage.from(userMessage));
+                messages.add(AiMessage.from("answer for " + chatId));
+                memoryStore.updateMessages(chatId, messages);
+                return "answer for " + chatId;
+            }
+
+            @Override
+            public Flux<String> stream(String chatId, String userMessage) {
+                return Flux.defer(() -> Flux.just(chat(chatId, userMessage)));
+            }
+        };
+        SemanticAnswerCache answerCache = new SemanticAnswerCache(new FixedEmbeddingModel(), true, 0.95, 100,
+                Duration.ofHours(1));
+        ragService = new CachingRagService(delegate, answerCache, memoryStore);
+    }
+
+    @Test
+    void followUpTurnOfExistingConversationSkipsCache() {
+        assertEquals("answer for first", ragService.chat("first", QUESTION));
+
+        // Lượt đầu của hội thoại khác: trả lời từ cache và ghi vào chat memory
+        assertEquals("answer for first", ragService.chat("second", QUESTION));
+        assertEquals(List.of("first"), delegateCalls);
+        assertEquals(2, memoryStore.getMessages("second").size());
+
+        // Lượt sau của hội thoại đã có lịch sử: luôn gọi delegate, kể cả câu hỏi đã có trong cache
+        assertEquals("answer for second", ragService.chat("second", QUESTION));
+        assertEquals("answer for first", String.join("", ragService.stream("first", QUESTION).collectList().block()));
+        assertEquals(List.of("first", "second", "first"), delegateCalls);
+    }
+
+    @Test
+    void missingChatIdUsesStatelessPathWithoutMemoryKey() {
+        assertEquals("Nhận phòng từ 14:00.", ragService.chat(null, QUESTION));
+        assertEquals("Nhận phòng từ 14:00.", ragService.chat(" ", QUESTION));
+        assertEquals("Nhận phòng từ 14:00.", String.join("", ragService.stream(null, "Giờ trả phòng?").collectList().block()));
+
+        assertEquals(List.of("stateless", "stateless"), delegateCalls);
+        assertTrue(memoryStore.touched.isEmpty(), memoryStore.touched::toString);
+    }
+
+    private static final class RecordingMemoryStore extends InMemoryChatMemoryStore {
+
+        private final List<Object> touched = new ArrayList<>();
+
+        @Override
+        public List<ChatMessage> getMessages(Object memoryId) {
+            touched.add(memoryId);
+            return super.getMessages(memoryId);
+        }
+
+        @Override
+        public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+            touched.add(memoryId);
+            super.updateMessages(memoryId, messages);
+        }
+    }
+
+    /**
+     * Vector theo độ dài và hash câu hỏi - đủ để câu giống hệt nhau khớp, câu khác nhau không khớp
+     */
+    private static final class FixedEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            return Response.from(segments.stream()
+                    .map(segment -> Embedding.from(new float[]{1, segment.text().length(), segment.text().hashCode() % 97}))
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.aurora.backend.service.impl;
+
+import com.aurora.backend.config.EmbeddingCache;
+import com.aurora.backend.entity.Document;
+import com.aurora.backend.service.EmbeddingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IngestionPipeline chạy với EmbeddingService thật (parse Tika + chia chunk + EmbeddingCache + xóa/lưu chunk)
+ * trên InMemoryEmbeddingStore, EmbeddingModel giả lỗi theo kịch bản và Fetcher ghi file tạm.
+ * Không cần Spring context, database hay Gemini.
+ */
+public class IngestionPipelineTest {
+
+    private static final String POISON = "POISON-CHUNK";
+    private static final int DIMENSION = 8;
+    private static final int EMBED_BATCH_SIZE = 2;
+
+    private ScriptedEmbeddingModel embeddingModel;
+    private InMemoryEmbeddingStore<TextSegment> embeddingStore;
+    private EmbeddingService embeddingService;
+    private Map<String, String> contents;
+    private List<String> completed;
+
+    @BeforeEach
+    void setUp() {
+        embeddingModel = new ScriptedEmbeddingModel();
+        embeddingStore = new InMemoryEmbeddingStore<>();
+        embeddingService = new EmbeddingService(embeddingStore, embeddingModel, new ObjectMapper(),
+                new StoreBackedJdbcTemplate(), new InMemoryEmbeddingCache(), event -> {
+        });
+        ReflectionTestUtils.setField(embeddingService, "embedBatchSize", EMBED_BATCH_SIZE);
+        ReflectionTestUtils.setField(embeddingService, "embedMaxRetries", 1);
+        contents = new ConcurrentHashMap<>();
+        completed = new ArrayList<>();
+    }
+
+    @Test
+    void retriesTransientEmbeddingFailureWithBackoff() throws Exception {
+        Document guide = document("guide.txt", text("guide", 8, null));
+        embeddingModel.transientFailures.set(1);
+
+        long start = System.nanoTime();
+        IngestionPipeline pipeline = pipeline();
+        pipeline.run(List.of(guide));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        int chunks = storedChunks(guide).size();
+        int batches = (chunks + EMBED_BATCH_SIZE - 1) / EMBED_BATCH_SIZE;
+        assertTrue(chunks > EMBED_BATCH_SIZE, "document should span several embed batches");
+        assertEquals(1, pipeline.getCompletedDocuments());
+        assertEquals(0, pipeline.getFailedDocuments());
+        assertEquals(chunks, pipeline.getStoredChunks());
+        assertEquals(batches + 1, embeddingModel.calls.get(), "failed batch should be sent again");
+        assertTrue(elapsedMillis >= 1000, "retry should wait for backoff, took " + elapsedMillis + " ms");
+        assertTrue(pipeline.getErrors().isEmpty());
+    }
+
+    @Test
+    void countsCompletedFailedAndUnchangedDocuments() throws Exception {
+        Document policy = document("policy.txt", text("policy", 8, null));
+        IngestionPipeline first = pipeline();
+        first.run(List.of(policy));
+        int policyChunks = storedChunks(policy).size();
+        assertEquals(1, first.getCompletedDocuments());
+        assertTrue(policyChunks > 0);
+
+        Document missing = document("missing.txt", null);
+        Document broken = document("broken.txt", text("broken", 8, 7));
+        Document menu = document("menu.txt", text("menu", 6, null));
+        completed.clear();
+        embeddingModel.calls.set(0);
+
+        IngestionPipeline second = pipeline();
+        second.run(List.of(policy, missing, broken, menu));
+
+        assertEquals(4, second.getTotalDocuments());
+        assertEquals(2, second.getCompletedDocuments());
+        assertEquals(1, second.getUnchangedDocuments());
+        assertEquals(2, second.getFailedDocuments());
+        assertEquals(Set.of("policy.txt", "menu.txt"), Set.copyOf(completed));
+
+        List<String> errors = second.getErrors();
+        assertEquals(2, errors.size());
+        assertTrue(errors.stream().anyMatch(error -> error.startsWith("missing.txt [download]")), errors::toString);
+        assertTrue(errors.stream().anyMatch(error -> error.startsWith("broken.txt [embed]")), errors::toString);
+
+        // Tài liệu không đổi giữ nguyên chunk, tài liệu embed lỗi không để lại chunk dở dang
+        assertEquals(policyChunks, storedChunks(policy).size());
+        assertTrue(storedChunks(broken).isEmpty());
+        assertTrue(storedChunks(missing).isEmpty());
+        assertFalse(storedChunks(menu).isEmpty());
+        assertTrue(embeddingModel.poisonedCalls.get() >= 2, "poisoned batch should be retried before failing");
+    }
+
+    private IngestionPipeline pipeline() {
+        // Một embed worker: lô lỗi của tài liệu được xử lý theo thứ tự, kết quả không phụ thuộc lịch chạy
+        return new IngestionPipeline(embeddingService, this::fetch,
+                (document, totalChunks, metadata) -> {
+                    synchronized (completed) {
+                        completed.add(document.getFilename());
+                    }
+                },
+                new IngestionPipeline.Settings(2, 2, 1, 1, 4));
+    }
+
+    private Path fetch(Document document) throws IOException {
+        String content = contents.get(document.getId());
+        if (content == null) {
+            throw new IOException("404 Not Found: " + document.getFilename());
+        }
+        Path file = Files.createTempFile("ingest-test-", ".txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private Document document(String filename, String content) {
+        Document document = Document.builder().filename(filename).fileType("text/plain").build();
+        document.setId(filename.replace(".txt", "-id"));
+        if (content != null) {
+            contents.put(document.getId(), content);
+        }
+        return document;
+    }
+
+    /**
+     * paragraphs đoạn văn ~500 ký tự (mỗi 3 đoạn thành một chunk 1500 ký tự); poisonAt: đoạn chứa POISON
+     */
+    private static String text(String topic, int paragraphs, Integer poisonAt) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            String sentence = (poisonAt != null && poisonAt == i ? POISON + " " : "")
+                    + "Aurora " + topic + " paragraph " + i + " describes hotel services in detail. ";
+            text.append(sentence.repeat(Math.max(500 / sentence.length(), 1))).append("\n\n");
+        }
+        return text.toString();
+    }
+
+    private List<EmbeddingMatch<TextSegment>> storedChunks(Document document) {
+        return embeddingStore.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(ScriptedEmbeddingModel.vector("query")))
+                .maxResults(10_000)
+                .minScore(0.0)
+                .filter(metadataKey("documentId").isEqualTo(document.getId()))
+                .build()).matches();
+    }
+
+    /**
+     * Model giả: transientFailures lần gọi đầu lỗi tạm thời, lô có chunk chứa POISON luôn lỗi
+     */
+    private static final class ScriptedEmbeddingModel implements EmbeddingModel {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger transientFailures = new AtomicInteger();
+        private final AtomicInteger poisonedCalls = new AtomicInteger();
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            calls.incrementAndGet();
+            if (segments.stream().anyMatch(segment -> segment.text().contains(POISON))) {
+                poisonedCalls.incrementAndGet();
+                throw new IllegalStateException("503 Service Unavailable");
+            }
+            if (transientFailures.getAndDecrement() > 0) {
+                throw new IllegalStateException("429 Too Many Requests");
+            }
+            return Response.from(segments.stream().map(segment -> Embedding.from(vector(segment.text()))).toList());
+        }
+
+        @Override
+        public int dimension() {
+            return DIMENSION;
+        }
+
+        private static float[] vector(String text) {
+            float[] vector = new float[DIMENSION];
+            int hash = text.hashCode();
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = 1 + ((hash >>> (i * 4)) & 0xF);
+            }
+            return vector;
+        }
+    }
+
+    private static final class InMemoryEmbeddingCache extends EmbeddingCache {
+
+        private final Map<String, Embedding> entries = new ConcurrentHashMap<>();
+
+        private InMemoryEmbeddingCache() {
+            super(null, "fake", DIMENSION);
+        }
+
+        @Override
+        public Map<String, Embedding> getAll(Collection<String> contentHashes) {
+            Map<String, Embedding> found = new HashMap<>();
+            for (String hash : contentHashes) {
+                Embedding embedding = entries.get(hash);
+                if (embedding != null) {
+                    found.put(hash, embedding);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public void putAll(Map<String, Embedding> embeddings) {
+            entries.putAll(embeddings);
+        }
+    }
+
+    /**
+     * Trả lời truy vấn hash chunk của EmbeddingService.findUnchanged từ InMemoryEmbeddingStore
+     * (contentHash, filename theo thứ tự chunkIndex) thay cho bảng pgvector
+     */
+    private final class StoreBackedJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            Document document = Document.builder().build();
+            document.setId((String) args[0]);
+            return (List<T>) storedChunks(document).stream()
+                    .map(EmbeddingMatch::embedded)
+                    .sorted(Comparator.comparingInt(segment -> Integer.parseInt(segment.metadata().getString("chunkIndex"))))
+                    .map(segment -> new String[]{segment.metadata().getString("contentHash"), segment.metadata().getString("filename")})
+                    .toList();
+        }
+    }
+}
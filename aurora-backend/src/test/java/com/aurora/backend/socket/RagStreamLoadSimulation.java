@@ -0,0 +1,268 @@
+package com.aurora.backend.socket;
+
+import com.aurora.backend.service.RagService;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mô phỏng tải cho GeminiStreamWebSocketHandler: 1.000 WebSocket session đồng thời, model giả phát
+ * TOKENS token mỗi TOKEN_INTERVAL. Một phần client đọc chậm (mỗi frame chunk mất SLOW_CLIENT_DELAY) để kiểm tra
+ * việc ngắt client chậm, thêm một IP mở nhiều stream để kiểm tra giới hạn theo IP.
+ * <p>
+ * Session là bản giả trong bộ nhớ (không qua mạng) nên đo được phần việc của handler: số frame sau khi gom,
+ * thời gian phát token trên thread của stream (không được bị client chậm chặn), thời gian hoàn thành stream.
+ * <p>
+ * Chạy: main class này (IDE hoặc java -cp target/test-classes:target/classes:...).
+ */
+public class RagStreamLoadSimulation {
+
+    private static final int SESSIONS = 1_000;
+    private static final int SLOW_SESSIONS = 50;
+    private static final int SAME_IP_SESSIONS = 10;
+    private static final int TOKENS = 300;
+    private static final Duration TOKEN_INTERVAL = Duration.ofMillis(10);
+    private static final long SLOW_CLIENT_DELAY_MS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        // Độ trễ phát token so với lịch của Flux.interval - tăng nếu thread của Reactor bị chặn khi gửi
+        AtomicLong maxEmitLagNanos = new AtomicLong();
+        RagService fakeModel = new RagService() {
+            @Override
+            public String chat(String userMessage) {
+                return "";
+            }
+
+            @Override
+            public String chat(String chatId, String userMessage) {
+                return "";
+            }
+
+            @Override
+            public Flux<String> stream(String chatId, String userMessage) {
+                return Flux.defer(() -> {
+                    long subscribedAt = System.nanoTime();
+                    return Flux.interval(TOKEN_INTERVAL)
+                            .take(TOKENS)
+                            .map(i -> {
+                                long lag = System.nanoTime() - subscribedAt - (i + 1) * TOKEN_INTERVAL.toNanos();
+                                maxEmitLagNanos.accumulateAndGet(lag, Math::max);
+                                return "token" + i + " ";
+                            });
+                });
+            }
+        };
+        GeminiStreamWebSocketHandler handler = new GeminiStreamWebSocketHandler(fakeModel, new InMemoryChatMemoryStore(),
+                Duration.ofSeconds(2), 1024, Duration.ofMillis(50), 256, 4);
+
+        int total = SESSIONS + SAME_IP_SESSIONS;
+        CountDownLatch done = new CountDownLatch(total);
+        List<FakeSession> sessions = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String ip = i < SESSIONS ? "10.0." + (i / 250) + "." + (i % 250) : "10.9.9.9";
+            long delay = i < SLOW_SESSIONS ? SLOW_CLIENT_DELAY_MS : 0;
+            sessions.add(new FakeSession("s" + i, ip, delay, handler, done));
+        }
+
+        long start = System.nanoTime();
+        for (FakeSession session : sessions) {
+            handler.afterConnectionEstablished(session);
+            handler.handleMessage(session, new TextMessage("{\"message\":\"Phòng Deluxe giá bao nhiêu?\"}"));
+        }
+        long connectedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean finished = done.await(2, TimeUnit.MINUTES);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long chunkFrames = 0;
+        int completed = 0;
+        int closed = 0;
+        int rejected = 0;
+        List<Long> completionMs = new ArrayList<>();
+        for (FakeSession session : sessions) {
+            chunkFrames += session.chunkFrames.get();
+            if (session.completedAtNanos > 0) {
+                completed++;
+                completionMs.add(TimeUnit.NANOSECONDS.toMillis(session.completedAtNanos - start));
+            }
+            closed += session.closeStatus != null ? 1 : 0;
+            rejected += session.rejected ? 1 : 0;
+        }
+        completionMs.sort(null);
+
+        System.out.printf("sessions=%d (slow=%d, same-ip=%d), tokens/stream=%d, all started in %d ms, finished=%s in %d ms%n",
+                total, SLOW_SESSIONS, SAME_IP_SESSIONS, TOKENS, connectedMs, finished, elapsedMs);
+        System.out.printf("completed=%d, closed (slow client)=%d, rejected (per-ip cap)=%d%n", completed, closed, rejected);
+        System.out.printf("chunk frames=%d (%.1f tokens/frame)%n",
+                chunkFrames, chunkFrames == 0 ? 0.0 : (double) completed * TOKENS / chunkFrames);
+        if (!completionMs.isEmpty()) {
+            System.out.printf("stream completion p50=%d ms, p95=%d ms%n",
+                    completionMs.get(completionMs.size() / 2), completionMs.get((int) (completionMs.size() * 0.95)));
+        }
+        System.out.printf("max token emit lag=%.1f ms%n", maxEmitLagNanos.get() / 1e6);
+        System.exit(0);
+    }
+
+    /**
+     * WebSocketSession giả; client chậm ngủ trong sendMessage như socket bị đầy buffer
+     */
+    private static final class FakeSession implements WebSocketSession {
+        private final String id;
+        private final InetSocketAddress remoteAddress;
+        private final long delayMs;
+        private final GeminiStreamWebSocketHandler handler;
+        private final CountDownLatch done;
+        private final AtomicInteger chunkFrames = new AtomicInteger();
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+        private volatile boolean counted;
+        private volatile boolean rejected;
+        private volatile long completedAtNanos;
+        private volatile CloseStatus closeStatus;
+
+        private FakeSession(String id, String ip, long delayMs, GeminiStreamWebSocketHandler handler,
+                            CountDownLatch done) {
+            this.id = id;
+            this.remoteAddress = new InetSocketAddress(ip, 50_000);
+            this.delayMs = delayMs;
+            this.handler = handler;
+            this.done = done;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (!open) {
+                throw new IOException("closed");
+            }
+            String payload = ((TextMessage) message).getPayload();
+            if (payload.startsWith("{\"type\":\"chunk\"")) {
+                if (delayMs > 0) {
+                    try {
+                        Thread.sleep(delayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                chunkFrames.incrementAndGet();
+            } else if (payload.startsWith("{\"type\":\"complete\"")) {
+                completedAtNanos = System.nanoTime();
+                finish();
+            } else if (payload.contains("Too many concurrent requests")) {
+                rejected = true;
+                finish();
+            }
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            if (open) {
+                open = false;
+                closeStatus = status;
+                try {
+                    handler.afterConnectionClosed(this, status);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+                finish();
+            }
+        }
+
+        private synchronized void finish() {
+            if (!counted) {
+                counted = true;
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return remoteAddress;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/ws/rag/stream");
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+}